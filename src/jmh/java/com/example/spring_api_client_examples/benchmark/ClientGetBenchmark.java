@@ -0,0 +1,72 @@
+package com.example.spring_api_client_examples.benchmark;
+
+import com.example.spring_api_client_examples.dto.Post;
+import com.example.spring_api_client_examples.standin.UpstreamStandInServer;
+import com.example.spring_api_client_examples.utils.api.ApiResponse;
+import com.example.spring_api_client_examples.utils.api.HttpClientUtil;
+import com.example.spring_api_client_examples.utils.api.HttpUrlConnectionUtil;
+import com.example.spring_api_client_examples.utils.api.RestTemplateUtil;
+import com.example.spring_api_client_examples.utils.api.WebClientRegistry;
+import com.example.spring_api_client_examples.utils.api.WebClientUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 네 가지 클라이언트 유틸리티의 GET(게시글 목록 조회) 성능 비교.
+ * 응답 크기(게시글 수)와 서버 지연을 파라미터로 바꿔가며 측정합니다.
+ * 실행: ./gradlew jmh  (할당량은 -prof gc 결과의 gc.alloc.rate.norm 참고)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientGetBenchmark {
+
+    @Param({"1", "100", "10000", "100000"})
+    public int postCount;
+
+    @Param({"0"})
+    public long latencyMillis;
+
+    private UpstreamStandInServer server;
+    private String baseUrl;
+    private String postsUrl;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        server = StandInServers.start(postCount, latencyMillis);
+        baseUrl = server.baseUrl();
+        postsUrl = baseUrl + "/posts";
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.stop();
+        WebClientRegistry.shutdown();
+    }
+
+    @Benchmark
+    public ApiResponse<Post[]> httpUrlConnection() {
+        return HttpUrlConnectionUtil.get(postsUrl, Post[].class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post[]> httpClient() {
+        return HttpClientUtil.get(postsUrl, Collections.emptyMap(), Post[].class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post[]> restTemplate() {
+        return RestTemplateUtil.get(postsUrl, Collections.emptyMap(), Post[].class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post[]> webClient() {
+        return WebClientUtil.get(baseUrl, "/posts", Collections.emptyMap(), Post[].class).block();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.spring_api_client_examples.benchmark;
+
+import com.example.spring_api_client_examples.dto.Post;
+import com.example.spring_api_client_examples.dto.PostRequest;
+import com.example.spring_api_client_examples.standin.UpstreamStandInServer;
+import com.example.spring_api_client_examples.utils.api.ApiResponse;
+import com.example.spring_api_client_examples.utils.api.HttpClientUtil;
+import com.example.spring_api_client_examples.utils.api.HttpUrlConnectionUtil;
+import com.example.spring_api_client_examples.utils.api.RestTemplateUtil;
+import com.example.spring_api_client_examples.utils.api.WebClientRegistry;
+import com.example.spring_api_client_examples.utils.api.WebClientUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 네 가지 클라이언트 유틸리티의 POST/PUT/PATCH/DELETE(단건) 성능 비교.
+ * 본문이 작으므로 주로 커넥션 재사용, 직렬화, 요청 처리 오버헤드를 비교하게 됩니다.
+ * 참고: HttpURLConnection은 PATCH 메서드를 지원하지 않으므로 httpUrlConnectionPatch는 실패 응답 경로를 측정합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientWriteBenchmark {
+
+    @Param({"0"})
+    public long latencyMillis;
+
+    private UpstreamStandInServer server;
+    private String baseUrl;
+    private String postsUrl;
+    private String postUrl;
+    private PostRequest request;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        server = StandInServers.start(1, latencyMillis);
+        baseUrl = server.baseUrl();
+        postsUrl = baseUrl + "/posts";
+        postUrl = baseUrl + "/posts/1";
+        request = new PostRequest(1, "benchmark title", "benchmark body");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.stop();
+        WebClientRegistry.shutdown();
+    }
+
+    // --- POST ---
+    @Benchmark
+    public ApiResponse<Post> httpUrlConnectionPost() {
+        return HttpUrlConnectionUtil.post(postsUrl, request, Post.class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post> httpClientPost() {
+        return HttpClientUtil.post(postsUrl, request, Post.class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post> restTemplatePost() {
+        return RestTemplateUtil.post(postsUrl, request, Post.class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post> webClientPost() {
+        return WebClientUtil.post(baseUrl, "/posts", request, Post.class).block();
+    }
+
+    // --- PUT ---
+    @Benchmark
+    public ApiResponse<Post> httpUrlConnectionPut() {
+        return HttpUrlConnectionUtil.put(postUrl, request, Post.class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post> httpClientPut() {
+        return HttpClientUtil.put(postUrl, request, Post.class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post> restTemplatePut() {
+        return RestTemplateUtil.put(postUrl, request, Post.class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post> webClientPut() {
+        return WebClientUtil.put(baseUrl, "/posts/1", request, Post.class).block();
+    }
+
+    // --- PATCH ---
+    @Benchmark
+    public ApiResponse<Post> httpUrlConnectionPatch() {
+        return HttpUrlConnectionUtil.patch(postUrl, request, Post.class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post> httpClientPatch() {
+        return HttpClientUtil.patch(postUrl, request, Post.class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post> restTemplatePatch() {
+        return RestTemplateUtil.patch(postUrl, request, Post.class);
+    }
+
+    @Benchmark
+    public ApiResponse<Post> webClientPatch() {
+        return WebClientUtil.patch(baseUrl, "/posts/1", request, Post.class).block();
+    }
+
+    // --- DELETE ---
+    @Benchmark
+    public ApiResponse<Void> httpUrlConnectionDelete() {
+        return HttpUrlConnectionUtil.delete(postUrl);
+    }
+
+    @Benchmark
+    public ApiResponse<Void> httpClientDelete() {
+        return HttpClientUtil.delete(postUrl);
+    }
+
+    @Benchmark
+    public ApiResponse<Void> restTemplateDelete() {
+        return RestTemplateUtil.delete(postUrl);
+    }
+
+    @Benchmark
+    public ApiResponse<Void> webClientDelete() {
+        return WebClientUtil.delete(baseUrl, "/posts/1").block();
+    }
+}
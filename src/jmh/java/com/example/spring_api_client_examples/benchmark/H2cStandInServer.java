@@ -0,0 +1,68 @@
+package com.example.spring_api_client_examples.benchmark;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/2 벤치마크용 업스트림 서버 (Reactor Netty, HTTP/1.1 + h2c).
+ * JDK 내장 HttpServer 기반 UpstreamStandInServer는 HTTP/1.1만 지원하므로 따로 둡니다.
+ * h2c는 prior-knowledge와 Upgrade 협상을 모두 받으며, 열린 TCP 커넥션 수와 그 최댓값을 셉니다.
+ */
+final class H2cStandInServer {
+
+    private static final byte[] POST_BODY =
+            "{\"userId\":1,\"id\":1,\"title\":\"benchmark title\",\"body\":\"benchmark body\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final DisposableServer server;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger peakConnections = new AtomicInteger();
+
+    H2cStandInServer(long latencyMillis) {
+        Duration latency = Duration.ofMillis(latencyMillis);
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                // HTTP/1.1에서는 요청 수만큼 동시에 커넥션이 몰리므로 accept 대기열을 넉넉히
+                .option(ChannelOption.SO_BACKLOG, 2048)
+                // 스트림이 아닌 TCP 커넥션 단위로 호출됨
+                .doOnChannelInit((observer, channel, remoteAddress) -> {
+                    peakConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+                    channel.closeFuture().addListener(future -> openConnections.decrementAndGet());
+                })
+                .route(routes -> routes.get("/posts/{id}", (request, response) -> {
+                    Mono<byte[]> body = Mono.just(POST_BODY);
+                    if (!latency.isZero()) {
+                        body = body.delayElement(latency);
+                    }
+                    return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json").sendByteArray(body);
+                }))
+                .bindNow();
+    }
+
+    String baseUrl() {
+        return "http://" + server.host() + ":" + server.port();
+    }
+
+    /** 최댓값을 현재 열린 커넥션 수로 되돌림 (반복 시작 시 호출) */
+    void resetPeak() {
+        peakConnections.set(openConnections.get());
+    }
+
+    int peakConnections() {
+        return peakConnections.get();
+    }
+
+    void stop() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.spring_api_client_examples.benchmark;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import com.example.spring_api_client_examples.dto.Post;
+import com.example.spring_api_client_examples.utils.api.AdaptiveLimiter;
+import com.example.spring_api_client_examples.utils.api.ApiResponse;
+import com.example.spring_api_client_examples.utils.api.HttpClientUtil;
+import com.example.spring_api_client_examples.utils.api.WebClientRegistry;
+import com.example.spring_api_client_examples.utils.api.WebClientUtil;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP/1.1과 HTTP/2(h2c) 다중화 비교: 동시 요청 concurrency건을 한꺼번에 보내고 모두 끝날 때까지의 시간(연산당 시간)과
+ * 그동안 서버에 열린 최대 TCP 커넥션 수(peakConnections), 실패 응답 수(failures)를 측정합니다.
+ * - webClient: H2C는 prior-knowledge, 커넥션/스트림 수는 api.client.webclient.http2.* 기본값(4 x 100)
+ * - httpClient: JDK HttpClient는 prior-knowledge가 없어 H2C도 Upgrade: h2c로 협상
+ * 실행: ./gradlew jmh -PjmhIncludes=Http2MultiplexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Http2MultiplexBenchmark {
+
+    @Param({"HTTP_1_1", "H2C"})
+    public ApiClientProperties.HttpProtocolMode protocol;
+
+    @Param({"1000"})
+    public int concurrency;
+
+    @Param({"20"})
+    public long latencyMillis;
+
+    private H2cStandInServer server;
+    private String baseUrl;
+    private String postUrl;
+
+    /** 반복(iteration)마다 보고되는 보조 지표 */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ConnectionCounters {
+        public int peakConnections;
+        public int failures;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakConnections = 0;
+            failures = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startServer() {
+        server = new H2cStandInServer(latencyMillis);
+        baseUrl = server.baseUrl();
+        postUrl = baseUrl + "/posts/1";
+
+        ApiClientProperties.WebClientPool pool = new ApiClientProperties.WebClientPool();
+        pool.getHttp2().setMode(protocol);
+        WebClientRegistry.configure(pool);
+        ApiClientProperties.HttpClient httpClient = new ApiClientProperties.HttpClient();
+        httpClient.getHttp2().setMode(protocol);
+        HttpClientUtil.configure(httpClient);
+        // 전송 계층만 비교하도록 동시 요청 제한기는 끔 (켜 두면 initialLimit을 넘는 요청이 대기/차단됨)
+        ApiClientProperties.AdaptiveLimiter limiter = new ApiClientProperties.AdaptiveLimiter();
+        limiter.setEnabled(false);
+        AdaptiveLimiter.configure(limiter);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeak() {
+        server.resetPeak();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        WebClientRegistry.shutdown();
+        HttpClientUtil.shutdown();
+        AdaptiveLimiter.configure(new ApiClientProperties.AdaptiveLimiter());
+        server.stop();
+    }
+
+    @Benchmark
+    public int webClient(ConnectionCounters counters) {
+        List<ApiResponse<Post>> responses = Flux.range(0, concurrency)
+                .flatMap(i -> WebClientUtil.get(baseUrl, "/posts/1", Collections.emptyMap(), Post.class), concurrency)
+                .collectList()
+                .block();
+        return record(counters, responses);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public int httpClient(ConnectionCounters counters) {
+        CompletableFuture<ApiResponse<Post>>[] futures = new CompletableFuture[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            futures[i] = HttpClientUtil.getAsync(postUrl, Collections.emptyMap(), Post.class);
+        }
+        CompletableFuture.allOf(futures).join();
+        return record(counters, Arrays.stream(futures).map(CompletableFuture::join).toList());
+    }
+
+    private int record(ConnectionCounters counters, List<ApiResponse<Post>> responses) {
+        int failed = (int) responses.stream().filter(response -> response.getError() != null).count();
+        counters.failures += failed;
+        counters.peakConnections = Math.max(counters.peakConnections, server.peakConnections());
+        return responses.size() - failed;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.spring_api_client_examples.benchmark;
+
+import com.example.spring_api_client_examples.dto.Post;
+import com.example.spring_api_client_examples.utils.api.JsonStreamDecoder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 응답 본문 디코딩 경로 비교: 기존 경로(byte[] → String → readValue(String))와 JsonStreamDecoder의 스트리밍 경로.
+ * 네트워크 없이 디코딩만 측정합니다.
+ * 실행: ./gradlew jmh -PjmhIncludes=JsonDecodeBenchmark  (할당량은 -prof gc 결과의 gc.alloc.rate.norm 참고)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonDecodeBenchmark {
+
+    @Param({"100", "10000"})
+    public int postCount;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void createBody() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < postCount; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"userId\":1,\"id\":").append(i)
+                    .append(",\"title\":\"title ").append(i)
+                    .append("\",\"body\":\"body text for post ").append(i).append("\"}");
+        }
+        body = sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Post[] stringPath() throws IOException {
+        return mapper.readValue(new String(body, StandardCharsets.UTF_8), Post[].class);
+    }
+
+    @Benchmark
+    public Post[] streamingPath() throws IOException {
+        return JsonStreamDecoder.decode(new ByteArrayInputStream(body), Post[].class);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.spring_api_client_examples.benchmark;
+
+import com.example.spring_api_client_examples.standin.StandInProperties;
+import com.example.spring_api_client_examples.standin.UpstreamStandInServer;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 벤치마크용 stand-in 업스트림 서버 생성 도우미 (임의의 빈 포트, 고정 지연).
+ */
+final class StandInServers {
+
+    private StandInServers() {
+    }
+
+    static UpstreamStandInServer start(int postCount, long latencyMillis) throws IOException {
+        StandInProperties settings = new StandInProperties();
+        settings.setPort(0);
+        settings.setPostCount(postCount);
+        if (latencyMillis > 0) {
+            settings.setLatencyDistribution(StandInProperties.LatencyDistribution.FIXED);
+            settings.setLatency(Duration.ofMillis(latencyMillis));
+        }
+        UpstreamStandInServer server = new UpstreamStandInServer(settings);
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.spring_api_client_examples.config;
+
+import com.example.spring_api_client_examples.utils.api.AdaptiveLimiter;
+import com.example.spring_api_client_examples.utils.api.CircuitBreaker;
+import com.example.spring_api_client_examples.utils.api.ClientMetrics;
+import com.example.spring_api_client_examples.utils.api.DownloadScheduler;
+import com.example.spring_api_client_examples.utils.api.FileDownloadUtil;
+import com.example.spring_api_client_examples.utils.api.HttpClientUtil;
+import com.example.spring_api_client_examples.utils.api.HttpUrlConnectionUtil;
+import com.example.spring_api_client_examples.utils.api.RequestCoalescer;
+import com.example.spring_api_client_examples.utils.api.RequestHedger;
+import com.example.spring_api_client_examples.utils.api.ResponseCache;
+import com.example.spring_api_client_examples.utils.api.RestTemplateUtil;
+import com.example.spring_api_client_examples.utils.api.RetryEngine;
+import com.example.spring_api_client_examples.utils.api.WebClientRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 바인딩된 ApiClientProperties를 정적 유틸리티 클래스들에 적용하고,
+ * 애플리케이션 종료 시 공유 리소스(커넥션 풀 등)를 정리합니다.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ApiClientProperties.class)
+@RequiredArgsConstructor
+public class ApiClientConfig {
+
+    private final ApiClientProperties properties;
+
+    @PostConstruct
+    public void applyProperties() {
+        WebClientRegistry.configure(properties.getWebclient());
+        HttpUrlConnectionUtil.configure(properties.getHttpurlconnection());
+        RestTemplateUtil.configure(properties.getResttemplate());
+        HttpClientUtil.configure(properties.getHttpclient());
+        ResponseCache.configure(properties.getCache());
+        RequestCoalescer.configure(properties.getCoalescing().isEnabled());
+        FileDownloadUtil.configure(properties.getDownload());
+        DownloadScheduler.configure(properties.getDownloadScheduler());
+        CircuitBreaker.configure(properties.getCircuitBreaker());
+        RequestHedger.configure(properties.getHedging());
+        RetryEngine.configure(properties.getRetry());
+        AdaptiveLimiter.configure(properties.getAdaptiveLimiter());
+    }
+
+    /**
+     * 유틸리티 공통 호출 메트릭(api.client.requests / api.client.bytes / api.client.parse.failures)을
+     * 애플리케이션 MeterRegistry에 연결합니다. (/actuator/prometheus 로 노출)
+     */
+    @Bean
+    public MeterBinder apiClientMetrics() {
+        return ClientMetrics::bind;
+    }
+
+    /**
+     * 공유 응답 캐시 통계를 Micrometer로 노출합니다.
+     * (적중률 = hit / (hit + stale + miss), 304 재검증 수는 revalidations{result=not_modified})
+     */
+    @Bean
+    public MeterBinder responseCacheMetrics() {
+        return registry -> {
+            registerCacheCounter(registry, "api.client.cache.requests", "result", "hit", ResponseCache::getHitCount);
+            registerCacheCounter(registry, "api.client.cache.requests", "result", "stale", ResponseCache::getStaleHitCount);
+            registerCacheCounter(registry, "api.client.cache.requests", "result", "miss", ResponseCache::getMissCount);
+            registerCacheCounter(registry, "api.client.cache.revalidations", "result", "not_modified", ResponseCache::getNotModifiedCount);
+            registerCacheCounter(registry, "api.client.cache.evictions", "cause", "size", ResponseCache::getEvictionCount);
+            Gauge.builder("api.client.cache.size", ResponseCache.class, ignored -> ResponseCache.getSize())
+                    .description("응답 캐시 엔트리 수 (추정치)")
+                    .register(registry);
+        };
+    }
+
+    private static void registerCacheCounter(MeterRegistry registry, String name, String tagKey, String tagValue,
+                                             LongSupplier counter) {
+        FunctionCounter.builder(name, ResponseCache.class, ignored -> counter.getAsLong())
+                .tag(tagKey, tagValue)
+                .register(registry);
+    }
+
+    /**
+     * 내용 주소 다운로드 저장소 통계를 Micrometer 카운터로 노출합니다.
+     * (result=deduplicated: 같은 내용이 있어 디스크 쓰기 생략, result=not_modified: 304로 전송 생략)
+     */
+    @Bean
+    public MeterBinder downloadStoreMetrics() {
+        return registry -> {
+            FunctionCounter.builder("api.client.download.store", FileDownloadUtil.class,
+                            ignored -> FileDownloadUtil.getDeduplicatedCount())
+                    .tag("result", "deduplicated")
+                    .register(registry);
+            FunctionCounter.builder("api.client.download.store", FileDownloadUtil.class,
+                            ignored -> FileDownloadUtil.getNotModifiedCount())
+                    .tag("result", "not_modified")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 다운로드 저장 디렉토리 사용량을 Micrometer로 노출합니다.
+     * (used / quota로 사용률, usable이 min-free-space에 가까우면 다운로드가 거부되기 시작함)
+     */
+    @Bean
+    public MeterBinder downloadStorageMetrics() {
+        return registry -> {
+            Gauge.builder("api.client.download.storage.used", FileDownloadUtil.class,
+                            ignored -> FileDownloadUtil.getStorageUsedBytes())
+                    .description("저장 디렉토리 사용량 (하드 링크는 한 번만 셈)")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("api.client.download.storage.quota", FileDownloadUtil.class,
+                            ignored -> FileDownloadUtil.getStorageQuotaBytes())
+                    .description("저장 용량 제한 (0이면 제한 없음)")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("api.client.download.storage.usable", FileDownloadUtil.class,
+                            ignored -> FileDownloadUtil.getStorageUsableSpace())
+                    .description("저장 디렉토리 파일 시스템의 사용 가능한 공간")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("api.client.download.storage.files", FileDownloadUtil.class,
+                            ignored -> FileDownloadUtil.getStorageFileCount())
+                    .description("저장 파일 수")
+                    .register(registry);
+            FunctionCounter.builder("api.client.download.storage.evictions", FileDownloadUtil.class,
+                            ignored -> FileDownloadUtil.getStorageEvictionCount())
+                    .description("용량/파일 수 제한으로 정리한 수")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 다운로드 스케줄러의 우선순위별 대기열 길이와 진행 중인 다운로드 수를 게이지로 노출합니다.
+     * (대기 시간은 ClientMetrics의 api.client.download.scheduler.wait 타이머)
+     */
+    @Bean
+    public MeterBinder downloadSchedulerMetrics() {
+        return registry -> {
+            for (DownloadScheduler.Priority priority : DownloadScheduler.Priority.values()) {
+                Gauge.builder("api.client.download.scheduler.queued", DownloadScheduler.class,
+                                ignored -> DownloadScheduler.getQueueDepth(priority))
+                        .description("시작을 기다리는 다운로드 수")
+                        .tag("priority", priority.tag())
+                        .register(registry);
+                Gauge.builder("api.client.download.scheduler.active", DownloadScheduler.class,
+                                ignored -> DownloadScheduler.getActiveCount(priority))
+                        .description("진행 중인 다운로드 수")
+                        .tag("priority", priority.tag())
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * 동시 GET 병합 통계를 Micrometer 카운터로 노출합니다.
+     * (role=leader: 실제 업스트림 호출, role=waiter: 진행 중인 호출에 합류하여 생략된 호출)
+     */
+    @Bean
+    public MeterBinder requestCoalescingMetrics() {
+        return registry -> {
+            FunctionCounter.builder("api.client.coalescing.requests", RequestCoalescer.class,
+                            ignored -> RequestCoalescer.getLeaderCount())
+                    .tag("role", "leader")
+                    .register(registry);
+            FunctionCounter.builder("api.client.coalescing.requests", RequestCoalescer.class,
+                            ignored -> RequestCoalescer.getCoalescedCount())
+                    .tag("role", "waiter")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * HttpURLConnection keep-alive 재사용 통계를 Micrometer 카운터로 노출합니다. (HTTPS 대상만)
+     * (재사용률 = reused / (reused + new))
+     * 평문 http 대상(stand-in 서버 등)은 새 소켓 생성을 감지할 수 없어 세지 않으므로,
+     * 부하 테스트에서 재사용률을 보려면 HTTPS 대상으로 측정해야 합니다.
+     */
+    @Bean
+    public MeterBinder httpUrlConnectionReuseMetrics() {
+        return registry -> {
+            FunctionCounter.builder("api.client.httpurlconnection.https.connections", HttpUrlConnectionUtil.class,
+                            ignored -> HttpUrlConnectionUtil.getHttpsNewConnectionCount())
+                    .tag("type", "new")
+                    .description("새로 생성된 HTTPS 커넥션 수")
+                    .register(registry);
+            FunctionCounter.builder("api.client.httpurlconnection.https.connections", HttpUrlConnectionUtil.class,
+                            ignored -> HttpUrlConnectionUtil.getHttpsReusedConnectionCount())
+                    .tag("type", "reused")
+                    .description("keep-alive 캐시에서 재사용된 HTTPS 커넥션 수")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * RestTemplate(APACHE 팩토리) 커넥션 풀 상태를 Micrometer 게이지로 노출합니다.
+     * 다른 팩토리를 사용 중이면 값은 0입니다.
+     */
+    @Bean
+    public MeterBinder restTemplatePoolMetrics() {
+        return registry -> {
+            registerPoolGauge(registry, "leased", PoolStats::getLeased);
+            registerPoolGauge(registry, "available", PoolStats::getAvailable);
+            registerPoolGauge(registry, "pending", PoolStats::getPending);
+            registerPoolGauge(registry, "max", PoolStats::getMax);
+        };
+    }
+
+    private static void registerPoolGauge(MeterRegistry registry, String state,
+                                          ToIntFunction<PoolStats> extractor) {
+        Gauge.builder("api.client.resttemplate.pool.connections", RestTemplateUtil.class, ignored -> {
+                    PoolStats stats = RestTemplateUtil.getPoolStats();
+                    return stats != null ? extractor.applyAsInt(stats) : 0;
+                })
+                .tag("state", state)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void releaseResources() {
+        log.info("API 클라이언트 공유 리소스 정리");
+        WebClientRegistry.shutdown();
+        RestTemplateUtil.shutdown();
+        HttpClientUtil.shutdown();
+        ResponseCache.shutdown();
+    }
+}
@@ -0,0 +1,406 @@
+package com.example.spring_api_client_examples.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * application.properties의 'api.client.*' 설정을 바인딩하는 클래스입니다.
+ * 각 유틸리티는 정적(static) 클래스이므로, 바인딩된 값은 ApiClientConfig에서 유틸리티로 전달됩니다.
+ * 설정이 없을 경우 아래 필드의 기본값이 그대로 사용됩니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "api.client")
+public class ApiClientProperties {
+
+    private Upstream upstream = new Upstream();
+    private WebClientPool webclient = new WebClientPool();
+    private HttpUrlConnection httpurlconnection = new HttpUrlConnection();
+    private RestTemplate resttemplate = new RestTemplate();
+    private HttpClient httpclient = new HttpClient();
+    private ResponseCache cache = new ResponseCache();
+    private Coalescing coalescing = new Coalescing();
+    private Batch batch = new Batch();
+    private Download download = new Download();
+    private DownloadScheduler downloadScheduler = new DownloadScheduler();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Hedging hedging = new Hedging();
+    private Retry retry = new Retry();
+    private AdaptiveLimiter adaptiveLimiter = new AdaptiveLimiter();
+
+    // =========================================================================
+    // 업스트림(외부 API) 주소 설정 - 오프라인 테스트 시 stand-in 서버 주소로 덮어씀
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class Upstream {
+        // 게시글 CRUD API
+        private String baseUrl = "https://jsonplaceholder.typicode.com";
+        // JPG 다운로드
+        private String w3cBaseUrl = "https://placehold.co";
+        // PNG 다운로드
+        private String stableImgBaseUrl = "https://pngimg.com";
+        // PDF 다운로드
+        private String mozillaBaseUrl = "https://mozilla.github.io";
+        // MP4 다운로드
+        private String mp4TestBaseUrl = "http://commondatastorage.googleapis.com";
+    }
+
+    // =========================================================================
+    // WebClient (Reactor Netty) 커넥션 풀 설정
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class WebClientPool {
+        // ConnectionProvider 이름 (메트릭 태그로 사용됨)
+        private String poolName = "api-client-pool";
+        // 원격 호스트당 최대 커넥션 수
+        private int maxConnections = 200;
+        // 커넥션 획득 대기열 최대 길이 (초과 시 즉시 실패)
+        private int pendingAcquireMaxCount = 1000;
+        // 커넥션 획득 대기 최대 시간
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+        // 유휴 커넥션 유지 시간 (초과 시 제거)
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        // 커넥션 최대 수명 (초과 시 재사용하지 않고 제거)
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        // 백그라운드 제거(eviction) 주기
+        private Duration evictInBackground = Duration.ofSeconds(30);
+        // 이벤트 루프 워커 스레드 수 (0 이하이면 CPU 코어 수 사용)
+        private int loopWorkerCount = 0;
+        // 응답 타임아웃
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        // 풀 게이지(Micrometer) 활성화 여부
+        private boolean metricsEnabled = true;
+        // bodyToMono로 한 번에 버퍼링할 수 있는 최대 응답 크기 (기본 256KB로는 큰 Post[] 응답이 실패함)
+        private DataSize maxInMemorySize = DataSize.ofMegabytes(16);
+        // HTTP/2 다중화 설정 (기본 HTTP_1_1)
+        private Http2 http2 = new Http2();
+    }
+
+    // =========================================================================
+    // HttpURLConnection keep-alive 설정
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class HttpUrlConnection {
+        // true면 disconnect()를 생략하여 JDK keep-alive 캐시로 소켓을 반환
+        private boolean keepAliveEnabled = true;
+        // 목적지(host:port)별 keep-alive 캐시 최대 유휴 커넥션 수 (http.maxConnections)
+        private int keepAliveMaxConnections = 20;
+        // 서버가 Keep-Alive 타임아웃을 알려주지 않을 때의 유휴 유지 시간 (http.keepAlive.time.server)
+        private Duration keepAliveIdleTimeout = Duration.ofSeconds(30);
+    }
+
+    // =========================================================================
+    // RestTemplate 요청 팩토리(ClientHttpRequestFactory) 설정
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class RestTemplate {
+        // 사용할 요청 팩토리 종류
+        private RequestFactoryType factory = RequestFactoryType.APACHE;
+        // 전체 최대 커넥션 수 (APACHE)
+        private int maxConnTotal = 200;
+        // 라우트(host:port)별 최대 커넥션 수 (APACHE, REACTOR)
+        private int maxConnPerRoute = 50;
+        // 커넥션 최대 수명 (APACHE, REACTOR)
+        private Duration connectionTtl = Duration.ofMinutes(5);
+        // 이 시간 이상 유휴였던 커넥션은 재사용 전에 유효성 검사 (APACHE)
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        // 백그라운드 스레드가 유휴 커넥션을 제거하는 기준 시간 (APACHE, REACTOR)
+        private Duration evictIdleTime = Duration.ofSeconds(30);
+        // 풀에서 커넥션을 얻기까지 최대 대기 시간 (APACHE)
+        private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(5);
+    }
+
+    public enum RequestFactoryType {
+        // 기존 방식 (커넥션 풀 없음, 비교용)
+        SIMPLE,
+        // Apache HttpClient 5 PoolingHttpClientConnectionManager
+        APACHE,
+        // JDK java.net.http.HttpClient
+        JDK,
+        // Reactor Netty HttpClient
+        REACTOR
+    }
+
+    // =========================================================================
+    // JDK HttpClient 설정
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class HttpClient {
+        // sendAsync 응답 처리를 수행할 Executor 종류
+        private ExecutorType executor = ExecutorType.DEFAULT;
+        // FIXED 사용 시 스레드 수
+        private int executorThreads = 16;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        // HTTP/2 사용 설정 (mode만 반영, 나머지는 WebClient 전용). JDK 기본값과 같이 HTTP_2
+        private Http2 http2 = new Http2(HttpProtocolMode.HTTP_2);
+    }
+
+    public enum ExecutorType {
+        // HttpClient 기본 Executor (내부 캐시 스레드 풀)
+        DEFAULT,
+        // 고정 크기 스레드 풀
+        FIXED,
+        // 가상 스레드 (Java 21 이상에서만 동작, 그 외에는 DEFAULT로 대체)
+        VIRTUAL
+    }
+
+    // =========================================================================
+    // HTTP/2 다중화 설정 (WebClient, JDK HttpClient 공용)
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class Http2 {
+        // 사용할 프로토콜
+        private HttpProtocolMode mode = HttpProtocolMode.HTTP_1_1;
+        // 커넥션 하나에서 동시에 보낼 최대 스트림 수 (서버가 SETTINGS로 더 작게 알려주면 그 값 사용)
+        private int maxConcurrentStreams = 100;
+        // 원격 호스트당 최대 HTTP/2 커넥션 수 (HTTP/1.1로 대체된 커넥션은 풀의 maxConnections를 따름, JDK HttpClient는 무시)
+        private int maxConnections = 4;
+        // TLS(ALPN) 협상에서 서버가 h2를 고르지 않았을 때의 처리
+        private Http2Fallback fallback = Http2Fallback.HTTP_1_1;
+
+        public Http2() {
+        }
+
+        public Http2(HttpProtocolMode mode) {
+            this.mode = mode;
+        }
+    }
+
+    public enum HttpProtocolMode {
+        // 기존 방식 (HTTP/1.1, 요청마다 커넥션 하나 점유)
+        HTTP_1_1,
+        // https:// 에서 ALPN으로 h2 협상 (http:// 는 HTTP/1.1)
+        HTTP_2,
+        // 평문 h2c prior-knowledge (로컬 stand-in 등 h2c를 지원하는 것이 확실한 서버 전용)
+        H2C
+    }
+
+    public enum Http2Fallback {
+        // h2 협상에 실패하면 HTTP/1.1로 계속 진행
+        HTTP_1_1,
+        // h2 협상에 실패하면 요청 실패 처리
+        FAIL
+    }
+
+    // =========================================================================
+    // GET 응답 캐시 설정 (네 가지 유틸리티 공용)
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class ResponseCache {
+        // false면 getCached 계열 메서드도 매번 업스트림을 호출
+        private boolean enabled = true;
+        // 최대 엔트리 수 (초과 시 W-TinyLFU 정책으로 제거)
+        private long maximumSize = 1000;
+        // 경로별 TTL이 없을 때의 기본 신선도 유지 시간
+        private Duration defaultTtl = Duration.ofSeconds(30);
+        // 경로 접두사별 TTL (예: api.client.cache.route-ttls[/posts]=1m, 가장 긴 접두사 우선)
+        private Map<String, Duration> routeTtls = new LinkedHashMap<>();
+        // TTL이 지난 뒤 이 시간 동안은 캐시 값을 즉시 반환하고 백그라운드에서 재검증
+        private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+        // 위 구간도 지난 엔트리를 ETag/Last-Modified 조건부 요청용으로 보관하는 시간
+        private Duration revalidationRetention = Duration.ofMinutes(10);
+        // 백그라운드 재검증 스레드 수
+        private int refreshThreads = 2;
+    }
+
+    // =========================================================================
+    // 동일 GET 동시 요청 병합(single-flight) 설정
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class Coalescing {
+        // true면 같은 URL/응답 타입의 동시 GET을 업스트림 호출 한 번으로 병합
+        private boolean enabled = true;
+    }
+
+    // =========================================================================
+    // 단건 조회 배치(BatchLoader) 설정
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class Batch {
+        // 첫 키가 들어온 뒤 다건 조회를 보내기까지 기다리는 시간
+        private Duration window = Duration.ofMillis(5);
+        // 이 개수가 모이면 시간 창과 관계없이 즉시 전송 (URL 길이 제한 고려)
+        private int maxBatchSize = 50;
+        // true면 한 요청 안에서 같은 id를 다시 조회할 때 첫 결과를 재사용
+        private boolean requestCacheEnabled = true;
+    }
+
+    // =========================================================================
+    // 파일 다운로드(FileDownloadUtil) 설정
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class Download {
+        // true면 서버가 Range를 지원할 때 파일을 여러 구간으로 나눠 동시에 받음
+        private boolean segmentedEnabled = true;
+        // 동시에 받을 구간(커넥션) 수
+        private int segments = 4;
+        // 이 크기보다 작은 파일은 구간 분할 없이 단일 스트림으로 받음
+        private DataSize minSegmentedSize = DataSize.ofMegabytes(8);
+        // true면 Range 다운로드를 '.part' 파일과 진행 상태 사이드카로 받아 실패 후 이어받음
+        private boolean resumeEnabled = true;
+        // 한 번의 호출 안에서 이어받기로 재시도하는 최대 횟수 (응답 4xx는 재시도하지 않음)
+        private int resumeRetries = 2;
+        // 재시도 사이 대기 시간 (지수 백오프 시작값)
+        private Duration resumeBackoff = Duration.ofSeconds(1);
+        // 이만큼 쓸 때마다 진행 상태를 사이드카에 저장 (프로세스가 죽어도 이어받을 수 있는 단위)
+        private DataSize checkpointInterval = DataSize.ofMegabytes(4);
+        // true면 내용의 SHA-256으로 저장하여 같은 내용은 한 번만 디스크에 두고, 이전에 받은 URL은 조건부 요청으로 재검증
+        private boolean contentAddressed = true;
+        // 이 크기를 넘는 파일은 받지 않음 (Content-Length로 미리, 모르면 받는 도중에 중단, 0이면 제한 없음)
+        private DataSize maxFileSize = DataSize.ofGigabytes(2);
+        // 허용하는 파일 형식 (본문의 매직 넘버로 판별, 모르면 Content-Type 기준, 예: image/*, 비어 있으면 모두 허용)
+        private List<String> allowedTypes = new ArrayList<>();
+        // 저장 디렉토리 용량 제한 (넘으면 eviction-policy 순서로 오래된 파일을 지움, 0이면 제한 없음)
+        private DataSize storageQuota = DataSize.ofGigabytes(10);
+        // 저장 파일 수 제한 (디렉토리가 너무 커지지 않도록, 0이면 제한 없음)
+        private int storageMaxFiles = 10000;
+        // 제한을 넘었을 때 지울 파일을 고르는 기준
+        private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+        // 다운로드를 시작할 때 디스크에 남겨 둘 최소 여유 공간 (모자라면 정리 후에도 부족하면 다운로드 거부)
+        private DataSize minFreeSpace = DataSize.ofGigabytes(1);
+    }
+
+    public enum EvictionPolicy {
+        // 가장 오래전에 사용한 파일부터
+        LRU,
+        // 사용 횟수가 가장 적은 파일부터 (같으면 오래전에 사용한 파일)
+        LFU
+    }
+
+    // =========================================================================
+    // 다운로드 스케줄러(DownloadScheduler) 설정
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class DownloadScheduler {
+        // false면 다운로드를 대기 없이 바로 시작 (동시 실행 수/대역폭 제한 없음)
+        private boolean enabled = true;
+        // 전체 동시 다운로드 수
+        private int maxConcurrent = 8;
+        // 호스트별 동시 다운로드 수
+        private int maxPerHost = 4;
+        // BULK 다운로드가 쓸 수 없도록 INTERACTIVE 전용으로 남겨 두는 자리 수
+        private int interactiveReserved = 2;
+        // 우선순위별 초당 대역폭 (0이면 제한 없음, 같은 우선순위의 다운로드가 나눠 씀)
+        private DataSize interactiveBandwidth = DataSize.ofBytes(0);
+        private DataSize bulkBandwidth = DataSize.ofBytes(0);
+    }
+
+    // =========================================================================
+    // 호스트별 서킷 브레이커 설정 (네 가지 유틸리티 공용)
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        // 실패율/느린 호출 비율을 계산할 최근 호출 수 (호스트별)
+        private int windowSize = 20;
+        // 창에 이 수만큼 쌓이기 전에는 열지 않음
+        private int minimumCalls = 10;
+        // 실패(연결/타임아웃 오류, 5xx) 비율(%)이 이 값 이상이면 OPEN
+        private float failureRateThreshold = 50f;
+        // 이 시간 이상 걸린 호출은 느린 호출로 셈
+        private Duration slowCallDuration = Duration.ofSeconds(3);
+        // 느린 호출 비율(%)이 이 값 이상이면 OPEN
+        private float slowCallRateThreshold = 80f;
+        // OPEN 상태를 유지하는 시간 (지나면 HALF_OPEN)
+        private Duration openDuration = Duration.ofSeconds(10);
+        // HALF_OPEN에서 허가하는 시험 호출 수
+        private int halfOpenPermittedCalls = 3;
+    }
+
+    // =========================================================================
+    // 멱등 요청 헤징 설정 (WebClientUtil, HttpClientUtil)
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class Hedging {
+        // true일 때만 헤지 요청을 보냄 (opt-in)
+        private boolean enabled = false;
+        // 헤징 대상 메서드 (멱등 메서드만 지정)
+        private List<String> methods = new ArrayList<>(List.of("GET", "PUT", "DELETE"));
+        // 관측치가 모자랄 때 헤지 요청을 보내기까지 기다리는 시간
+        private Duration delay = Duration.ofMillis(200);
+        // 경로 접두사별 고정 대기 시간 (예: api.client.hedging.route-delays[/posts]=150ms, 가장 긴 접두사 우선, 관측치보다 우선)
+        private Map<String, Duration> routeDelays = new LinkedHashMap<>();
+        // 경로별로 관측한 응답 시간의 이 백분위를 대기 시간으로 사용
+        private double percentile = 0.95;
+        // 관측 백분위를 쓰기 위한 최소 표본 수
+        private int minSamples = 20;
+        // 대기 시간 하한 (관측 백분위가 아주 작을 때 헤지가 남발되지 않도록)
+        private Duration minDelay = Duration.ofMillis(10);
+        // 요청 100건당 보낼 수 있는 헤지 요청 수
+        private double budgetPercent = 10;
+    }
+
+    // =========================================================================
+    // 재시도 설정 (네 가지 유틸리티 공용)
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class Retry {
+        private boolean enabled = true;
+        // 첫 요청을 포함한 최대 시도 수
+        private int maxAttempts = 3;
+        // 재시도하는 메서드 (멱등 메서드만. POST/PATCH를 넣으면 같은 요청이 두 번 반영될 수 있음)
+        private List<String> methods = new ArrayList<>(List.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE"));
+        // 재시도하는 응답 상태 코드
+        private List<Integer> retryableStatuses = new ArrayList<>(List.of(408, 429, 502, 503, 504));
+        // 응답을 받지 못했을 때 재시도하는 예외 클래스 (원인 예외까지 확인, 하위 클래스 포함)
+        private List<String> retryableExceptions = new ArrayList<>(List.of(
+                "java.io.IOException",
+                "java.util.concurrent.TimeoutException",
+                "io.netty.handler.timeout.TimeoutException"));
+        // 지수 백오프의 기준 시간과 상한 (full jitter: 0 ~ min(maxBackoff, baseBackoff * 2^(n-1)))
+        private Duration baseBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(2);
+        // Retry-After가 이보다 길면 재시도하지 않고 바로 반환
+        private Duration maxRetryAfter = Duration.ofSeconds(10);
+        // 호스트별 재시도 예산: 요청 100건당 재시도 수
+        private double budgetPercent = 20;
+        // 요청이 적을 때도 보장하는 초당 재시도 수
+        private double minRetriesPerSecond = 1;
+    }
+
+    // =========================================================================
+    // 적응형 동시 요청 제한 설정 (네 가지 유틸리티 공용, 호스트별 AIMD)
+    // =========================================================================
+    @Getter
+    @Setter
+    public static class AdaptiveLimiter {
+        private boolean enabled = true;
+        // 호스트별 동시 요청 제한의 시작값과 하한/상한
+        private int initialLimit = 32;
+        private int minLimit = 1;
+        private int maxLimit = 512;
+        // 스로틀링 응답을 받으면 제한에 곱하는 비율 (multiplicative decrease)
+        private double backoffRatio = 0.5;
+        // 스로틀링으로 보는 응답 상태 코드
+        private List<Integer> throttleStatuses = new ArrayList<>(List.of(429, 503));
+        // Retry-After를 받았을 때 호스트로 새 요청을 보내지 않는 최대 시간
+        private Duration maxPause = Duration.ofSeconds(30);
+        // 호스트별 허가 대기열 크기와 최대 대기 시간 (넘으면 보내지 않고 LOAD_SHED)
+        private int maxQueue = 256;
+        private Duration maxWait = Duration.ofSeconds(2);
+    }
+}
@@ -1,17 +1,40 @@
 package com.example.spring_api_client_examples.controller;
 
+import com.example.spring_api_client_examples.config.ApiClientProperties;
 import com.example.spring_api_client_examples.dto.FileMetaData;
 import com.example.spring_api_client_examples.dto.Post;
 import com.example.spring_api_client_examples.dto.PostRequest;
 import com.example.spring_api_client_examples.service.ApiService;
 import com.example.spring_api_client_examples.utils.api.ApiResponse;
+import com.example.spring_api_client_examples.utils.api.DownloadStream;
+import com.example.spring_api_client_examples.utils.api.JsonElementIterator;
+import com.example.spring_api_client_examples.utils.file.StoredFileServer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/v1")
@@ -19,6 +42,8 @@ import reactor.core.publisher.Mono;
 public class ApiController {
 
     private final ApiService apiService;
+    private final ApiClientProperties properties;
+    private final ObjectMapper objectMapper;
 
     // --- 헬퍼 메서드 ---
 
@@ -37,6 +62,42 @@ public class ApiController {
                 });
     }
 
+    /**
+     * 비동기 호출(CompletableFuture) 결과를 CompletableFuture<ResponseEntity>로 변환
+     * Spring MVC가 비동기 요청으로 처리하므로, 응답을 기다리는 동안 서블릿(Tomcat) 스레드가 반환됩니다.
+     */
+    private <T> CompletableFuture<ResponseEntity<ApiResponse<T>>> mapFutureResponse(CompletableFuture<ApiResponse<T>> responseFuture) {
+        return responseFuture.thenApply(this::buildSyncResponse);
+    }
+
+    /**
+     * 요소 단위 Iterator를 NDJSON(한 줄에 JSON 하나)으로 흘려보내는 응답으로 변환
+     * 실패 응답이면 기존과 동일하게 ApiResponse JSON을 반환합니다.
+     */
+    private <T> ResponseEntity<?> buildNdjsonResponse(ApiResponse<JsonElementIterator<T>> response) {
+        JsonElementIterator<T> iterator = response.getData();
+        if (iterator == null) {
+            return buildSyncResponse(response);
+        }
+        // writeValue()가 출력 스트림을 닫지 않도록 AUTO_CLOSE_TARGET 비활성화
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody body = out -> {
+            try (iterator) {
+                long count = 0;
+                while (iterator.hasNext()) {
+                    writer.writeValue(out, iterator.next());
+                    out.write('\n');
+                    // 첫 요소는 바로 내보내 TTFB를 낮추고, 이후에는 100개 단위로 flush
+                    if (count++ % 100 == 0) {
+                        out.flush();
+                    }
+                }
+                out.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     // =========================================================================
     // 1. GET 엔드포인트 (READ)
     // =========================================================================
@@ -159,6 +220,73 @@ public class ApiController {
         return mapAsyncResponse(apiService.deletePostWebClient());
     }
 
+    // =========================================================================
+    // 5-1. HttpClient 비동기 엔드포인트 (sendAsync + CompletableFuture)
+    // =========================================================================
+    @GetMapping("/get/httpclient/async")
+    public CompletableFuture<ResponseEntity<ApiResponse<Post[]>>> getHttpClientAsync() {
+        return mapFutureResponse(apiService.callHttpClientAsync());
+    }
+
+    @PostMapping("/post/httpclient/async")
+    public CompletableFuture<ResponseEntity<ApiResponse<Post>>> postHttpClientAsync(@RequestBody PostRequest req) {
+        return mapFutureResponse(apiService.createPostHttpClientAsync(req));
+    }
+
+    @PutMapping("/put/httpclient/async/{id}")
+    public CompletableFuture<ResponseEntity<ApiResponse<Post>>> putHttpClientAsync(@PathVariable String id, @RequestBody PostRequest req) {
+        return mapFutureResponse(apiService.updatePostPutHttpClientAsync(req));
+    }
+
+    @PatchMapping("/patch/httpclient/async/{id}")
+    public CompletableFuture<ResponseEntity<ApiResponse<Post>>> patchHttpClientAsync(@PathVariable String id, @RequestBody PostRequest req) {
+        return mapFutureResponse(apiService.updatePostPatchHttpClientAsync(req));
+    }
+
+    @DeleteMapping("/delete/httpclient/async/{id}")
+    public CompletableFuture<ResponseEntity<ApiResponse<Void>>> deleteHttpClientAsync(@PathVariable String id) {
+        return mapFutureResponse(apiService.deletePostHttpClientAsync());
+    }
+
+    // =========================================================================
+    // 5-1-1. 단건 조회 배치 엔드포인트 (동시 요청의 id를 /posts?id=... 한 번으로 묶음)
+    // =========================================================================
+    @GetMapping("/get/httpclient/batch/{id}")
+    public CompletableFuture<ResponseEntity<ApiResponse<Post>>> getPostBatched(@PathVariable int id) {
+        return mapFutureResponse(apiService.loadPost(id));
+    }
+
+    @GetMapping("/get/webclient/batch/{id}")
+    public Mono<ResponseEntity<ApiResponse<Post>>> getPostBatchedWebClient(@PathVariable int id) {
+        return mapAsyncResponse(apiService.loadPostWebClient(id));
+    }
+
+    /** GET /api/v1/get/httpclient/batch?ids=1,2,3 */
+    @GetMapping("/get/httpclient/batch")
+    public CompletableFuture<List<ApiResponse<Post>>> getPostsBatched(@RequestParam List<Integer> ids) {
+        return apiService.loadPosts(ids);
+    }
+
+    // =========================================================================
+    // 5-2. 스트리밍 GET 엔드포인트 (application/x-ndjson)
+    // =========================================================================
+    @GetMapping(value = "/stream/httpurlconnection", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> streamHttpURLConnection() {
+        return buildNdjsonResponse(apiService.streamPostsHttpUrlConnection());
+    }
+
+    @GetMapping(value = "/stream/httpclient", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> streamHttpClient() {
+        return buildNdjsonResponse(apiService.streamPostsHttpClient());
+    }
+
+    // Spring MVC가 Flux를 구독하여 요소마다 한 줄씩 쓰고 flush하며, 쓰기가 끝나야 다음 요소를 요청합니다(backpressure).
+    @GetMapping(value = "/stream/webclient", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Post> streamWebClient() {
+        return apiService.streamPostsWebClient()
+                .doOnError(e -> log.error("WebClient 스트리밍 중 오류 발생: {}", e.getMessage()));
+    }
+
 // =========================================================================
     // 6. 파일 다운로드 엔드포인트 (DOWNLOAD) - 확장
     // =========================================================================
@@ -222,4 +350,76 @@ public class ApiController {
                             .body(null));
                 });
     }
+
+    /**
+     * GET /api/v1/download/webclient/{type}/stream?tee=false  (type: jpg | png | pdf | mp4)
+     * 업스트림 파일을 디스크에 저장하지 않고 응답으로 그대로 중계합니다. (Content-Type / Content-Length / Content-Disposition 유지)
+     * 클라이언트가 읽는 속도에 맞춰 업스트림에서 읽어 오며, 클라이언트가 연결을 끊으면 업스트림 전송도 중단됩니다.
+     * tee=true면 중계하면서 로컬 저장소에도 사본을 저장합니다.
+     */
+    @GetMapping("/download/webclient/{type}/stream")
+    public ResponseEntity<StreamingResponseBody> streamDownloadWebClient(@PathVariable String type,
+                                                                         @RequestParam(defaultValue = "false") boolean tee,
+                                                                         HttpServletRequest request) {
+        DownloadStream download;
+        try {
+            // 업스트림 응답 헤더까지만 기다림 (본문은 아래 StreamingResponseBody에서 서블릿 비동기 스레드가 중계)
+            // 헤더가 응답 타임아웃 안에 오지 않으면 서블릿 스레드를 더 붙잡지 않고 실패 처리
+            download = apiService.openDownloadStream(type, tee).block(properties.getWebclient().getResponseTimeout());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (WebClientResponseException e) {
+            log.error("패스스루 다운로드 업스트림 오류: {}", e.getStatusCode());
+            return ResponseEntity.status(e.getStatusCode()).build();
+        } catch (RuntimeException e) {
+            log.error("패스스루 다운로드 처리 중 치명적인 오류 발생: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        try {
+            HttpHeaders upstream = download.getHeaders();
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(upstream.getContentType() != null ? upstream.getContentType() : MediaType.APPLICATION_OCTET_STREAM);
+            if (upstream.getContentLength() >= 0) {
+                headers.setContentLength(upstream.getContentLength());
+            }
+            String contentDisposition = upstream.getFirst(HttpHeaders.CONTENT_DISPOSITION);
+            if (contentDisposition != null) {
+                headers.set(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+            }
+            // 비동기 처리가 타임아웃/오류로 끝나 transferTo가 실행되지 못했으면 본문을 버려 업스트림 커넥션을 반환
+            // (이미 읽었거나 읽는 중이면 discard는 아무것도 하지 않음)
+            WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(download, new CallableProcessingInterceptor() {
+                @Override
+                public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                    download.discard();
+                }
+            });
+            return ResponseEntity.ok().headers(headers).body(download::transferTo);
+        } catch (RuntimeException e) {
+            // 응답을 만들지 못하면 본문을 읽지 않은 채 버리므로 업스트림 커넥션을 반환
+            download.discard();
+            log.error("패스스루 다운로드 응답 생성 실패: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    // =========================================================================
+    // 7. 저장된 파일 제공 엔드포인트 (로컬 엣지 캐시)
+    // =========================================================================
+
+    /**
+     * GET /api/v1/files/{id}  (id: 다운로드 결과의 savedFileName 또는 contentHash)
+     * ETag / Last-Modified 조건부 요청(304), 단일·다중 Range(206), If-Range를 지원하며,
+     * 가능하면 sendfile로 힙을 거치지 않고 전송합니다.
+     */
+    @GetMapping("/files/{id}")
+    public void serveStoredFile(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = apiService.findStoredFile(id);
+        if (file == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        StoredFileServer.serve(file, request, response);
+    }
 }
@@ -17,4 +17,6 @@ public class FileMetaData {
     private Path savedPath;
     private String contentType;
     private Long fileSize;
+    // 내용의 SHA-256 해시 (내용 주소 저장 모드에서만 채워짐)
+    private String contentHash;
 }
@@ -1,33 +1,30 @@
 package com.example.spring_api_client_examples.service;
 
+import com.example.spring_api_client_examples.config.ApiClientProperties;
 import com.example.spring_api_client_examples.dto.FileMetaData;
 import com.example.spring_api_client_examples.dto.Post;
 import com.example.spring_api_client_examples.dto.PostRequest;
 import com.example.spring_api_client_examples.utils.api.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class ApiService {
 
-    private static final String BASE_URL = "https://jsonplaceholder.typicode.com";
     private static final String RESOURCE_PATH_ALL = "/posts";
     private static final String RESOURCE_PATH_SINGLE = "/posts/1";
     private static final Map<String, Object> COMMON_GET_PARAMS = Map.of("userId", 1);
 
-    // 파일 다운로드를 위한 외부 API (테스트 서버 주소 변경)
-    // JPG/PNG/PDF는 W3C에서, MP4는 Big Buck Bunny 테스트 파일 서버에서 가져옵니다.
-    private static final String W3C_BASE_URL = "https://placehold.co";
-    private static final String MP4_TEST_BASE_URL = "http://commondatastorage.googleapis.com";
-    private static final String MOZILLA_BASE_URL = "https://mozilla.github.io"; // 새로운 PDF Base URL 추가
-    private static final String STABLE_IMG_BASE_URL = "https://pngimg.com";
-
-
     // W3C 테스트 샘플
     private static final String JPG_PATH = "/600x400/000000/FFFFFF/jpg";
     private static final String PNG_PATH = "/uploads/butterfly/butterfly_PNG1000.png";
@@ -37,28 +34,65 @@ public class ApiService {
     // 영상 샘플: Google Cloud Storage에 호스팅된 표준 Big Buck Bunny MP4 파일 경로로 변경
     private static final String MP4_PATH = "/gtv-videos-bucket/sample/BigBuckBunny.mp4";
 
+    // 업스트림 주소는 설정(api.client.upstream.*)에서 읽습니다. (기본값은 공개 테스트 서버)
+    // 파일 다운로드: JPG는 placehold.co, PNG는 pngimg.com, PDF는 Mozilla, MP4는 Big Buck Bunny 테스트 파일 서버
+    private final String baseUrl;
+    private final String w3cBaseUrl;
+    private final String mp4TestBaseUrl;
+    private final String mozillaBaseUrl;
+    private final String stableImgBaseUrl;
+
+    // 단건 조회(/posts/{id})를 다건 조회(/posts?id=1&id=2...)로 묶는 배치 로더
+    private final BatchLoader<Integer, Post> postLoader;
+    private final boolean batchRequestCacheEnabled;
+
+    public ApiService(ApiClientProperties properties) {
+        ApiClientProperties.Upstream upstream = properties.getUpstream();
+        this.baseUrl = upstream.getBaseUrl();
+        this.w3cBaseUrl = upstream.getW3cBaseUrl();
+        this.mp4TestBaseUrl = upstream.getMp4TestBaseUrl();
+        this.mozillaBaseUrl = upstream.getMozillaBaseUrl();
+        this.stableImgBaseUrl = upstream.getStableImgBaseUrl();
+        log.info("업스트림 주소: posts={}, jpg={}, png={}, pdf={}, mp4={}",
+                baseUrl, w3cBaseUrl, stableImgBaseUrl, mozillaBaseUrl, mp4TestBaseUrl);
+
+        ApiClientProperties.Batch batch = properties.getBatch();
+        this.postLoader = new BatchLoader<>("posts", batch.getWindow(), batch.getMaxBatchSize(),
+                ids -> HttpClientUtil.getAsync(postsByIdsUrl(ids), Collections.emptyMap(), Post[].class),
+                Post::getId);
+        this.batchRequestCacheEnabled = batch.isRequestCacheEnabled();
+    }
+
+    // /posts?id=1&id=2... (같은 키를 반복해야 하므로 Map 기반 UrlBuilder 대신 직접 조립)
+    private String postsByIdsUrl(List<Integer> ids) {
+        return ids.stream()
+                .map(id -> "id=" + id)
+                .collect(Collectors.joining("&", baseUrl + RESOURCE_PATH_ALL + "?", ""));
+    }
+
 
     // =========================================================================
-    // 1. GET 메서드 (Read) - 모든 동기 클라이언트 3인수로 복구
+    // 1. GET 메서드 (Read) - 공유 응답 캐시(ResponseCache) 경유
     // =========================================================================
+    // 네 가지 방식 모두 같은 URL/타입이므로 하나의 캐시 엔트리를 공유합니다.
 
     public ApiResponse<Post[]> callHttpUrlConnection() {
-        String fullUrl = UrlBuilder.buildUrlWithParams(BASE_URL + RESOURCE_PATH_ALL, COMMON_GET_PARAMS);
-        return HttpUrlConnectionUtil.get(fullUrl, Post[].class);
+        String fullUrl = UrlBuilder.buildUrlWithParams(baseUrl + RESOURCE_PATH_ALL, COMMON_GET_PARAMS);
+        return HttpUrlConnectionUtil.getCached(fullUrl, Post[].class);
     }
     public ApiResponse<Post[]> callHttpClient() {
-        String fullUrl = UrlBuilder.buildUrlWithParams(BASE_URL + RESOURCE_PATH_ALL, COMMON_GET_PARAMS);
+        String fullUrl = UrlBuilder.buildUrlWithParams(baseUrl + RESOURCE_PATH_ALL, COMMON_GET_PARAMS);
         // [수정]: 3개 인수로 복구 (Map 전달)
-        return HttpClientUtil.get(fullUrl, Collections.emptyMap(), Post[].class);
+        return HttpClientUtil.getCached(fullUrl, Collections.emptyMap(), Post[].class);
     }
     public ApiResponse<Post[]> callRestTemplate() {
-        String fullUrl = UrlBuilder.buildUrlWithParams(BASE_URL + RESOURCE_PATH_ALL, COMMON_GET_PARAMS);
+        String fullUrl = UrlBuilder.buildUrlWithParams(baseUrl + RESOURCE_PATH_ALL, COMMON_GET_PARAMS);
         // [수정]: 3개 인수로 복구 (Map 전달)
-        return RestTemplateUtil.get(fullUrl, Collections.emptyMap(), Post[].class);
+        return RestTemplateUtil.getCached(fullUrl, Collections.emptyMap(), Post[].class);
     }
     public Mono<ApiResponse<Post[]>> callWebClient() {
         // WebClient는 Base URL, Path, Map, Class (4개 인수로 유지)
-        return WebClientUtil.get(BASE_URL, RESOURCE_PATH_ALL, COMMON_GET_PARAMS, Post[].class);
+        return WebClientUtil.getCached(baseUrl, RESOURCE_PATH_ALL, COMMON_GET_PARAMS, Post[].class);
     }
 
     // =========================================================================
@@ -66,16 +100,16 @@ public class ApiService {
     // =========================================================================
 
     public ApiResponse<Post> createPostHttpUrlConnection(PostRequest req) {
-        return HttpUrlConnectionUtil.post(BASE_URL + RESOURCE_PATH_ALL, req, Post.class);
+        return HttpUrlConnectionUtil.post(baseUrl + RESOURCE_PATH_ALL, req, Post.class);
     }
     public ApiResponse<Post> createPostHttpClient(PostRequest req) {
-        return HttpClientUtil.post(BASE_URL + RESOURCE_PATH_ALL, req, Post.class);
+        return HttpClientUtil.post(baseUrl + RESOURCE_PATH_ALL, req, Post.class);
     }
     public ApiResponse<Post> createPostRestTemplate(PostRequest req) {
-        return RestTemplateUtil.post(BASE_URL + RESOURCE_PATH_ALL, req, Post.class);
+        return RestTemplateUtil.post(baseUrl + RESOURCE_PATH_ALL, req, Post.class);
     }
     public Mono<ApiResponse<Post>> createPostWebClient(PostRequest req) {
-        return WebClientUtil.post(BASE_URL, RESOURCE_PATH_ALL, req, Post.class);
+        return WebClientUtil.post(baseUrl, RESOURCE_PATH_ALL, req, Post.class);
     }
 
     // =========================================================================
@@ -83,16 +117,16 @@ public class ApiService {
     // =========================================================================
 
     public ApiResponse<Post> updatePostPutHttpUrlConnection(PostRequest req) {
-        return HttpUrlConnectionUtil.put(BASE_URL + RESOURCE_PATH_SINGLE, req, Post.class);
+        return HttpUrlConnectionUtil.put(baseUrl + RESOURCE_PATH_SINGLE, req, Post.class);
     }
     public ApiResponse<Post> updatePostPutHttpClient(PostRequest req) {
-        return HttpClientUtil.put(BASE_URL + RESOURCE_PATH_SINGLE, req, Post.class);
+        return HttpClientUtil.put(baseUrl + RESOURCE_PATH_SINGLE, req, Post.class);
     }
     public ApiResponse<Post> updatePostPutRestTemplate(PostRequest req) {
-        return RestTemplateUtil.put(BASE_URL + RESOURCE_PATH_SINGLE, req, Post.class);
+        return RestTemplateUtil.put(baseUrl + RESOURCE_PATH_SINGLE, req, Post.class);
     }
     public Mono<ApiResponse<Post>> updatePostPutWebClient(PostRequest req) {
-        return WebClientUtil.put(BASE_URL, RESOURCE_PATH_SINGLE, req, Post.class);
+        return WebClientUtil.put(baseUrl, RESOURCE_PATH_SINGLE, req, Post.class);
     }
 
     // =========================================================================
@@ -100,16 +134,16 @@ public class ApiService {
     // =========================================================================
 
     public ApiResponse<Post> updatePostPatchHttpUrlConnection(PostRequest req) {
-        return HttpUrlConnectionUtil.patch(BASE_URL + RESOURCE_PATH_SINGLE, req, Post.class);
+        return HttpUrlConnectionUtil.patch(baseUrl + RESOURCE_PATH_SINGLE, req, Post.class);
     }
     public ApiResponse<Post> updatePostPatchHttpClient(PostRequest req) {
-        return HttpClientUtil.patch(BASE_URL + RESOURCE_PATH_SINGLE, req, Post.class);
+        return HttpClientUtil.patch(baseUrl + RESOURCE_PATH_SINGLE, req, Post.class);
     }
     public ApiResponse<Post> updatePostPatchRestTemplate(PostRequest req) {
-        return RestTemplateUtil.patch(BASE_URL + RESOURCE_PATH_SINGLE, req, Post.class);
+        return RestTemplateUtil.patch(baseUrl + RESOURCE_PATH_SINGLE, req, Post.class);
     }
     public Mono<ApiResponse<Post>> updatePostPatchWebClient(PostRequest req) {
-        return WebClientUtil.patch(BASE_URL, RESOURCE_PATH_SINGLE, req, Post.class);
+        return WebClientUtil.patch(baseUrl, RESOURCE_PATH_SINGLE, req, Post.class);
     }
 
     // =========================================================================
@@ -117,38 +151,114 @@ public class ApiService {
     // =========================================================================
 
     public ApiResponse<Void> deletePostHttpUrlConnection() {
-        return HttpUrlConnectionUtil.delete(BASE_URL + RESOURCE_PATH_SINGLE);
+        return HttpUrlConnectionUtil.delete(baseUrl + RESOURCE_PATH_SINGLE);
     }
     public ApiResponse<Void> deletePostHttpClient() {
-        return HttpClientUtil.delete(BASE_URL + RESOURCE_PATH_SINGLE);
+        return HttpClientUtil.delete(baseUrl + RESOURCE_PATH_SINGLE);
     }
     public ApiResponse<Void> deletePostRestTemplate() {
-        return RestTemplateUtil.delete(BASE_URL + RESOURCE_PATH_SINGLE);
+        return RestTemplateUtil.delete(baseUrl + RESOURCE_PATH_SINGLE);
     }
     public Mono<ApiResponse<Void>> deletePostWebClient() {
-        return WebClientUtil.delete(BASE_URL, RESOURCE_PATH_SINGLE);
+        return WebClientUtil.delete(baseUrl, RESOURCE_PATH_SINGLE);
     }
+    // =========================================================================
+    // 5-1. HttpClient 비동기 메서드 (sendAsync) - 서블릿 스레드를 점유하지 않음
+    // =========================================================================
+
+    public CompletableFuture<ApiResponse<Post[]>> callHttpClientAsync() {
+        // 같은 GET이 동시에 몰리면 진행 중인 sendAsync 결과를 공유 (업스트림 호출 1회)
+        String fullUrl = UrlBuilder.buildUrlWithParams(baseUrl + RESOURCE_PATH_ALL, COMMON_GET_PARAMS);
+        return RequestCoalescer.joinAsync(RequestCoalescer.key(fullUrl, Post[].class),
+                () -> HttpClientUtil.getAsync(fullUrl, Collections.emptyMap(), Post[].class));
+    }
+    public CompletableFuture<ApiResponse<Post>> createPostHttpClientAsync(PostRequest req) {
+        return HttpClientUtil.postAsync(baseUrl + RESOURCE_PATH_ALL, req, Post.class);
+    }
+    public CompletableFuture<ApiResponse<Post>> updatePostPutHttpClientAsync(PostRequest req) {
+        return HttpClientUtil.putAsync(baseUrl + RESOURCE_PATH_SINGLE, req, Post.class);
+    }
+    public CompletableFuture<ApiResponse<Post>> updatePostPatchHttpClientAsync(PostRequest req) {
+        return HttpClientUtil.patchAsync(baseUrl + RESOURCE_PATH_SINGLE, req, Post.class);
+    }
+    public CompletableFuture<ApiResponse<Void>> deletePostHttpClientAsync() {
+        return HttpClientUtil.deleteAsync(baseUrl + RESOURCE_PATH_SINGLE);
+    }
+
+    // =========================================================================
+    // 5-2. 스트리밍 GET 메서드 - 배열 전체가 아닌 요소 단위로 처리
+    // =========================================================================
+
+    public ApiResponse<JsonElementIterator<Post>> streamPostsHttpUrlConnection() {
+        String fullUrl = UrlBuilder.buildUrlWithParams(baseUrl + RESOURCE_PATH_ALL, COMMON_GET_PARAMS);
+        return HttpUrlConnectionUtil.getStream(fullUrl, Post.class);
+    }
+    public ApiResponse<JsonElementIterator<Post>> streamPostsHttpClient() {
+        return HttpClientUtil.getStream(baseUrl + RESOURCE_PATH_ALL, COMMON_GET_PARAMS, Post.class);
+    }
+    public Flux<Post> streamPostsWebClient() {
+        return WebClientUtil.getFlux(baseUrl, RESOURCE_PATH_ALL, COMMON_GET_PARAMS, Post.class);
+    }
+
+    // =========================================================================
+    // 5-3. 단건 조회 배치 (DataLoader 방식) - 동시에 들어온 id 조회를 다건 조회 한 번으로 묶음
+    // =========================================================================
+
+    public CompletableFuture<ApiResponse<Post>> loadPost(int id) {
+        return postLoader.load(id);
+    }
+    public Mono<ApiResponse<Post>> loadPostWebClient(int id) {
+        return postLoader.loadMono(id);
+    }
+    public CompletableFuture<List<ApiResponse<Post>>> loadPosts(List<Integer> ids) {
+        // 요청 단위 캐시: 한 요청 안의 중복 id는 배치가 달라도 한 번만 조회
+        return batchRequestCacheEnabled
+                ? postLoader.newScope().loadMany(ids)
+                : postLoader.loadMany(ids);
+    }
+
     // =========================================================================
     // 6. 파일 다운로드 메서드 (Download File) - Base URL 변경 적용
     // =========================================================================
 
     public Mono<FileMetaData> downloadJpgFile() {
         // W3C Base URL 사용
-        return WebClientUtil.downloadFile(W3C_BASE_URL, JPG_PATH);
+        return WebClientUtil.downloadFile(w3cBaseUrl, JPG_PATH);
     }
 
     public Mono<FileMetaData> downloadPngFile() {
         // W3C Base URL 사용
-        return WebClientUtil.downloadFile(STABLE_IMG_BASE_URL, PNG_PATH);
+        return WebClientUtil.downloadFile(stableImgBaseUrl, PNG_PATH);
     }
 
     public Mono<FileMetaData> downloadPdfFile() {
-        // W3C Base URL 사용
-        return WebClientUtil.downloadFile(MOZILLA_BASE_URL, PDF_PATH);
+        // W3C Base URL 사용 (문서는 크기가 커서 이미지보다 뒤로 미룸)
+        return WebClientUtil.downloadFile(mozillaBaseUrl, PDF_PATH, DownloadScheduler.Priority.BULK);
     }
 
     public Mono<FileMetaData> downloadMp4File() {
-        // MP4 파일 전용 Base URL 사용
-        return WebClientUtil.downloadFile(MP4_TEST_BASE_URL, MP4_PATH);
+        // MP4 파일 전용 Base URL 사용 (대용량이므로 BULK 우선순위)
+        return WebClientUtil.downloadFile(mp4TestBaseUrl, MP4_PATH, DownloadScheduler.Priority.BULK);
+    }
+
+    /**
+     * 파일 종류(jpg | png | pdf | mp4)에 해당하는 업스트림 파일을 패스스루로 엽니다.
+     * @param teeToDisk true면 중계하면서 로컬 저장소에도 사본을 저장
+     */
+    public Mono<DownloadStream> openDownloadStream(String type, boolean teeToDisk) {
+        return switch (type) {
+            case "jpg" -> WebClientUtil.openDownloadStream(w3cBaseUrl, JPG_PATH, teeToDisk);
+            case "png" -> WebClientUtil.openDownloadStream(stableImgBaseUrl, PNG_PATH, teeToDisk);
+            case "pdf" -> WebClientUtil.openDownloadStream(mozillaBaseUrl, PDF_PATH, teeToDisk);
+            case "mp4" -> WebClientUtil.openDownloadStream(mp4TestBaseUrl, MP4_PATH, teeToDisk);
+            default -> Mono.error(new IllegalArgumentException("지원하지 않는 파일 종류: " + type));
+        };
+    }
+
+    /**
+     * 저장된 다운로드 파일을 savedFileName 또는 contentHash로 찾습니다. 없으면 null
+     */
+    public Path findStoredFile(String id) {
+        return FileDownloadUtil.findStoredFile(id);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.example.spring_api_client_examples.standin;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 로컬 대체(stand-in) 업스트림 서버 설정 ('api.standin.*').
+ * 응답 크기, 지연 분포, 에러/429 주입, 느린 본문 전송(slow-drip)을 조절합니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "api.standin")
+public class StandInProperties {
+
+    // true면 애플리케이션 시작 시 stand-in 서버를 함께 띄움
+    private boolean enabled = false;
+    private String host = "127.0.0.1";
+    // 0이면 임의의 빈 포트 사용
+    private int port = 18080;
+
+    // --- 응답 크기 ---
+    // /posts 전체 게시글 수
+    private int postCount = 100;
+    // 사용자(userId)당 게시글 수 (userId 필터 결과 크기)
+    private int postsPerUser = 10;
+    // 파일 다운로드 기본 크기
+    private DataSize fileSize = DataSize.ofMegabytes(1);
+    // 확장자별 파일 크기 (예: api.standin.file-sizes.mp4=50MB)
+    private Map<String, DataSize> fileSizes = new HashMap<>();
+
+    // --- 지연 ---
+    private LatencyDistribution latencyDistribution = LatencyDistribution.NONE;
+    // 분포의 기준값 (FIXED: 고정값, UNIFORM: 평균, EXPONENTIAL: 평균)
+    private Duration latency = Duration.ZERO;
+    // 꼬리 지연: 이 비율의 요청은 slowCallLatency만큼 추가 지연
+    private double slowCallRate = 0.0;
+    private Duration slowCallLatency = Duration.ofSeconds(2);
+    // 지연 상한
+    private Duration maxLatency = Duration.ofSeconds(30);
+
+    // --- 에러 주입 ---
+    // 이 비율의 요청에 429 + Retry-After 응답
+    private double throttleRate = 0.0;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    // 이 비율의 요청에 errorStatus 응답
+    private double errorRate = 0.0;
+    private int errorStatus = 503;
+
+    // --- slow-drip 본문 ---
+    // 0보다 크면 본문을 이 크기 단위로 나눠 dripInterval 간격으로 전송
+    private DataSize dripChunkSize = DataSize.ofBytes(0);
+    private Duration dripInterval = Duration.ofMillis(10);
+
+    public enum LatencyDistribution {
+        NONE,
+        FIXED,
+        UNIFORM,
+        EXPONENTIAL
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.spring_api_client_examples.standin;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * 'api.standin.enabled=true'일 때만 stand-in 업스트림 서버를 애플리케이션과 함께 띄웁니다.
+ * 업스트림 주소를 stand-in으로 돌리려면 'standin' 프로필(application-standin.properties)을 사용하세요.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "api.standin", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(StandInProperties.class)
+public class StandInServerConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public UpstreamStandInServer upstreamStandInServer(StandInProperties properties) throws IOException {
+        return new UpstreamStandInServer(properties);
+    }
+}
@@ -0,0 +1,541 @@
+package com.example.spring_api_client_examples.standin;
+
+import com.example.spring_api_client_examples.dto.Post;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 외부 네트워크 없이 부하/지연 테스트를 하기 위한 프로세스 내 업스트림 대체 서버입니다. (JDK 내장 HttpServer 사용)
+ * - /posts, /posts/{id}: jsonplaceholder의 CRUD 흉내 (userId, id 쿼리 필터 지원)
+ * - 그 외 GET/HEAD 경로: 마지막 경로 조각의 확장자(jpg/png/pdf/mp4 등)에 맞는 가짜 파일 (매직 넘버 포함)
+ * 모든 GET 응답에 ETag/Last-Modified를 붙이고 If-None-Match/If-Modified-Since(304), 단일 Range(206)를 지원합니다.
+ * 설정(StandInProperties)에 따라 지연, 에러/429, slow-drip 본문을 주입합니다.
+ */
+@Slf4j
+public class UpstreamStandInServer {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String POSTS_PATH = "/posts";
+
+    private final StandInProperties settings;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // Last-Modified 기준 시각 (HTTP 날짜는 초 단위이므로 잘라서 보관)
+    private final Instant lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    // 전체 게시글 목록 응답과 ETag (최초 요청 시 한 번만 렌더링)
+    private volatile byte[] allPostsBody;
+    private volatile String allPostsEtag;
+
+    public UpstreamStandInServer(StandInProperties settings) throws IOException {
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress(settings.getHost(), settings.getPort()), 1024);
+        this.executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        log.info("Upstream stand-in 서버 시작: {}", baseUrl());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        log.info("Upstream stand-in 서버 종료");
+    }
+
+    /** 실제 바인딩된 주소 (port=0 으로 띄운 경우 포트 확인용) */
+    public String baseUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    // =========================================================================
+    // 요청 분기
+    // =========================================================================
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            byte[] requestBody;
+            try (InputStream in = exchange.getRequestBody()) {
+                requestBody = in.readAllBytes();
+            }
+
+            injectLatency();
+            if (injectFailure(exchange)) {
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals(POSTS_PATH) || path.startsWith(POSTS_PATH + "/")) {
+                handlePosts(exchange, method, path, requestBody);
+            } else if (method.equals("GET") || method.equals("HEAD")) {
+                handleFile(exchange, path);
+            } else {
+                sendEmpty(exchange, 405);
+            }
+        } catch (RuntimeException e) {
+            log.error("Stand-in 요청 처리 오류: {}", e.getMessage());
+            sendEmpty(exchange, 500);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // =========================================================================
+    // /posts CRUD
+    // =========================================================================
+    private void handlePosts(HttpExchange exchange, String method, String path, byte[] requestBody) throws IOException {
+        Integer id = path.length() > POSTS_PATH.length() + 1
+                ? parseIntOrNull(path.substring(POSTS_PATH.length() + 1))
+                : null;
+
+        switch (method) {
+            case "GET":
+            case "HEAD":
+                if (id == null) {
+                    byte[] body = renderPostList(parseQuery(exchange.getRequestURI().getRawQuery()));
+                    sendWithValidators(exchange, body, "application/json; charset=utf-8");
+                } else if (id >= 1 && id <= settings.getPostCount()) {
+                    sendWithValidators(exchange, OBJECT_MAPPER.writeValueAsBytes(createPost(id)), "application/json; charset=utf-8");
+                } else {
+                    sendJson(exchange, 404, "{}".getBytes(StandardCharsets.UTF_8));
+                }
+                break;
+            case "POST":
+                sendJson(exchange, 201, echoWithId(requestBody, settings.getPostCount() + 1));
+                break;
+            case "PUT":
+            case "PATCH":
+                sendJson(exchange, 200, echoWithId(requestBody, id == null ? 1 : id));
+                break;
+            case "DELETE":
+                sendJson(exchange, 200, "{}".getBytes(StandardCharsets.UTF_8));
+                break;
+            default:
+                sendEmpty(exchange, 405);
+        }
+    }
+
+    private byte[] renderPostList(Map<String, List<String>> query) throws IOException {
+        List<String> userIds = query.get("userId");
+        List<String> ids = query.get("id");
+        if (userIds == null && ids == null) {
+            byte[] cached = allPostsBody;
+            if (cached == null) {
+                cached = OBJECT_MAPPER.writeValueAsBytes(createPosts(1, settings.getPostCount()));
+                allPostsEtag = etagOf(cached);
+                allPostsBody = cached;
+            }
+            return cached;
+        }
+
+        List<Post> posts = new ArrayList<>();
+        if (ids != null) {
+            for (String value : ids) {
+                Integer id = parseIntOrNull(value);
+                if (id != null && id >= 1 && id <= settings.getPostCount()) {
+                    posts.add(createPost(id));
+                }
+            }
+        } else {
+            for (String value : userIds) {
+                Integer userId = parseIntOrNull(value);
+                if (userId == null) {
+                    continue;
+                }
+                int from = (userId - 1) * settings.getPostsPerUser() + 1;
+                int to = Math.min(settings.getPostCount(), userId * settings.getPostsPerUser());
+                posts.addAll(createPosts(from, to));
+            }
+        }
+        return OBJECT_MAPPER.writeValueAsBytes(posts);
+    }
+
+    private List<Post> createPosts(int fromId, int toId) {
+        List<Post> posts = new ArrayList<>(Math.max(0, toId - fromId + 1));
+        for (int id = fromId; id <= toId; id++) {
+            posts.add(createPost(id));
+        }
+        return posts;
+    }
+
+    private Post createPost(int id) {
+        int userId = (id - 1) / Math.max(1, settings.getPostsPerUser()) + 1;
+        return new Post(userId, id, "stand-in post title " + id, "stand-in post body for post number " + id);
+    }
+
+    // 요청 JSON 객체에 id를 붙여 그대로 돌려줌 (jsonplaceholder 동작과 동일)
+    @SuppressWarnings("unchecked")
+    private static byte[] echoWithId(byte[] requestBody, int id) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        if (requestBody.length > 0) {
+            try {
+                json.putAll(OBJECT_MAPPER.readValue(requestBody, Map.class));
+            } catch (IOException e) {
+                // 객체가 아닌 본문은 무시하고 id만 반환
+            }
+        }
+        json.put("id", id);
+        return OBJECT_MAPPER.writeValueAsBytes(json);
+    }
+
+    // =========================================================================
+    // 파일 다운로드 (가짜 파일, Range/ETag 지원)
+    // =========================================================================
+    private void handleFile(HttpExchange exchange, String path) throws IOException {
+        FileType type = FileType.fromPath(path);
+        long size = fileSize(type);
+        int seed = path.hashCode();
+        String etag = "\"" + type.extension + "-" + size + "-" + Integer.toHexString(seed) + "\"";
+
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", type.contentType);
+        headers.set("Accept-Ranges", "bytes");
+        headers.set("ETag", etag);
+        headers.set("Last-Modified", formatHttpDate(lastModified));
+
+        if (isNotModified(exchange, etag)) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null && ifRangeMatches(exchange, etag)) {
+            long[] parsed = parseRange(range, size);
+            if (parsed == null) {
+                headers.set("Content-Range", "bytes */" + size);
+                exchange.sendResponseHeaders(416, -1);
+                return;
+            }
+            if (parsed.length == 2) {
+                start = parsed[0];
+                end = parsed[1];
+                status = 206;
+                headers.set("Content-Range", "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            headers.set("Content-Length", String.valueOf(length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            writeFileContent(out, type, seed, start, length);
+        }
+    }
+
+    private long fileSize(FileType type) {
+        DataSize size = settings.getFileSizes().getOrDefault(type.extension, settings.getFileSize());
+        return Math.max(type.magic.length, size.toBytes());
+    }
+
+    // 파일 내용은 메모리에 만들지 않고 위치(offset)로부터 계산해서 씀 (앞부분은 확장자별 매직 넘버)
+    private void writeFileContent(OutputStream out, FileType type, int seed, long offset, long length) throws IOException {
+        int chunkSize = dripChunkSize() > 0 ? dripChunkSize() : 64 * 1024;
+        byte[] buffer = new byte[(int) Math.min(chunkSize, Math.max(1, length))];
+        long position = offset;
+        long remaining = length;
+        while (remaining > 0) {
+            int count = (int) Math.min(buffer.length, remaining);
+            for (int i = 0; i < count; i++) {
+                long p = position + i;
+                buffer[i] = p < type.magic.length ? type.magic[(int) p] : (byte) ((p * 31) ^ seed);
+            }
+            out.write(buffer, 0, count);
+            position += count;
+            remaining -= count;
+            drip(out, remaining);
+        }
+    }
+
+    // =========================================================================
+    // 조건부 요청 / Range 처리
+    // =========================================================================
+    private boolean isNotModified(HttpExchange exchange, String etag) {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(etag);
+        }
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if (ifModifiedSince != null) {
+            Instant since = parseHttpDate(ifModifiedSince);
+            return since != null && !lastModified.isAfter(since);
+        }
+        return false;
+    }
+
+    // If-Range가 없거나 현재 ETag/Last-Modified와 같을 때만 Range를 적용 (다르면 전체 200 응답)
+    private boolean ifRangeMatches(HttpExchange exchange, String etag) {
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        Instant date = parseHttpDate(ifRange);
+        return date != null && !lastModified.isAfter(date);
+    }
+
+    /**
+     * 단일 Range 헤더(bytes=a-b, bytes=a-, bytes=-n)를 파싱합니다.
+     * @return {start, end}, 만족할 수 없으면 null, 지원하지 않는 형식(다중 범위 등)이면 빈 배열(전체 응답)
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    // =========================================================================
+    // 지연 / 에러 주입
+    // =========================================================================
+    private void injectLatency() {
+        long millis = sampleLatencyMillis();
+        if (millis > 0) {
+            sleep(millis);
+        }
+    }
+
+    private long sampleLatencyMillis() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long base = settings.getLatency().toMillis();
+        double latency;
+        switch (settings.getLatencyDistribution()) {
+            case FIXED:
+                latency = base;
+                break;
+            case UNIFORM:
+                latency = random.nextDouble(0, 2.0 * base + 1);
+                break;
+            case EXPONENTIAL:
+                latency = -base * Math.log(1.0 - random.nextDouble());
+                break;
+            case NONE:
+            default:
+                latency = 0;
+        }
+        if (settings.getSlowCallRate() > 0 && random.nextDouble() < settings.getSlowCallRate()) {
+            latency += settings.getSlowCallLatency().toMillis();
+        }
+        return (long) Math.min(latency, settings.getMaxLatency().toMillis());
+    }
+
+    // 429 또는 에러 응답을 주입했으면 true
+    private boolean injectFailure(HttpExchange exchange) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (settings.getThrottleRate() > 0 && random.nextDouble() < settings.getThrottleRate()) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(Math.max(1, settings.getRetryAfter().toSeconds())));
+            sendJson(exchange, 429, "{\"error\":\"Too Many Requests\"}".getBytes(StandardCharsets.UTF_8));
+            return true;
+        }
+        if (settings.getErrorRate() > 0 && random.nextDouble() < settings.getErrorRate()) {
+            sendJson(exchange, settings.getErrorStatus(), "{\"error\":\"Injected failure\"}".getBytes(StandardCharsets.UTF_8));
+            return true;
+        }
+        return false;
+    }
+
+    private int dripChunkSize() {
+        return (int) settings.getDripChunkSize().toBytes();
+    }
+
+    // slow-drip 모드면 청크 사이에 flush 후 대기
+    private void drip(OutputStream out, long remaining) throws IOException {
+        if (dripChunkSize() > 0 && remaining > 0) {
+            out.flush();
+            sleep(settings.getDripInterval().toMillis());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // =========================================================================
+    // 응답 전송 헬퍼
+    // =========================================================================
+    // ETag/Last-Modified를 붙이고 조건부 요청이면 304로 응답
+    private void sendWithValidators(HttpExchange exchange, byte[] body, String contentType) throws IOException {
+        String etag = body == allPostsBody ? allPostsEtag : etagOf(body);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", etag);
+        headers.set("Last-Modified", formatHttpDate(lastModified));
+        if (isNotModified(exchange, etag)) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            headers.set("Content-Type", contentType);
+            headers.set("Content-Length", String.valueOf(body.length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        sendJson(exchange, 200, body);
+    }
+
+    private static String etagOf(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    private void sendJson(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length == 0) {
+            return;
+        }
+        try (OutputStream out = exchange.getResponseBody()) {
+            int chunkSize = dripChunkSize() > 0 ? dripChunkSize() : body.length;
+            for (int offset = 0; offset < body.length; offset += chunkSize) {
+                int count = Math.min(chunkSize, body.length - offset);
+                out.write(body, offset, count);
+                drip(out, body.length - offset - count);
+            }
+        }
+    }
+
+    private static void sendEmpty(HttpExchange exchange, int status) {
+        try {
+            exchange.sendResponseHeaders(status, -1);
+        } catch (IOException e) {
+            // 이미 헤더를 보낸 경우 등: 무시
+        }
+    }
+
+    // =========================================================================
+    // 기타 헬퍼
+    // =========================================================================
+    private static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> query = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+        return query;
+    }
+
+    private static Integer parseIntOrNull(String value) {
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String formatHttpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(instant, ZoneOffset.UTC));
+    }
+
+    private static Instant parseHttpDate(String value) {
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 경로 마지막 조각으로 판단한 가짜 파일 종류. (예: /600x400/000000/FFFFFF/jpg, /a/b/c.mp4)
+     */
+    private enum FileType {
+        JPG("jpg", "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0}),
+        PNG("png", "image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+        PDF("pdf", "application/pdf", "%PDF-1.4\n".getBytes(StandardCharsets.US_ASCII)),
+        MP4("mp4", "video/mp4", new byte[]{0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'i', 's', 'o', 'm'}),
+        BIN("bin", "application/octet-stream", new byte[0]);
+
+        private final String extension;
+        private final String contentType;
+        private final byte[] magic;
+
+        FileType(String extension, String contentType, byte[] magic) {
+            this.extension = extension;
+            this.contentType = contentType;
+            this.magic = magic;
+        }
+
+        static FileType fromPath(String path) {
+            String last = path.substring(path.lastIndexOf('/') + 1).toLowerCase();
+            String extension = last.contains(".") ? last.substring(last.lastIndexOf('.') + 1) : last;
+            if (extension.equals("jpeg")) {
+                return JPG;
+            }
+            for (FileType type : values()) {
+                if (type.extension.equals(extension)) {
+                    return type;
+                }
+            }
+            return BIN;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 네 가지 클라이언트 유틸리티가 공유하는 호스트별 적응형 동시 요청 제한기입니다.
+ * 호스트마다 동시에 보낼 수 있는 요청 수(limit)를 AIMD로 조정합니다.
+ * 스로틀링 응답(기본: 429, 503)을 받으면 limit에 backoffRatio를 곱해 줄이고, 그 밖의 응답을 받으면 1씩 늘립니다.
+ * (limit의 절반 이상을 쓰고 있을 때만 늘려서, 한가할 때 limit가 한없이 커지지 않게 함)
+ * 스로틀링 응답에 Retry-After가 있으면 그 시간(최대 maxPause) 동안 해당 호스트로 새 요청을 보내지 않습니다.
+ * 자리가 없으면 호스트별 대기열(maxQueue)에서 최대 maxWait까지 기다립니다.
+ * 대기열이 가득 찼거나 maxWait 안에 보낼 수 없으면 보내지 않고 LOAD_SHED(503)으로 바로 실패시킵니다.
+ *
+ * <p>허가는 서킷 브레이커와 같은 곳(각 유틸리티의 전송 직전)에서 받고, 요청이 끝나면 결과와 관계없이 호출자가 finally에서 Permit.release()로 반납합니다.
+ * limit 조정은 ClientMetrics.record/recordFailure에서 이루어지며, 반납은 기록 여부와 무관합니다. (기록 전에 예외가 나도 허가가 새지 않도록)
+ * 차단된 호출은 서킷이 열려 차단된 호출처럼 호출 메트릭에 기록하지 않고 재시도하지 않습니다.
+ */
+@Slf4j
+public class AdaptiveLimiter {
+
+    /** 보내지 않고 차단한 호출의 ApiResponse 에러 코드 */
+    public static final String LOAD_SHED = "LOAD_SHED";
+
+    /** 대기열이 가득 찼거나 maxWait 안에 허가를 받지 못했을 때. 유틸리티의 IOException 처리 경로를 그대로 타도록 IOException을 상속합니다. */
+    public static final class LoadShedException extends IOException {
+        LoadShedException(String host, String reason) {
+            super("Load shed for host: " + host + " (" + reason + ")");
+        }
+    }
+
+    /**
+     * 허가 한 건. WAITING → GRANTED → DONE 순으로만 바뀝니다.
+     * 요청이 끝나면(응답, 실패, 예외, 취소 모두) release()를 호출해야 하며, 여러 번 호출해도 한 번만 반납합니다.
+     */
+    public static final class Permit implements AutoCloseable {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int DONE = 2;
+
+        // 제한이 꺼져 있을 때 내주는 허가 (반납할 것이 없음)
+        private static final Permit NONE = new Permit(null);
+
+        private final HostLimit limit;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final CompletableFuture<Void> granted = new CompletableFuture<>();
+        private final long enqueuedNanos = System.nanoTime();
+
+        private Permit(HostLimit limit) {
+            this.limit = limit;
+        }
+
+        /** 기다리는 중이면 대기열에서 빼고, 허가를 받은 상태면 자리를 반납합니다. */
+        public void release() {
+            if (limit == null) {
+                return;
+            }
+            if (state.compareAndSet(WAITING, DONE)) {
+                synchronized (limit) {
+                    limit.queue.remove(this);
+                }
+            } else if (state.compareAndSet(GRANTED, DONE)) {
+                synchronized (limit) {
+                    limit.inFlight = Math.max(0, limit.inFlight - 1);
+                }
+                dispatch(limit);
+            }
+        }
+
+        /** try-with-resources용 (release와 같음) */
+        @Override
+        public void close() {
+            release();
+        }
+    }
+
+    /** 호스트 한 곳의 제한. 모든 필드는 인스턴스 모니터로 보호 */
+    private static final class HostLimit {
+        private final String host;
+        private final Queue<Permit> queue = new ArrayDeque<>();
+        private double limit;
+        private int inFlight;
+        // nanoTime 비교는 차이로만 하므로 생성 시각으로 초기화
+        private long pausedUntilNanos = System.nanoTime();
+        private long lastDecreaseNanos = pausedUntilNanos;
+        private boolean wakeUpScheduled;
+
+        private HostLimit(String host, double limit) {
+            this.host = host;
+            this.limit = limit;
+        }
+
+        private int permits() {
+            return Math.max(1, (int) limit);
+        }
+    }
+
+    private static final Map<String, HostLimit> LIMITS = new ConcurrentHashMap<>();
+
+    // 제한 설정 (ApiClientConfig에서 application.properties 값으로 덮어씀)
+    private static volatile ApiClientProperties.AdaptiveLimiter settings = new ApiClientProperties.AdaptiveLimiter();
+
+    public static void configure(ApiClientProperties.AdaptiveLimiter newSettings) {
+        settings = newSettings;
+        // 진행 중인 요청의 허가는 이전 제한에 반납됨 (새 제한은 0에서 시작)
+        LIMITS.clear();
+        log.info("적응형 동시 요청 제한 설정 적용: enabled={}, limit={}({}~{}), backoffRatio={}, throttleStatuses={}, maxQueue={}, maxWait={}, maxPause={}",
+                newSettings.isEnabled(), newSettings.getInitialLimit(), newSettings.getMinLimit(), newSettings.getMaxLimit(),
+                newSettings.getBackoffRatio(), newSettings.getThrottleStatuses(), newSettings.getMaxQueue(),
+                newSettings.getMaxWait(), newSettings.getMaxPause());
+    }
+
+    /** 호스트(UrlBuilder.hostKey, host:port)의 현재 동시 요청 제한 (기록이 없으면 initialLimit) */
+    public static int getLimit(String host) {
+        HostLimit limit = LIMITS.get(host);
+        if (limit == null) {
+            return settings.getInitialLimit();
+        }
+        synchronized (limit) {
+            return limit.permits();
+        }
+    }
+
+    /** 호스트의 허가 대기 수 */
+    public static int getQueueDepth(String host) {
+        HostLimit limit = LIMITS.get(host);
+        if (limit == null) {
+            return 0;
+        }
+        synchronized (limit) {
+            return limit.queue.size();
+        }
+    }
+
+    // =========================================================================
+    // 1. 허가 (동기)
+    // =========================================================================
+    /**
+     * 요청을 보내기 직전에 호출합니다. 자리가 날 때까지 최대 maxWait 동안 호출 스레드를 막고,
+     * 그 안에 허가를 받지 못하면 LoadShedException을 던집니다.
+     * 반환된 허가는 요청이 끝나면 finally(또는 try-with-resources)에서 반납해야 합니다.
+     * @param url 호스트를 가려낼 전체 URL (또는 Base URL)
+     */
+    public static Permit acquire(String url) throws LoadShedException {
+        if (!settings.isEnabled()) {
+            return Permit.NONE;
+        }
+        HostLimit limit = hostLimit(UrlBuilder.hostKey(url));
+        Permit permit = enqueue(limit);
+        try {
+            permit.granted.get();
+        } catch (ExecutionException e) {
+            throw (LoadShedException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permit.release();
+            throw new LoadShedException(limit.host, "interrupted");
+        }
+        return permit;
+    }
+
+    // =========================================================================
+    // 2. 허가 (비동기: HttpClientUtil sendAsync)
+    // =========================================================================
+    /**
+     * 허가를 받으면 그 허가로 완료되는 future를 반환합니다. 차단되면 LoadShedException으로 예외 완료됩니다.
+     * 허가 후의 작업은 허가를 내준 스레드(다른 요청의 완료 콜백 등)에서 이어질 수 있으므로 블로킹하지 않아야 합니다.
+     * 받은 허가는 요청 future가 어떻게 끝나든(whenComplete) 반납해야 합니다.
+     * 반환된 future를 허가 전에 취소하면(헤징에서 진 시도 등) 대기열에서 빠집니다.
+     */
+    public static CompletableFuture<Permit> acquireAsync(String url) {
+        if (!settings.isEnabled()) {
+            return CompletableFuture.completedFuture(Permit.NONE);
+        }
+        Permit permit = enqueue(hostLimit(UrlBuilder.hostKey(url)));
+        CompletableFuture<Permit> admitted = permit.granted.thenApply(ignored -> permit);
+        admitted.whenComplete((granted, error) -> {
+            if (admitted.isCancelled()) {
+                permit.release();
+            }
+        });
+        return admitted;
+    }
+
+    // =========================================================================
+    // 3. 허가 (Reactor: WebClientUtil)
+    // =========================================================================
+    /**
+     * 허가를 받은 뒤 call을 구독합니다. 차단되면 LoadShedException 에러 신호를 냅니다.
+     * call이 끝나거나(값, 에러, 완료) 취소되면(헤징에서 진 요청 등) 대기열에서 빼거나 허가를 반납합니다.
+     * (doFinally는 종료 신호가 아래로 전달된 뒤 실행되므로 뒤에 붙은 ClientMetrics 기록이 먼저 limit를 조정함)
+     */
+    public static <R> Mono<R> limit(String url, Mono<R> call) {
+        if (!settings.isEnabled()) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            Permit permit = enqueue(hostLimit(UrlBuilder.hostKey(url)));
+            return Mono.fromFuture(permit.granted, true)
+                    .then(call)
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    /**
+     * Flux용 limit. 스트림이 끝나거나 취소될 때까지 허가를 잡고 있습니다. (WebClientUtil.getFlux)
+     */
+    public static <R> Flux<R> limit(String url, Flux<R> call) {
+        if (!settings.isEnabled()) {
+            return call;
+        }
+        return Flux.defer(() -> {
+            Permit permit = enqueue(hostLimit(UrlBuilder.hostKey(url)));
+            return Mono.fromFuture(permit.granted, true)
+                    .thenMany(call)
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    // =========================================================================
+    // 4. 결과 반영 (ClientMetrics에서 호출)
+    // =========================================================================
+    /**
+     * 허가를 받아 보낸 요청 한 건의 결과로 limit를 조정합니다. (허가 반납은 호출자의 Permit.release)
+     * @param startNanos 요청 시작 시각. 마지막으로 줄인 뒤에 시작한 요청의 스로틀링 응답만 limit를 다시 줄임
+     *                   (이미 보내 둔 요청들의 응답으로 연달아 줄지 않도록)
+     * @param response 받은 응답, 응답을 받지 못했으면 null (limit는 그대로)
+     */
+    static void onResult(String url, long startNanos, ApiResponse<?> response) {
+        ApiClientProperties.AdaptiveLimiter current = settings;
+        if (!current.isEnabled()) {
+            return;
+        }
+        HostLimit limit = hostLimit(UrlBuilder.hostKey(url));
+        boolean throttled = response != null && current.getThrottleStatuses().contains(response.getHttpStatusCode());
+        int before;
+        int after;
+        long pauseMillis = 0;
+        synchronized (limit) {
+            before = limit.permits();
+            long now = System.nanoTime();
+            if (throttled) {
+                if (startNanos - limit.lastDecreaseNanos >= 0) {
+                    limit.limit = Math.max(current.getMinLimit(), limit.limit * current.getBackoffRatio());
+                    limit.lastDecreaseNanos = now;
+                }
+                Duration retryAfter = response.getRetryAfter();
+                if (retryAfter != null) {
+                    long until = now + Math.min(retryAfter.toNanos(), current.getMaxPause().toNanos());
+                    if (until - limit.pausedUntilNanos > 0) {
+                        limit.pausedUntilNanos = until;
+                        pauseMillis = (until - now) / 1_000_000;
+                    }
+                }
+            } else if (response != null && response.getHttpStatusCode() < 500 && limit.inFlight * 2 >= limit.permits()) {
+                limit.limit = Math.min(current.getMaxLimit(), limit.limit + 1);
+            }
+            after = limit.permits();
+        }
+        if (after < before || pauseMillis > 0) {
+            log.warn("동시 요청 제한 감소: host={}, {} -> {} (status={}), 전송 중지 {}ms",
+                    limit.host, before, after, response.getHttpStatusCode(), pauseMillis);
+        }
+        dispatch(limit);
+    }
+
+    /** 보내지 않고 차단한 호출의 응답 */
+    public static <T> ApiResponse<T> rejected(LoadShedException e) {
+        return ApiResponse.fail(503, LOAD_SHED, e.getMessage());
+    }
+
+    // =========================================================================
+    // Private
+    // =========================================================================
+    // 바로 허가할 수 있으면 허가하고, 아니면 대기열에 넣거나(maxWait 후 만료) 바로 차단합니다.
+    private static Permit enqueue(HostLimit limit) {
+        ApiClientProperties.AdaptiveLimiter current = settings;
+        Permit permit = new Permit(limit);
+        String shedReason = null;
+        boolean queued = false;
+        synchronized (limit) {
+            long pausedNanos = limit.pausedUntilNanos - System.nanoTime();
+            if (pausedNanos <= 0 && limit.queue.isEmpty() && limit.inFlight < limit.permits()) {
+                permit.state.set(Permit.GRANTED);
+                limit.inFlight++;
+            } else if (limit.queue.size() >= current.getMaxQueue()) {
+                shedReason = "queue_full";
+            } else if (pausedNanos > current.getMaxWait().toNanos()) {
+                // Retry-After가 끝나기 전에 maxWait가 지나므로 기다려도 보낼 수 없음
+                shedReason = "paused";
+            } else {
+                limit.queue.add(permit);
+                queued = true;
+                if (pausedNanos > 0) {
+                    scheduleWakeUp(limit, pausedNanos);
+                }
+            }
+        }
+        if (shedReason != null) {
+            shed(limit, permit, shedReason);
+        } else if (queued) {
+            CompletableFuture.delayedExecutor(current.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)
+                    .execute(() -> expire(limit, permit));
+        } else {
+            permit.granted.complete(null);
+        }
+        return permit;
+    }
+
+    // 자리가 있고 전송 중지 중이 아니면 대기열 앞에서부터 허가를 내줍니다.
+    private static void dispatch(HostLimit limit) {
+        List<Permit> granted = new ArrayList<>();
+        synchronized (limit) {
+            long pausedNanos = limit.pausedUntilNanos - System.nanoTime();
+            if (pausedNanos > 0) {
+                if (!limit.queue.isEmpty()) {
+                    scheduleWakeUp(limit, pausedNanos);
+                }
+            } else {
+                while (!limit.queue.isEmpty() && limit.inFlight < limit.permits()) {
+                    Permit permit = limit.queue.poll();
+                    if (permit.state.compareAndSet(Permit.WAITING, Permit.GRANTED)) {
+                        limit.inFlight++;
+                        granted.add(permit);
+                    }
+                }
+            }
+        }
+        // 대기자 콜백은 모니터 밖에서 호출
+        for (Permit permit : granted) {
+            log.debug("동시 요청 허가: host={}, 대기 {}ms", limit.host, (System.nanoTime() - permit.enqueuedNanos) / 1_000_000);
+            permit.granted.complete(null);
+        }
+    }
+
+    // 전송 중지가 끝나면 대기열을 다시 훑도록 한 번만 예약 (limit 모니터를 잡은 상태에서 호출)
+    private static void scheduleWakeUp(HostLimit limit, long delayNanos) {
+        if (limit.wakeUpScheduled) {
+            return;
+        }
+        limit.wakeUpScheduled = true;
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            synchronized (limit) {
+                limit.wakeUpScheduled = false;
+            }
+            dispatch(limit);
+        });
+    }
+
+    // maxWait가 지나도록 허가를 받지 못한 대기자를 차단
+    private static void expire(HostLimit limit, Permit permit) {
+        if (!permit.state.compareAndSet(Permit.WAITING, Permit.DONE)) {
+            return;
+        }
+        synchronized (limit) {
+            limit.queue.remove(permit);
+        }
+        shed(limit, permit, "deadline");
+    }
+
+    private static void shed(HostLimit limit, Permit permit, String reason) {
+        permit.state.set(Permit.DONE);
+        ClientMetrics.limiterShed(limit.host, reason);
+        log.warn("요청 차단(LOAD_SHED): host={}, reason={}", limit.host, reason);
+        permit.granted.completeExceptionally(new LoadShedException(limit.host, reason));
+    }
+
+    private static HostLimit hostLimit(String host) {
+        return LIMITS.computeIfAbsent(host, key -> {
+            ClientMetrics.limiterGauges(key, () -> getLimit(key), () -> getQueueDepth(key));
+            return new HostLimit(key, Math.max(1, settings.getInitialLimit()));
+        });
+    }
+}
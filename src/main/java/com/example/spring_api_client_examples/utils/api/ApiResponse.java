@@ -1,9 +1,12 @@
 package com.example.spring_api_client_examples.utils.api;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.time.Duration;
+
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @Getter
 @ToString
@@ -18,6 +21,15 @@ public class ApiResponse<T> {
     private final T data;
     private final ErrorDetail error;
 
+    // 재시도/속도 제한 판단용 (응답 JSON에는 포함하지 않음)
+    // 응답을 받지 못한 실패의 원인 예외
+    @JsonIgnore
+    @ToString.Exclude
+    private final Throwable cause;
+    // 실패 응답의 Retry-After 헤더 값 (없으면 null)
+    @JsonIgnore
+    private final Duration retryAfter;
+
     // --- 생성자 ---
     // 1. 성공 응답 생성자
     protected ApiResponse(int httpStatusCode, T data) {
@@ -26,15 +38,23 @@ public class ApiResponse<T> {
         this.message = "API call succeeded.";
         this.data = data;
         this.error = null;
+        this.cause = null;
+        this.retryAfter = null;
     }
 
     // 2. 실패 응답 생성자
     protected ApiResponse(int httpStatusCode, ErrorDetail error) {
+        this(httpStatusCode, error, null, null);
+    }
+
+    protected ApiResponse(int httpStatusCode, ErrorDetail error, Throwable cause, Duration retryAfter) {
         this.httpStatusCode = httpStatusCode;
         this.serviceCode = "FAIL";
         this.message = "API call failed.";
         this.data = null;
         this.error = error;
+        this.cause = cause;
+        this.retryAfter = retryAfter;
     }
 
     // --- 정적 팩토리 메서드 ---
@@ -49,6 +69,21 @@ public class ApiResponse<T> {
         return new ApiResponse<>(httpStatusCode, errorDetail);
     }
 
+    // 응답을 받지 못한 실패 (연결/타임아웃 오류). 원인 예외를 보관하여 재시도 여부를 판단할 수 있게 함
+    public static <T> ApiResponse<T> failWithCause(int httpStatusCode, String details, Throwable cause) {
+        return new ApiResponse<>(httpStatusCode, new ErrorDetail("HTTP_" + httpStatusCode, details), cause, null);
+    }
+
+    // 서버가 Retry-After로 다시 시도할 시점을 알려 준 실패 응답 (retryAfter가 null이면 fail과 같음)
+    public static <T> ApiResponse<T> failWithRetryAfter(int httpStatusCode, String details, Duration retryAfter) {
+        return new ApiResponse<>(httpStatusCode, new ErrorDetail("HTTP_" + httpStatusCode, details), null, retryAfter);
+    }
+
+    // HTTP 상태와 구분되는 에러 코드가 필요할 때 (예: 서킷이 열려 보내지 않은 호출의 CIRCUIT_OPEN)
+    public static <T> ApiResponse<T> fail(int httpStatusCode, String errorCode, String details) {
+        return new ApiResponse<>(httpStatusCode, new ErrorDetail(errorCode, details));
+    }
+
     // --- 내부 ErrorDetail 클래스 ---
     @Getter
     @ToString
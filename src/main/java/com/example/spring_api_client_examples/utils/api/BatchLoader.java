@@ -0,0 +1,245 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * DataLoader 방식의 단건 조회 배치 로더입니다.
+ * 시간 창(window) 동안 들어온 키를 모았다가(또는 maxBatchSize에 도달하면 즉시) 다건 조회 한 번으로 보내고,
+ * 결과를 키별로 나눠 각 호출자에게 돌려줍니다. 같은 배치 안의 중복 키는 한 번만 요청합니다.
+ *
+ * <pre>
+ * BatchLoader&lt;Integer, Post&gt; loader = new BatchLoader&lt;&gt;("posts", Duration.ofMillis(5), 50,
+ *         ids -&gt; HttpClientUtil.getAsync(postsUrlWithIds(ids), null, Post[].class), Post::getId);
+ * CompletableFuture&lt;ApiResponse&lt;Post&gt;&gt; post = loader.load(7);
+ * </pre>
+ */
+@Slf4j
+public class BatchLoader<K, V> {
+
+    /** 키 목록을 한 번에 조회하는 다건 조회 함수 */
+    @FunctionalInterface
+    public interface BatchFunction<K, V> {
+        CompletableFuture<ApiResponse<V[]>> load(List<K> keys);
+    }
+
+    // 모든 로더가 공유하는 배치 타이머 (flush 자체는 가볍고, 실제 I/O는 BatchFunction이 비동기로 수행)
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "batch-loader-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BatchFunction<K, V> batchFunction;
+    private final Function<V, K> keyExtractor;
+
+    // 현재 모으는 중인 배치 (키 → 호출자에게 돌려줄 future). lock으로 보호
+    private final Object lock = new Object();
+    private Map<K, CompletableFuture<ApiResponse<V>>> pending = new LinkedHashMap<>();
+
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * @param name 로그/메트릭 식별용 이름
+     * @param window 첫 키가 들어온 뒤 배치를 보내기까지 기다리는 시간
+     * @param maxBatchSize 이 개수가 모이면 시간 창과 관계없이 즉시 전송
+     * @param batchFunction 다건 조회 함수
+     * @param keyExtractor 조회 결과에서 키를 꺼내는 함수 (결과를 호출자별로 나누는 데 사용)
+     */
+    public BatchLoader(String name, Duration window, int maxBatchSize,
+                       BatchFunction<K, V> batchFunction, Function<V, K> keyExtractor) {
+        this.name = name;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchFunction = batchFunction;
+        this.keyExtractor = keyExtractor;
+    }
+
+    /** load() 호출 수 */
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    /** 실제로 보낸 다건 조회 수 */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    // =========================================================================
+    // 1. 조회
+    // =========================================================================
+    /**
+     * 키 하나를 조회합니다. 결과에 키가 없으면 404 실패, 다건 조회가 실패하면 같은 실패 응답을 받습니다.
+     */
+    public CompletableFuture<ApiResponse<V>> load(K key) {
+        loadCount.incrementAndGet();
+        Map<K, CompletableFuture<ApiResponse<V>>> full = null;
+        CompletableFuture<ApiResponse<V>> future;
+        synchronized (lock) {
+            future = pending.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                boolean first = pending.isEmpty();
+                pending.put(key, future);
+                if (pending.size() >= maxBatchSize) {
+                    full = takePending();
+                } else if (first) {
+                    // 이 배치의 첫 키: 시간 창이 끝나면 모인 만큼 전송
+                    Map<K, CompletableFuture<ApiResponse<V>>> batch = pending;
+                    SCHEDULER.schedule(() -> flushIfCurrent(batch), windowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    /** WebClient 등 리액티브 호출자용 */
+    public Mono<ApiResponse<V>> loadMono(K key) {
+        return Mono.defer(() -> Mono.fromFuture(load(key)));
+    }
+
+    /**
+     * 여러 키를 조회합니다. 모두 같은 배치(또는 maxBatchSize 단위의 연속 배치)로 묶입니다.
+     */
+    public CompletableFuture<List<ApiResponse<V>>> loadMany(List<K> keys) {
+        List<CompletableFuture<ApiResponse<V>>> futures = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            futures.add(load(key));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * 요청 단위 캐시를 가진 뷰를 만듭니다. 같은 뷰에서 같은 키를 다시 load하면 첫 결과를 그대로 돌려줍니다.
+     * 뷰는 요청 처리 동안만 사용하고 버리세요. (로더 자체는 결과를 보관하지 않음)
+     */
+    public Scope newScope() {
+        return new Scope();
+    }
+
+    public final class Scope {
+        private final Map<K, CompletableFuture<ApiResponse<V>>> memo = new ConcurrentHashMap<>();
+
+        private Scope() {
+        }
+
+        public CompletableFuture<ApiResponse<V>> load(K key) {
+            return memo.computeIfAbsent(key, BatchLoader.this::load);
+        }
+
+        public CompletableFuture<List<ApiResponse<V>>> loadMany(List<K> keys) {
+            List<CompletableFuture<ApiResponse<V>>> futures = new ArrayList<>(keys.size());
+            for (K key : keys) {
+                futures.add(load(key));
+            }
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+        }
+    }
+
+    // =========================================================================
+    // Private: 배치 전송 및 결과 분배
+    // =========================================================================
+    private void flushIfCurrent(Map<K, CompletableFuture<ApiResponse<V>>> batch) {
+        Map<K, CompletableFuture<ApiResponse<V>>> toSend = null;
+        synchronized (lock) {
+            // 크기 초과로 이미 전송된 배치라면 무시
+            if (pending == batch && !pending.isEmpty()) {
+                toSend = takePending();
+            }
+        }
+        if (toSend != null) {
+            dispatch(toSend);
+        }
+    }
+
+    // lock을 잡은 상태에서만 호출합니다.
+    private Map<K, CompletableFuture<ApiResponse<V>>> takePending() {
+        Map<K, CompletableFuture<ApiResponse<V>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void dispatch(Map<K, CompletableFuture<ApiResponse<V>>> batch) {
+        batchCount.incrementAndGet();
+        List<K> keys = new ArrayList<>(batch.keySet());
+        log.debug("BatchLoader[{}] 배치 전송: size={}", name, keys.size());
+
+        CompletableFuture<ApiResponse<V[]>> result;
+        try {
+            result = batchFunction.load(keys);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((response, error) -> {
+            try {
+                distribute(batch, response, error);
+            } catch (RuntimeException e) {
+                // 결과 분배 중 실패(keyExtractor 예외 등): 아직 완료되지 않은 호출자가 멈추지 않도록 모두 실패로 완료
+                log.error("BatchLoader[{}] 결과 분배 실패: {}", name, e.getMessage());
+                ApiResponse<V> failure = ApiResponse.fail(500, "Batch result error: " + e.getMessage());
+                batch.values().forEach(future -> future.complete(failure));
+            }
+        });
+    }
+
+    private void distribute(Map<K, CompletableFuture<ApiResponse<V>>> batch, ApiResponse<V[]> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            // 서킷 차단/LOAD_SHED 예외면 해당 에러 코드를 유지
+            ApiResponse<V> failure = CircuitBreaker.failure(cause, 500, "Batch load error: " + cause.getMessage());
+            batch.values().forEach(future -> future.complete(failure));
+            return;
+        }
+        if (response.getError() != null) {
+            // 다건 조회 실패: 에러 코드(CIRCUIT_OPEN, LOAD_SHED 등)와 Retry-After를 그대로 모든 호출자에게 전달
+            ApiResponse<V> failure = asFailure(response);
+            batch.values().forEach(future -> future.complete(failure));
+            return;
+        }
+        if (response.getData() == null) {
+            ApiResponse<V> failure = ApiResponse.fail(response.getHttpStatusCode(), "Empty batch response");
+            batch.values().forEach(future -> future.complete(failure));
+            return;
+        }
+        Map<K, V> byKey = new HashMap<>();
+        for (V value : response.getData()) {
+            byKey.put(keyExtractor.apply(value), value);
+        }
+        batch.forEach((key, future) -> {
+            V value = byKey.get(key);
+            future.complete(value != null
+                    ? ApiResponse.success(response.getHttpStatusCode(), value)
+                    : ApiResponse.fail(404, "Not found in batch response: " + key));
+        });
+    }
+
+    // 실패 응답은 data가 없으므로 타입만 바꿔 그대로 전달
+    @SuppressWarnings("unchecked")
+    private static <V> ApiResponse<V> asFailure(ApiResponse<V[]> response) {
+        return (ApiResponse<V>) (ApiResponse<?>) response;
+    }
+}
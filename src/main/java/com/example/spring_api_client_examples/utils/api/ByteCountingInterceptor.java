@@ -0,0 +1,76 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * RestTemplate 요청/응답 본문 바이트 수를 ClientMetrics에 집계하는 인터셉터입니다.
+ * 응답 본문은 읽은 만큼 세고, 응답을 닫을 때 한 번에 기록합니다.
+ */
+class ByteCountingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String client;
+
+    ByteCountingInterceptor(String client) {
+        this.client = client;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String url = request.getURI().toString();
+        ClientMetrics.bytesOut(client, url, body.length);
+        return new CountingResponse(execution.execute(request, body), client, url);
+    }
+
+    private static final class CountingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final String client;
+        private final String url;
+        private CountingInputStream body;
+
+        CountingResponse(ClientHttpResponse delegate, String client, String url) {
+            this.delegate = delegate;
+            this.client = client;
+            this.url = url;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (body != null) {
+                ClientMetrics.bytesIn(client, url, body.getCount());
+            }
+            delegate.close();
+        }
+    }
+}
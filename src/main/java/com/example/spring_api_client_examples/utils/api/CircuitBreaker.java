@@ -0,0 +1,317 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 네 가지 클라이언트 유틸리티가 공유하는 호스트별 서킷 브레이커입니다.
+ * 호스트마다 최근 windowSize건의 결과(실패: 연결/타임아웃 오류와 5xx, 느린 호출: slowCallDuration 이상)를 링 버퍼로 유지하고,
+ * 실패율이나 느린 호출 비율이 임계값을 넘으면 OPEN으로 바꿔 openDuration 동안 호출을 보내지 않고 바로 실패시킵니다.
+ * openDuration이 지나면 HALF_OPEN에서 halfOpenPermittedCalls건만 시험 삼아 보내고, 그 결과로 CLOSED 또는 OPEN을 정합니다.
+ *
+ * <p>허가 확인(acquire)은 각 유틸리티의 전송 직전에, 결과 기록은 ClientMetrics.record/recordFailure에서 이루어집니다.
+ * 차단된 호출은 ApiResponse.fail(503, "CIRCUIT_OPEN", ...)으로 반환되며 호출 메트릭에는 기록되지 않습니다.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    /** 차단된 호출의 ApiResponse 에러 코드 */
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+
+    /** 서킷 상태 (게이지 값은 ordinal: 0=CLOSED, 1=OPEN, 2=HALF_OPEN) */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN;
+
+        /** 메트릭 태그 값 */
+        public String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /** 서킷이 열려 있어 호출을 보내지 않았을 때. 유틸리티의 IOException 처리 경로를 그대로 타도록 IOException을 상속합니다. */
+    public static final class CircuitOpenException extends IOException {
+        CircuitOpenException(String host) {
+            super("Circuit open for host: " + host);
+        }
+    }
+
+    // 링 버퍼에 기록하는 결과 플래그
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    /** 호스트 한 곳의 서킷. 모든 필드는 인스턴스 모니터로 보호 (state는 잠금 없이 읽을 수 있도록 volatile) */
+    private static final class HostCircuit {
+        private final String host;
+        private final byte[] outcomes;
+        private int next;
+        private int calls;
+        private int failures;
+        private int slowCalls;
+
+        private volatile State state = State.CLOSED;
+        private long stateSinceNanos = System.nanoTime();
+        // HALF_OPEN에서 내준 허가 수와 돌아온 결과
+        private int probesIssued;
+        private int probeCalls;
+        private int probeFailures;
+        private int probeSlowCalls;
+
+        private HostCircuit(String host, int windowSize) {
+            this.host = host;
+            this.outcomes = new byte[windowSize];
+        }
+    }
+
+    private static final Map<String, HostCircuit> CIRCUITS = new ConcurrentHashMap<>();
+
+    // 서킷 브레이커 설정 (ApiClientConfig에서 application.properties 값으로 덮어씀)
+    private static volatile boolean enabled = true;
+    private static volatile int windowSize = 20;
+    private static volatile int minimumCalls = 10;
+    private static volatile float failureRateThreshold = 50f;
+    private static volatile long slowCallNanos = 3_000_000_000L;
+    private static volatile float slowCallRateThreshold = 80f;
+    private static volatile long openNanos = 10_000_000_000L;
+    private static volatile int halfOpenPermittedCalls = 3;
+
+    public static void configure(ApiClientProperties.CircuitBreaker settings) {
+        enabled = settings.isEnabled();
+        windowSize = Math.max(1, settings.getWindowSize());
+        minimumCalls = Math.max(1, Math.min(settings.getMinimumCalls(), windowSize));
+        failureRateThreshold = settings.getFailureRateThreshold();
+        slowCallNanos = settings.getSlowCallDuration().toNanos();
+        slowCallRateThreshold = settings.getSlowCallRateThreshold();
+        openNanos = settings.getOpenDuration().toNanos();
+        halfOpenPermittedCalls = Math.max(1, settings.getHalfOpenPermittedCalls());
+        // 창 크기가 바뀔 수 있으므로 지금까지의 기록은 버리고 모두 CLOSED로 다시 시작
+        CIRCUITS.clear();
+        log.info("서킷 브레이커 설정 적용: enabled={}, windowSize={}, minimumCalls={}, failureRate={}%, slowCall={}({}%), open={}, halfOpenCalls={}",
+                enabled, windowSize, minimumCalls, failureRateThreshold, settings.getSlowCallDuration(),
+                slowCallRateThreshold, settings.getOpenDuration(), halfOpenPermittedCalls);
+    }
+
+    /** 호스트(UrlBuilder.hostKey, host:port)의 현재 상태 (기록이 없으면 CLOSED) */
+    public static State getState(String host) {
+        HostCircuit circuit = CIRCUITS.get(host);
+        return circuit != null ? circuit.state : State.CLOSED;
+    }
+
+    /**
+     * url 호스트의 서킷이 CLOSED인지 (비활성이면 항상 true). 허가를 내주지 않으며 상태를 바꾸지 않습니다.
+     * 헤지 요청처럼 없어도 되는 추가 호출이 HALF_OPEN 시험 호출 허가를 쓰지 않도록 보내기 전에 확인합니다.
+     * (OPEN에서 HALF_OPEN으로는 openDuration이 지나야 바뀌므로 확인 직후의 acquire가 시험 호출이 되지 않음)
+     */
+    static boolean isClosed(String url) {
+        return !enabled || getState(UrlBuilder.hostKey(url)) == State.CLOSED;
+    }
+
+    // =========================================================================
+    // 1. 호출 허가
+    // =========================================================================
+    /**
+     * 요청을 보내기 직전에 호출합니다. 서킷이 열려 있으면 CircuitOpenException을 던집니다.
+     * OPEN 상태에서 openDuration이 지났으면 HALF_OPEN으로 바꾸고 시험 호출을 허가합니다.
+     * @param url 호스트를 가려낼 전체 URL (또는 Base URL)
+     */
+    public static void acquire(String url) throws CircuitOpenException {
+        if (!enabled) {
+            return;
+        }
+        HostCircuit circuit = circuit(UrlBuilder.hostKey(url));
+        if (circuit.state == State.CLOSED) {
+            // 대부분의 호출은 잠금 없이 통과
+            return;
+        }
+        State from;
+        synchronized (circuit) {
+            from = circuit.state;
+            if (from == State.CLOSED) {
+                return;
+            }
+            long now = System.nanoTime();
+            boolean permitted = false;
+            if (from == State.OPEN && now - circuit.stateSinceNanos >= openNanos) {
+                transition(circuit, State.HALF_OPEN, now);
+            }
+            if (circuit.state == State.HALF_OPEN) {
+                // 시험 호출의 결과가 돌아오지 않은 채(취소 등) openDuration이 지나면 허가를 다시 내줌
+                if (circuit.probesIssued >= halfOpenPermittedCalls && now - circuit.stateSinceNanos >= openNanos) {
+                    resetProbes(circuit, now);
+                }
+                if (circuit.probesIssued < halfOpenPermittedCalls) {
+                    circuit.probesIssued++;
+                    permitted = true;
+                }
+            }
+            if (!permitted) {
+                ClientMetrics.circuitRejected(circuit.host);
+                throw new CircuitOpenException(circuit.host);
+            }
+        }
+        if (from != State.HALF_OPEN) {
+            log.info("서킷 HALF_OPEN: host={} (시험 호출 {}건 허가)", circuit.host, halfOpenPermittedCalls);
+        }
+    }
+
+    /** acquire를 Reactor 파이프라인 앞에 붙일 때 사용 (구독 시점에 확인) */
+    public static Mono<Void> acquireMono(String url) {
+        return Mono.fromCallable(() -> {
+            acquire(url);
+            return Boolean.TRUE;
+        }).then();
+    }
+
+    // =========================================================================
+    // 2. 결과 기록 (ClientMetrics에서 호출)
+    // =========================================================================
+    /**
+     * 업스트림 호출 한 건의 결과를 기록하고, 임계값을 넘으면 상태를 바꿉니다.
+     * @param failed 응답을 받지 못했거나 5xx를 받았으면 true
+     * @param durationNanos 호출 소요 시간
+     */
+    static void onResult(String url, boolean failed, long durationNanos) {
+        if (!enabled) {
+            return;
+        }
+        HostCircuit circuit = circuit(UrlBuilder.hostKey(url));
+        boolean slow = durationNanos >= slowCallNanos;
+        synchronized (circuit) {
+            switch (circuit.state) {
+                case CLOSED -> {
+                    record(circuit, failed, slow);
+                    if (circuit.calls >= minimumCalls && overThreshold(circuit.failures, circuit.slowCalls, circuit.calls)) {
+                        logOpened(circuit, circuit.failures, circuit.slowCalls, circuit.calls);
+                        transition(circuit, State.OPEN, System.nanoTime());
+                    }
+                }
+                case HALF_OPEN -> {
+                    circuit.probeCalls++;
+                    if (failed) {
+                        circuit.probeFailures++;
+                    }
+                    if (slow) {
+                        circuit.probeSlowCalls++;
+                    }
+                    if (circuit.probeCalls >= halfOpenPermittedCalls) {
+                        if (overThreshold(circuit.probeFailures, circuit.probeSlowCalls, circuit.probeCalls)) {
+                            logOpened(circuit, circuit.probeFailures, circuit.probeSlowCalls, circuit.probeCalls);
+                            transition(circuit, State.OPEN, System.nanoTime());
+                        } else {
+                            log.info("서킷 CLOSED: host={} (시험 호출 {}건 통과)", circuit.host, circuit.probeCalls);
+                            transition(circuit, State.CLOSED, System.nanoTime());
+                        }
+                    }
+                }
+                case OPEN -> {
+                    // 열리기 전에 보낸 호출의 늦은 결과는 무시
+                }
+            }
+        }
+    }
+
+    /** 서킷이 열려 차단된 호출의 응답 */
+    public static <T> ApiResponse<T> rejected(CircuitOpenException e) {
+        return ApiResponse.fail(503, CIRCUIT_OPEN, e.getMessage());
+    }
+
+    /**
+     * 예외 처리 경로에서 사용합니다. 원인이 CircuitOpenException이면 CIRCUIT_OPEN 응답을,
+     * AdaptiveLimiter.LoadShedException이면 LOAD_SHED 응답을,
+     * 아니면 원인 예외를 담은 ApiResponse.failWithCause(status, details, e)를 반환합니다. (재시도 판단에 사용)
+     * (RestTemplate의 ResourceAccessException처럼 감싸진 경우도 원인을 따라가며 확인)
+     */
+    public static <T> ApiResponse<T> failure(Throwable e, int status, String details) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CircuitOpenException circuitOpen) {
+                return rejected(circuitOpen);
+            }
+            if (cause instanceof AdaptiveLimiter.LoadShedException loadShed) {
+                return AdaptiveLimiter.rejected(loadShed);
+            }
+        }
+        return ApiResponse.failWithCause(status, details, e);
+    }
+
+    /** 보내지 않고 차단한 응답인지: 서킷이 열렸거나 동시 요청 제한기가 차단함 (호출 메트릭과 결과 기록, 재시도에서 제외) */
+    static boolean isRejected(ApiResponse<?> response) {
+        if (response.getError() == null) {
+            return false;
+        }
+        String code = response.getError().getCode();
+        return CIRCUIT_OPEN.equals(code) || AdaptiveLimiter.LOAD_SHED.equals(code);
+    }
+
+    // =========================================================================
+    // Private (record/transition/resetProbes는 circuit 모니터를 잡은 상태에서만 호출)
+    // =========================================================================
+    private static HostCircuit circuit(String host) {
+        return CIRCUITS.computeIfAbsent(host, key -> {
+            ClientMetrics.circuitState(key, () -> getState(key).ordinal());
+            return new HostCircuit(key, windowSize);
+        });
+    }
+
+    // 링 버퍼의 가장 오래된 결과를 빼고 새 결과를 넣음
+    private static void record(HostCircuit circuit, boolean failed, boolean slow) {
+        byte old = circuit.outcomes[circuit.next];
+        if (circuit.calls == circuit.outcomes.length) {
+            if ((old & FAILURE) != 0) {
+                circuit.failures--;
+            }
+            if ((old & SLOW) != 0) {
+                circuit.slowCalls--;
+            }
+        } else {
+            circuit.calls++;
+        }
+        byte outcome = (byte) ((failed ? FAILURE : 0) | (slow ? SLOW : 0));
+        circuit.outcomes[circuit.next] = outcome;
+        if (failed) {
+            circuit.failures++;
+        }
+        if (slow) {
+            circuit.slowCalls++;
+        }
+        circuit.next = (circuit.next + 1) % circuit.outcomes.length;
+    }
+
+    private static boolean overThreshold(int failures, int slowCalls, int calls) {
+        return failures * 100f / calls >= failureRateThreshold
+                || slowCalls * 100f / calls >= slowCallRateThreshold;
+    }
+
+    private static void transition(HostCircuit circuit, State to, long now) {
+        State from = circuit.state;
+        circuit.state = to;
+        circuit.stateSinceNanos = now;
+        resetProbes(circuit, now);
+        if (to == State.CLOSED) {
+            // 다시 닫히면 이전 창의 기록으로 곧바로 열리지 않도록 비움
+            circuit.next = 0;
+            circuit.calls = 0;
+            circuit.failures = 0;
+            circuit.slowCalls = 0;
+        }
+        ClientMetrics.circuitTransition(circuit.host, from.tag(), to.tag());
+    }
+
+    private static void resetProbes(HostCircuit circuit, long now) {
+        circuit.stateSinceNanos = now;
+        circuit.probesIssued = 0;
+        circuit.probeCalls = 0;
+        circuit.probeFailures = 0;
+        circuit.probeSlowCalls = 0;
+    }
+
+    private static void logOpened(HostCircuit circuit, int failures, int slowCalls, int calls) {
+        log.warn("서킷 OPEN: host={} (최근 {}건 중 실패 {}건, 느린 호출 {}건) - {}ms 동안 바로 실패 처리",
+                circuit.host, calls, failures, slowCalls, openNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 네 가지 클라이언트 유틸리티가 공통으로 사용하는 Micrometer 계측 헬퍼입니다.
+ * 유틸리티가 정적 클래스이므로 레지스트리도 정적으로 보관하며, ApiClientConfig에서 애플리케이션 레지스트리로 교체합니다.
+ *
+ * <ul>
+ *   <li>api.client.requests (Timer, 퍼센타일 히스토그램): client, method, host, status, serviceCode</li>
+ *   <li>api.client.bytes (Counter): client, host, direction(in|out)</li>
+ *   <li>api.client.parse.failures (Counter): client, host</li>
+ *   <li>api.client.download.scheduler.wait (Timer, 퍼센타일 히스토그램): priority</li>
+ *   <li>api.client.circuit.state (Gauge, 0=closed 1=open 2=half_open): host</li>
+ *   <li>api.client.circuit.transitions (Counter): host, from, to</li>
+ *   <li>api.client.circuit.rejected (Counter): host</li>
+ *   <li>api.client.hedges (Counter): client, host, outcome(fired|won|dropped|budget_exhausted|circuit_not_closed)</li>
+ *   <li>api.client.retries (Counter): client, host, attempt(2, 3, ...), reason(상태 코드 또는 예외 이름)</li>
+ *   <li>api.client.retries.denied (Counter): client, host, reason(max_attempts|retry_after|budget)</li>
+ *   <li>api.client.limiter.limit (Gauge): host</li>
+ *   <li>api.client.limiter.queue (Gauge): host</li>
+ *   <li>api.client.limiter.shed (Counter): host, reason(queue_full|paused|deadline)</li>
+ * </ul>
+ * host 태그는 태그 카디널리티를 제한하기 위해 경로/쿼리를 버린 UrlBuilder.hostKey(host:port)입니다.
+ * status 태그는 HTTP 상태 클래스(2xx/4xx/5xx)이며, 응답을 받지 못한 경우(연결/타임아웃 오류)는 IO_ERROR입니다.
+ * 호출 결과는 호스트별 서킷 브레이커(CircuitBreaker)와 동시 요청 제한기(AdaptiveLimiter)에도 전달됩니다.
+ * 서킷이 열려 차단되었거나 제한기가 차단한 호출은 api.client.requests에 기록하지 않습니다.
+ */
+public final class ClientMetrics {
+
+    public static final String HTTP_URL_CONNECTION = "httpurlconnection";
+    public static final String HTTP_CLIENT = "httpclient";
+    public static final String REST_TEMPLATE = "resttemplate";
+    public static final String WEB_CLIENT = "webclient";
+
+    private static final String STATUS_IO_ERROR = "IO_ERROR";
+    private static final String SERVICE_CODE_FAIL = "FAIL";
+
+    // 바인딩 전에는 전역 레지스트리(등록된 레지스트리가 없으면 no-op)를 사용합니다.
+    private static volatile MeterRegistry registry = Metrics.globalRegistry;
+    // 바이트 카운터는 청크마다 증가하므로 빌더 조회 비용을 줄이기 위해 캐시합니다.
+    private static final Map<String, Counter> BYTE_COUNTERS = new ConcurrentHashMap<>();
+
+    private ClientMetrics() {
+    }
+
+    /** 애플리케이션 MeterRegistry를 연결합니다. */
+    public static void bind(MeterRegistry meterRegistry) {
+        registry = meterRegistry;
+        BYTE_COUNTERS.clear();
+    }
+
+    /**
+     * 응답을 받은 호출의 소요 시간을 기록하고 응답을 그대로 반환합니다.
+     * @param startNanos 호출 시작 시각 (System.nanoTime())
+     */
+    public static <T> ApiResponse<T> record(String client, String method, String url, long startNanos, ApiResponse<T> response) {
+        long durationNanos = timer(client, method, url, statusClass(response.getHttpStatusCode()), response.getServiceCode(), startNanos);
+        CircuitBreaker.onResult(url, response.getHttpStatusCode() >= 500, durationNanos);
+        AdaptiveLimiter.onResult(url, startNanos, response);
+        return response;
+    }
+
+    /**
+     * 응답을 받지 못한 호출(연결 실패, 타임아웃 등)의 소요 시간을 status=IO_ERROR로 기록하고 응답을 그대로 반환합니다.
+     */
+    public static <T> ApiResponse<T> recordFailure(String client, String method, String url, long startNanos, ApiResponse<T> response) {
+        if (CircuitBreaker.isRejected(response)) {
+            // 보내지 않은 호출 (api.client.circuit.rejected, api.client.limiter.shed로 집계됨)
+            return response;
+        }
+        long durationNanos = timer(client, method, url, STATUS_IO_ERROR, response.getServiceCode(), startNanos);
+        CircuitBreaker.onResult(url, true, durationNanos);
+        AdaptiveLimiter.onResult(url, startNanos, null);
+        return response;
+    }
+
+    /**
+     * 응답 객체를 만들기 전에 예외가 전파되는 경로용 (serviceCode=FAIL로 기록)
+     */
+    public static void recordFailure(String client, String method, String url, long startNanos) {
+        long durationNanos = timer(client, method, url, STATUS_IO_ERROR, SERVICE_CODE_FAIL, startNanos);
+        CircuitBreaker.onResult(url, true, durationNanos);
+        AdaptiveLimiter.onResult(url, startNanos, null);
+    }
+
+    /** 수신한 응답 본문 바이트 수 */
+    public static void bytesIn(String client, String url, long bytes) {
+        countBytes(client, url, "in", bytes);
+    }
+
+    /** 전송한 요청 본문 바이트 수 */
+    public static void bytesOut(String client, String url, long bytes) {
+        countBytes(client, url, "out", bytes);
+    }
+
+    /** 2xx 응답 본문의 JSON 파싱 실패 */
+    public static void parseFailure(String client, String url) {
+        Counter.builder("api.client.parse.failures")
+                .description("2xx 응답 본문 JSON 파싱 실패 수")
+                .tag("client", client)
+                .tag("host", UrlBuilder.hostKey(url))
+                .register(registry)
+                .increment();
+    }
+
+    /** 다운로드 스케줄러 대기열에서 시작 허가를 받기까지 기다린 시간 */
+    public static void downloadQueueWait(String priority, long waitNanos) {
+        Timer.builder("api.client.download.scheduler.wait")
+                .description("다운로드 스케줄러 대기 시간")
+                .tag("priority", priority)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** 호스트별 서킷 상태 게이지 (서킷을 처음 만들 때 한 번 등록) */
+    static void circuitState(String host, Supplier<Number> state) {
+        Gauge.builder("api.client.circuit.state", state)
+                .description("호스트별 서킷 상태 (0=closed, 1=open, 2=half_open)")
+                .tag("host", host)
+                .register(registry);
+    }
+
+    /** 서킷 상태 전이 */
+    static void circuitTransition(String host, String from, String to) {
+        Counter.builder("api.client.circuit.transitions")
+                .description("서킷 상태 전이 수")
+                .tag("host", host)
+                .tag("from", from)
+                .tag("to", to)
+                .register(registry)
+                .increment();
+    }
+
+    /** 서킷이 열려 보내지 않고 바로 실패시킨 호출 */
+    static void circuitRejected(String host) {
+        Counter.builder("api.client.circuit.rejected")
+                .description("서킷이 열려 차단된 호출 수")
+                .tag("host", host)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 요청 헤징 (fired: 헤지 요청을 보냄, won: 헤지 요청이 먼저 성공함, dropped: 헤지 요청이 실패/차단되어 버림,
+     * budget_exhausted: 예산이 없어 보내지 않음, circuit_not_closed: 서킷이 CLOSED가 아니어서 보내지 않음)
+     */
+    static void hedge(String client, String url, String outcome) {
+        Counter.builder("api.client.hedges")
+                .description("헤지 요청 수")
+                .tag("client", client)
+                .tag("host", UrlBuilder.hostKey(url))
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /** 재시도 (attempt: 이번에 시작하는 시도 번호, 첫 요청이 1) */
+    static void retry(String client, String url, int attempt, String reason) {
+        Counter.builder("api.client.retries")
+                .description("재시도 수")
+                .tag("client", client)
+                .tag("host", UrlBuilder.hostKey(url))
+                .tag("attempt", String.valueOf(attempt))
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    /** 재시도 대상이지만 다시 시도하지 않은 실패 (최대 시도 수, 너무 긴 Retry-After, 예산 부족) */
+    static void retryDenied(String client, String url, String reason) {
+        Counter.builder("api.client.retries.denied")
+                .description("재시도하지 않은 일시적 실패 수")
+                .tag("client", client)
+                .tag("host", UrlBuilder.hostKey(url))
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    /** 호스트별 동시 요청 제한과 대기 수 게이지 (호스트를 처음 볼 때 한 번 등록) */
+    static void limiterGauges(String host, Supplier<Number> limit, Supplier<Number> queued) {
+        Gauge.builder("api.client.limiter.limit", limit)
+                .description("호스트별 동시 요청 제한")
+                .tag("host", host)
+                .register(registry);
+        Gauge.builder("api.client.limiter.queue", queued)
+                .description("호스트별 동시 요청 허가 대기 수")
+                .tag("host", host)
+                .register(registry);
+    }
+
+    /** 동시 요청 제한기가 보내지 않고 차단한 호출 (queue_full: 대기열 가득, paused: Retry-After 중지 중, deadline: maxWait 초과) */
+    static void limiterShed(String host, String reason) {
+        Counter.builder("api.client.limiter.shed")
+                .description("동시 요청 제한으로 차단된 호출 수")
+                .tag("host", host)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    // =========================================================================
+    // Private 헬퍼
+    // =========================================================================
+    // 기록한 소요 시간(나노초)을 반환
+    private static long timer(String client, String method, String url, String status, String serviceCode, long startNanos) {
+        long durationNanos = System.nanoTime() - startNanos;
+        Timer.builder("api.client.requests")
+                .description("외부 API 호출 소요 시간")
+                .tag("client", client)
+                .tag("method", method)
+                .tag("host", UrlBuilder.hostKey(url))
+                .tag("status", status)
+                .tag("serviceCode", serviceCode)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        return durationNanos;
+    }
+
+    private static void countBytes(String client, String url, String direction, long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        String host = UrlBuilder.hostKey(url);
+        MeterRegistry current = registry;
+        BYTE_COUNTERS.computeIfAbsent(client + '|' + host + '|' + direction, key -> Counter.builder("api.client.bytes")
+                        .description("요청/응답 본문 바이트 수")
+                        .baseUnit("bytes")
+                        .tag("client", client)
+                        .tag("host", host)
+                        .tag("direction", direction)
+                        .register(current))
+                .increment(bytes);
+    }
+
+    private static String statusClass(int httpStatusCode) {
+        return (httpStatusCode / 100) + "xx";
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import lombok.Getter;
+
+/**
+ * 조건부 GET(If-None-Match / If-Modified-Since) 결과입니다.
+ * 304 Not Modified면 notModified=true이고 response의 data는 비어 있습니다. (본문 전송/역직렬화 없음)
+ */
+@Getter
+class ConditionalResponse<T> {
+
+    private final ApiResponse<T> response;
+    private final boolean notModified;
+    // 응답의 검증자 (없으면 null)
+    private final String etag;
+    private final String lastModified;
+
+    private ConditionalResponse(ApiResponse<T> response, boolean notModified, String etag, String lastModified) {
+        this.response = response;
+        this.notModified = notModified;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    static <T> ConditionalResponse<T> of(ApiResponse<T> response, String etag, String lastModified) {
+        return new ConditionalResponse<>(response, false, etag, lastModified);
+    }
+
+    static <T> ConditionalResponse<T> notModified(String etag, String lastModified) {
+        return new ConditionalResponse<>(ApiResponse.success(304, null), true, etag, lastModified);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.utils.file.FileSignature;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 다운로드 파일을 내용의 SHA-256 해시로 저장하는 내용 주소(content-addressed) 저장소입니다.
+ * 같은 내용은 objects/&lt;해시&gt; 하나만 디스크에 두고, 다운로드마다 돌려주는 저장 파일(savedFileName)은 그 객체의 하드 링크로 만듭니다.
+ * 객체의 참조 수는 하드 링크 수(nlink - 1)이며, 저장 파일을 지우면 참조가 하나 줄어듭니다.
+ * URL → (검증자, 해시) 색인을 두어 바뀌지 않은 파일은 조건부 요청(304)만으로 전송 없이 링크합니다.
+ * 색인은 메모리에만 두므로 재시작 후 첫 다운로드는 다시 전송되지만, 같은 내용이면 기존 객체를 재사용합니다.
+ */
+@Slf4j
+class ContentStore {
+
+    /** 색인 항목: URL의 마지막 검증자(ETag/Last-Modified), 내용 해시와 크기, 판별한 형식, 메타데이터 추출용 헤더 */
+    @Getter
+    static final class IndexEntry {
+        private final String digest;
+        private final long size;
+        private final FileSignature signature;
+        private final String etag;
+        private final String lastModified;
+        private final String contentType;
+        private final String contentDisposition;
+
+        private IndexEntry(String digest, long size, FileSignature signature, HttpHeaders headers) {
+            this.digest = digest;
+            this.size = size;
+            this.signature = signature;
+            this.etag = headers.getETag();
+            this.lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+            this.contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+            this.contentDisposition = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
+        }
+
+        /** FileMetaDataExtractor에 넘길 응답 헤더 */
+        HttpHeaders headers() {
+            HttpHeaders headers = new HttpHeaders();
+            if (contentType != null) {
+                headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+            }
+            if (contentDisposition != null) {
+                headers.set(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+            }
+            return headers;
+        }
+    }
+
+    private final Path objectsDir;
+    // URL → 마지막으로 받은 내용
+    private final Map<String, IndexEntry> index = new ConcurrentHashMap<>();
+
+    // 이미 있는 객체를 재사용하여 디스크 쓰기를 생략한 수
+    private final AtomicLong deduplicated = new AtomicLong();
+    // 304 재검증으로 전송 자체를 생략한 수
+    private final AtomicLong notModified = new AtomicLong();
+
+    ContentStore(Path objectsDir) {
+        this.objectsDir = objectsDir;
+    }
+
+    long getDeduplicatedCount() {
+        return deduplicated.get();
+    }
+
+    long getNotModifiedCount() {
+        return notModified.get();
+    }
+
+    Path objectPath(String digest) {
+        return objectsDir.resolve(digest);
+    }
+
+    // =========================================================================
+    // 1. URL 색인
+    // =========================================================================
+    /** 객체가 아직 디스크에 있는 색인 항목만 돌려줍니다. */
+    IndexEntry lookup(String url) {
+        IndexEntry entry = index.get(url);
+        if (entry != null && !Files.exists(objectPath(entry.getDigest()))) {
+            index.remove(url, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 응답 헤더의 검증자로 색인을 갱신합니다. 검증자가 없으면 재검증할 수 없으므로 색인하지 않습니다.
+     * 크기와 판별한 형식도 함께 두어 304 재사용 시 파일을 다시 읽지 않습니다.
+     */
+    void remember(String url, HttpHeaders headers, String digest, long size, FileSignature signature) {
+        if (headers.getETag() == null && headers.getFirst(HttpHeaders.LAST_MODIFIED) == null) {
+            index.remove(url);
+            return;
+        }
+        index.put(url, new IndexEntry(digest, size, signature, headers));
+    }
+
+    /** 304 응답으로 색인 항목의 객체를 그대로 재사용할 때 호출합니다. */
+    void recordNotModified() {
+        notModified.incrementAndGet();
+    }
+
+    // =========================================================================
+    // 2. 객체 저장 / 링크
+    // =========================================================================
+    /**
+     * 받은 파일을 내용 객체로 옮기고, 원래 자리에 객체의 하드 링크를 만듭니다.
+     * 같은 해시의 객체가 이미 있으면 받은 파일은 지우고 기존 객체를 링크합니다.
+     * @return 실제 저장 경로 (하드 링크를 만들 수 없는 파일 시스템이면 객체 경로)
+     */
+    Path store(Path downloaded, String digest) throws IOException {
+        Files.createDirectories(objectsDir);
+        Path object = objectPath(digest);
+        if (Files.exists(object)) {
+            deduplicated.incrementAndGet();
+            Files.delete(downloaded);
+            log.debug("같은 내용의 객체가 이미 있어 재사용합니다: {}", digest);
+        } else {
+            try {
+                Files.move(downloaded, object, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(downloaded, object, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return link(object, downloaded);
+    }
+
+    /**
+     * linkPath에 객체의 하드 링크를 만듭니다.
+     * @return linkPath, 하드 링크를 지원하지 않으면 객체 경로
+     */
+    Path link(Path object, Path linkPath) {
+        try {
+            Files.createLink(linkPath, object);
+            return linkPath;
+        } catch (UnsupportedOperationException | IOException e) {
+            log.debug("하드 링크 생성 실패, 객체 경로를 그대로 사용합니다: {} ({})", object, e.getMessage());
+            return object;
+        }
+    }
+
+    /** 객체를 가리키는 저장 파일 수 (하드 링크 수 - 1). 알 수 없으면 -1 */
+    long referenceCount(String digest) {
+        try {
+            Object links = Files.getAttribute(objectPath(digest), "unix:nlink");
+            return ((Number) links).longValue() - 1;
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return -1;
+        }
+    }
+
+    // =========================================================================
+    // 3. 해시 계산
+    // =========================================================================
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다.", e);
+        }
+    }
+
+    /** 버퍼의 읽을 수 있는 부분을 해시에 반영합니다. (버퍼의 읽기 위치는 바뀌지 않음) */
+    static void update(MessageDigest digest, DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                digest.update(iterator.next());
+            }
+        }
+    }
+
+    static String toHex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** 파일 전체를 읽어 해시를 계산합니다. (구간 분할 다운로드처럼 순서대로 받지 않은 파일용, 블로킹) */
+    static String hashFile(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return toHex(digest);
+    }
+}
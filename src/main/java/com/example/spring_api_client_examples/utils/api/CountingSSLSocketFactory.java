@@ -0,0 +1,80 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 기본 SSLSocketFactory에 위임하면서, 새로 만들어진 소켓(= 새 TLS 커넥션) 수를 세는 팩토리입니다.
+ * HttpsURLConnection은 keep-alive 캐시에서 커넥션을 재사용할 때 이 팩토리를 호출하지 않으므로,
+ * (전체 요청 수 - 생성된 소켓 수)로 재사용 횟수를 계산할 수 있습니다.
+ * keep-alive 캐시는 같은 팩토리 인스턴스인 경우에만 커넥션을 재사용하므로 반드시 하나의 인스턴스를 공유해야 합니다.
+ */
+class CountingSSLSocketFactory extends SSLSocketFactory {
+
+    private final SSLSocketFactory delegate;
+    private final AtomicLong createdSockets = new AtomicLong();
+
+    CountingSSLSocketFactory(SSLSocketFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    long getCreatedSockets() {
+        return createdSockets.get();
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+        return delegate.getDefaultCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return delegate.getSupportedCipherSuites();
+    }
+
+    @Override
+    public Socket createSocket() throws IOException {
+        createdSockets.incrementAndGet();
+        return delegate.createSocket();
+    }
+
+    @Override
+    public Socket createSocket(Socket s, String host, int port, boolean autoClose) throws IOException {
+        createdSockets.incrementAndGet();
+        return delegate.createSocket(s, host, port, autoClose);
+    }
+
+    @Override
+    public Socket createSocket(Socket s, InputStream consumed, boolean autoClose) throws IOException {
+        createdSockets.incrementAndGet();
+        return delegate.createSocket(s, consumed, autoClose);
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        createdSockets.incrementAndGet();
+        return delegate.createSocket(host, port);
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        createdSockets.incrementAndGet();
+        return delegate.createSocket(host, port, localHost, localPort);
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        createdSockets.incrementAndGet();
+        return delegate.createSocket(host, port);
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+        createdSockets.incrementAndGet();
+        return delegate.createSocket(address, port, localAddress, localPort);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.utils.file.FileSignature;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * 다운로드 본문을 디스크에 쓰기 전에 한 번에 훑는 검사 단계입니다. (다운로드 한 건마다 새로 만듦)
+ * 흘러가는 버퍼의 바이트 수를 세어 파일 크기를 다시 재지 않아도 되게 하고,
+ * 첫 버퍼의 매직 넘버로 실제 형식을 판별하며, 최대 크기와 허용 형식을 넘으면 그 자리에서 다운로드를 중단합니다.
+ */
+class DownloadInspector {
+
+    /** 크기나 형식 제한에 걸려 다운로드를 거부할 때 (재시도하지 않음) */
+    static final class DownloadRejectedException extends RuntimeException {
+        DownloadRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    // 0이면 제한 없음
+    private final long maxSize;
+    // 비어 있으면 모든 형식 허용
+    private final List<MediaType> allowedTypes;
+    // 헤더의 Content-Type (매직 넘버로 판별하지 못했을 때 허용 형식 확인에 사용)
+    private final MediaType declaredType;
+
+    // 버퍼는 순서대로 하나씩 들어오므로(handle) 동기화 없이 갱신
+    private long bytes;
+    private boolean sniffed;
+    private FileSignature signature;
+
+    DownloadInspector(long maxSize, List<MediaType> allowedTypes, MediaType declaredType) {
+        this.maxSize = maxSize;
+        this.allowedTypes = allowedTypes;
+        this.declaredType = declaredType;
+    }
+
+    /** 지금까지 지나간 바이트 수 */
+    long getBytes() {
+        return bytes;
+    }
+
+    /** 첫 버퍼로 판별한 형식 (알 수 없거나 아직 받지 않았으면 null) */
+    FileSignature getSignature() {
+        return signature;
+    }
+
+    /**
+     * 본문을 받기 전에 알려진 크기로 미리 확인합니다. (Content-Length, Content-Range의 전체 크기)
+     * @param expectedSize 알 수 없으면 음수
+     */
+    void checkExpectedSize(long expectedSize) {
+        if (maxSize > 0 && expectedSize > maxSize) {
+            throw new DownloadRejectedException("파일 크기(" + expectedSize + " bytes)가 최대 크기(" + maxSize + " bytes)를 넘습니다.");
+        }
+    }
+
+    /**
+     * 본문에 검사 단계를 붙입니다. 제한에 걸린 버퍼는 해제하고 DownloadRejectedException으로 끝내므로
+     * 업스트림 구독도 바로 취소됩니다.
+     */
+    Flux<DataBuffer> inspect(Flux<DataBuffer> body) {
+        return body.handle((buffer, sink) -> {
+            try {
+                accept(buffer);
+                sink.next(buffer);
+            } catch (DownloadRejectedException e) {
+                DataBufferUtils.release(buffer);
+                sink.error(e);
+            }
+        });
+    }
+
+    void accept(DataBuffer buffer) {
+        if (!sniffed) {
+            sniffed = true;
+            signature = sniff(buffer);
+            checkType();
+        }
+        bytes += buffer.readableByteCount();
+        if (maxSize > 0 && bytes > maxSize) {
+            throw new DownloadRejectedException("최대 크기(" + maxSize + " bytes)를 넘어 다운로드를 중단합니다.");
+        }
+    }
+
+    // =========================================================================
+    // Private
+    // =========================================================================
+    // 판별한 형식이 있으면 그것으로, 없으면 헤더의 Content-Type으로 허용 여부를 확인
+    private void checkType() {
+        if (allowedTypes.isEmpty()) {
+            return;
+        }
+        MediaType actual = signature != null ? signature.getMediaType() : declaredType;
+        if (actual == null || allowedTypes.stream().noneMatch(allowed -> allowed.includes(actual))) {
+            throw new DownloadRejectedException("허용하지 않는 파일 형식입니다: " + (actual != null ? actual : "알 수 없음"));
+        }
+    }
+
+    // 버퍼의 읽기 위치는 그대로 두고 앞부분만 복사하여 판별
+    private static FileSignature sniff(DataBuffer buffer) {
+        int length = Math.min(FileSignature.HEAD_LENGTH, buffer.readableByteCount());
+        byte[] head = new byte[length];
+        int start = buffer.readPosition();
+        for (int i = 0; i < length; i++) {
+            head[i] = buffer.getByte(start + i);
+        }
+        return FileSignature.detect(head, length);
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 파일 다운로드 전체에 적용되는 스케줄러입니다.
+ * 동시에 진행하는 다운로드 수를 전체/호스트별로 제한하고, 대기 중인 다운로드는 우선순위 순으로 시작합니다.
+ * INTERACTIVE(작은 이미지 등)는 언제나 BULK(큰 영상, 문서)보다 먼저 시작하며, BULK가 모든 자리를 차지하지 못하도록
+ * interactiveReserved 만큼의 자리는 INTERACTIVE 전용으로 남겨 둡니다.
+ * 우선순위별 대역폭 제한(토큰 버킷)은 Reactor Context로 전달되어 throttle()을 거치는 본문에 적용됩니다.
+ */
+@Slf4j
+public class DownloadScheduler {
+
+    /** 다운로드 우선순위 (선언 순서가 곧 시작 순서) */
+    public enum Priority {
+        // 사용자가 기다리는 작은 파일 (이미지 등)
+        INTERACTIVE,
+        // 크기가 크고 늦어져도 되는 파일 (영상, 문서 등)
+        BULK;
+
+        /** 메트릭 태그 값 */
+        public String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /** 대기열에 들어간 다운로드 한 건. 시작 허가를 받으면 release()될 때까지 자리를 차지합니다. */
+    private static final class Ticket {
+        private final Priority priority;
+        private final String host;
+        private final MonoSink<Ticket> sink;
+        private final long enqueuedNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Ticket(Priority priority, String host, MonoSink<Ticket> sink) {
+            this.priority = priority;
+            this.host = host;
+            this.sink = sink;
+        }
+    }
+
+    // 아래 상태는 모두 LOCK으로 보호
+    private static final Object LOCK = new Object();
+    private static final Map<Priority, Queue<Ticket>> QUEUES = new EnumMap<>(Priority.class);
+    private static final Map<Priority, Integer> ACTIVE = new EnumMap<>(Priority.class);
+    private static final Map<String, Integer> ACTIVE_BY_HOST = new HashMap<>();
+    private static int activeTotal;
+
+    static {
+        for (Priority priority : Priority.values()) {
+            QUEUES.put(priority, new ArrayDeque<>());
+            ACTIVE.put(priority, 0);
+        }
+    }
+
+    // 스케줄러 설정 (ApiClientConfig에서 application.properties 값으로 덮어씀)
+    private static volatile boolean enabled = true;
+    private static volatile int maxConcurrent = 8;
+    private static volatile int maxPerHost = 4;
+    private static volatile int interactiveReserved = 2;
+    // 우선순위별 대역폭 제한 (null이면 제한 없음)
+    private static volatile Map<Priority, TokenBucket> bandwidth = new EnumMap<>(Priority.class);
+
+    public static void configure(ApiClientProperties.DownloadScheduler settings) {
+        enabled = settings.isEnabled();
+        maxConcurrent = Math.max(1, settings.getMaxConcurrent());
+        maxPerHost = Math.max(1, settings.getMaxPerHost());
+        interactiveReserved = Math.max(0, Math.min(settings.getInteractiveReserved(), maxConcurrent - 1));
+        Map<Priority, TokenBucket> buckets = new EnumMap<>(Priority.class);
+        putBucket(buckets, Priority.INTERACTIVE, settings.getInteractiveBandwidth().toBytes());
+        putBucket(buckets, Priority.BULK, settings.getBulkBandwidth().toBytes());
+        bandwidth = buckets;
+        log.info("다운로드 스케줄러 설정 적용: enabled={}, maxConcurrent={}, maxPerHost={}, interactiveReserved={}, interactiveBandwidth={}/s, bulkBandwidth={}/s",
+                settings.isEnabled(), maxConcurrent, maxPerHost, interactiveReserved,
+                settings.getInteractiveBandwidth(), settings.getBulkBandwidth());
+        // 제한이 늘어났다면 대기 중인 다운로드를 바로 시작
+        dispatch();
+    }
+
+    /** 시작을 기다리는 다운로드 수 */
+    public static int getQueueDepth(Priority priority) {
+        synchronized (LOCK) {
+            return QUEUES.get(priority).size();
+        }
+    }
+
+    /** 진행 중인 다운로드 수 */
+    public static int getActiveCount(Priority priority) {
+        synchronized (LOCK) {
+            return ACTIVE.get(priority);
+        }
+    }
+
+    // =========================================================================
+    // 1. 스케줄링
+    // =========================================================================
+    /**
+     * 자리가 나면 download를 구독합니다. download가 끝나거나(성공/실패) 취소되면 자리를 반납합니다.
+     * 대기 중에 구독을 취소하면 대기열에서 빠집니다.
+     * @param resourceUrl 호스트별 제한에 쓸 전체 URL
+     */
+    public static <T> Mono<T> schedule(Priority priority, String resourceUrl, Mono<T> download) {
+        if (!enabled) {
+            return download;
+        }
+        String host = UrlBuilder.hostKey(resourceUrl);
+        return Mono.usingWhen(
+                acquire(priority, host),
+                ticket -> {
+                    TokenBucket bucket = bandwidth.get(priority);
+                    return bucket != null ? download.contextWrite(ctx -> ctx.put(TokenBucket.class, bucket)) : download;
+                },
+                ticket -> Mono.fromRunnable(() -> release(ticket)),
+                (ticket, error) -> Mono.fromRunnable(() -> release(ticket)),
+                ticket -> Mono.fromRunnable(() -> release(ticket)));
+    }
+
+    /**
+     * 스케줄된 다운로드의 본문에 우선순위별 대역폭 제한을 적용합니다.
+     * 버퍼마다 토큰을 가져가고, 모자라면 그만큼 늦게 내보냅니다. 한 번에 버퍼 하나만 받아 두므로
+     * 나머지는 업스트림 TCP 흐름 제어로 늦춰집니다. 스케줄러 밖에서 구독하면 그대로 통과합니다.
+     */
+    static Flux<DataBuffer> throttle(Flux<DataBuffer> body) {
+        return Flux.deferContextual(ctx -> {
+            TokenBucket bucket = ctx.getOrDefault(TokenBucket.class, null);
+            if (bucket == null) {
+                return body;
+            }
+            return body.concatMap(buffer -> {
+                long waitNanos = bucket.reserve(buffer.readableByteCount());
+                if (waitNanos <= 0) {
+                    return Mono.just(buffer);
+                }
+                return Mono.delay(Duration.ofNanos(waitNanos))
+                        .thenReturn(buffer)
+                        .doOnCancel(() -> DataBufferUtils.release(buffer));
+            }, 1);
+        });
+    }
+
+    // =========================================================================
+    // Private: 대기열 / 자리 관리
+    // =========================================================================
+    private static Mono<Ticket> acquire(Priority priority, String host) {
+        return Mono.<Ticket>create(sink -> {
+                    Ticket ticket = new Ticket(priority, host, sink);
+                    sink.onCancel(() -> {
+                        synchronized (LOCK) {
+                            QUEUES.get(priority).remove(ticket);
+                        }
+                    });
+                    synchronized (LOCK) {
+                        QUEUES.get(priority).add(ticket);
+                    }
+                    dispatch();
+                })
+                // 허가와 취소가 엇갈려 전달되지 못한 자리는 바로 반납
+                .doOnDiscard(Ticket.class, DownloadScheduler::release);
+    }
+
+    private static void release(Ticket ticket) {
+        if (!ticket.released.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (LOCK) {
+            activeTotal--;
+            ACTIVE.merge(ticket.priority, -1, Integer::sum);
+            ACTIVE_BY_HOST.computeIfPresent(ticket.host, (host, count) -> count > 1 ? count - 1 : null);
+        }
+        dispatch();
+    }
+
+    /**
+     * 우선순위 순으로 대기열을 훑어 시작할 수 있는 다운로드에 자리를 줍니다.
+     * 호스트 제한에 걸린 다운로드는 건너뛰고 다음 다운로드를 봅니다. (한 호스트가 대기열 전체를 막지 않도록)
+     */
+    private static void dispatch() {
+        List<Ticket> granted = new ArrayList<>();
+        synchronized (LOCK) {
+            for (Priority priority : Priority.values()) {
+                int limit = priority == Priority.INTERACTIVE ? maxConcurrent : maxConcurrent - interactiveReserved;
+                Iterator<Ticket> iterator = QUEUES.get(priority).iterator();
+                while (iterator.hasNext() && activeTotal < maxConcurrent && ACTIVE.get(priority) < limit) {
+                    Ticket ticket = iterator.next();
+                    if (ACTIVE_BY_HOST.getOrDefault(ticket.host, 0) >= maxPerHost) {
+                        continue;
+                    }
+                    iterator.remove();
+                    activeTotal++;
+                    ACTIVE.merge(priority, 1, Integer::sum);
+                    ACTIVE_BY_HOST.merge(ticket.host, 1, Integer::sum);
+                    granted.add(ticket);
+                }
+            }
+        }
+        // 구독자 콜백은 LOCK 밖에서 호출
+        for (Ticket ticket : granted) {
+            long waitNanos = System.nanoTime() - ticket.enqueuedNanos;
+            ClientMetrics.downloadQueueWait(ticket.priority.tag(), waitNanos);
+            log.debug("다운로드 시작: priority={}, host={}, 대기 {}ms", ticket.priority, ticket.host, waitNanos / 1_000_000);
+            ticket.sink.success(ticket);
+        }
+    }
+
+    private static void putBucket(Map<Priority, TokenBucket> buckets, Priority priority, long bytesPerSecond) {
+        if (bytesPerSecond > 0) {
+            buckets.put(priority, new TokenBucket(bytesPerSecond));
+        }
+    }
+}
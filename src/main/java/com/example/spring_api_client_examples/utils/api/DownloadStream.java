@@ -0,0 +1,133 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * 디스크를 거치지 않고 업스트림 응답 본문을 호출자에게 그대로 중계하는 패스스루 다운로드입니다.
+ * 헤더는 이미 받은 상태이며 본문은 transferTo()를 호출할 때 비로소 읽기 시작합니다.
+ * transferTo()는 호출 스레드에서 블로킹으로 동작하므로 StreamingResponseBody 같은 서블릿 비동기 스레드에서 사용하세요.
+ */
+@Slf4j
+public class DownloadStream {
+
+    // 출력 스트림에 쓰기 전에 미리 받아 둘 버퍼 수 (느린 클라이언트에서도 메모리 사용을 이 개수로 제한)
+    private static final int PREFETCH = 4;
+
+    @Getter
+    private final HttpHeaders headers;
+    private final Flux<DataBuffer> body;
+    // 함께 디스크에 저장할 경로 (null이면 저장하지 않음)
+    private final Path teePath;
+    private final MessageDigest teeDigest;
+    // 디스크 저장이 끝까지 완료되면 (해시, 저장한 바이트 수)로 호출 (해시가 없으면 null 전달)
+    private final BiConsumer<String, Long> teeCompleted;
+    private final AtomicBoolean consumed = new AtomicBoolean();
+
+    DownloadStream(HttpHeaders headers, Flux<DataBuffer> body, Path teePath, MessageDigest teeDigest,
+                   BiConsumer<String, Long> teeCompleted) {
+        this.headers = headers;
+        this.body = body;
+        this.teePath = teePath;
+        this.teeDigest = teeDigest;
+        this.teeCompleted = teeCompleted;
+    }
+
+    /**
+     * 본문을 출력 스트림으로 흘려보냅니다.
+     * 한 번에 PREFETCH개 버퍼만 미리 요청하고 쓰기가 끝난 만큼만 더 요청합니다(backpressure).
+     * 클라이언트가 연결을 끊어 쓰기가 실패하면 구독을 취소하여 업스트림 전송도 중단합니다.
+     * @return 중계한 바이트 수
+     */
+    public long transferTo(OutputStream out) throws IOException {
+        if (!consumed.compareAndSet(false, true)) {
+            throw new IllegalStateException("본문은 한 번만 읽을 수 있습니다.");
+        }
+        WritableByteChannel outChannel = Channels.newChannel(out);
+        long transferred = 0;
+        boolean completed = false;
+        // toStream(prefetch): 소비한 만큼만 추가로 요청하는 블로킹 스트림. close()하면 업스트림 구독이 취소됩니다.
+        // 취소 시 미리 받아 둔 버퍼는 discard 훅으로 해제합니다.
+        try (Stream<DataBuffer> buffers = body
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .toStream(PREFETCH);
+             FileChannel tee = teePath != null
+                     ? FileChannel.open(teePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                     : null) {
+            Iterator<DataBuffer> iterator = buffers.iterator();
+            while (iterator.hasNext()) {
+                DataBuffer buffer = iterator.next();
+                try {
+                    transferred += write(buffer, outChannel, tee);
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+            }
+            out.flush();
+            completed = true;
+        } finally {
+            if (teePath != null && !completed) {
+                // 중간에 끊긴 사본은 남기지 않음
+                Files.deleteIfExists(teePath);
+            }
+        }
+        log.info("패스스루 다운로드 완료: {} bytes{}", transferred, teePath != null ? ", 사본: " + teePath : "");
+        if (teePath != null) {
+            teeCompleted.accept(teeDigest != null ? ContentStore.toHex(teeDigest) : null, transferred);
+        }
+        return transferred;
+    }
+
+    /**
+     * 본문을 읽지 않고 버릴 때 호출합니다. (업스트림 커넥션 반환)
+     */
+    public void discard() {
+        if (consumed.compareAndSet(false, true)) {
+            // 구독한 뒤 바로 취소하여 남은 본문을 받지 않고 커넥션을 닫습니다. (그 사이 받은 버퍼는 해제)
+            body.doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .subscribe(DataBufferUtils::release)
+                    .dispose();
+        }
+    }
+
+    private int write(DataBuffer buffer, WritableByteChannel out, FileChannel tee) throws IOException {
+        int length = buffer.readableByteCount();
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer byteBuffer = iterator.next();
+                if (tee != null) {
+                    ByteBuffer copy = byteBuffer.duplicate();
+                    while (copy.hasRemaining()) {
+                        tee.write(copy);
+                    }
+                }
+                if (teeDigest != null) {
+                    teeDigest.update(byteBuffer.duplicate());
+                }
+                while (byteBuffer.hasRemaining()) {
+                    out.write(byteBuffer);
+                }
+            }
+        }
+        return length;
+    }
+}
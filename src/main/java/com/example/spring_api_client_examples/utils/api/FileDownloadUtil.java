@@ -1,55 +1,238 @@
 package com.example.spring_api_client_examples.utils.api;
 
 
+import com.example.spring_api_client_examples.config.ApiClientProperties;
 import com.example.spring_api_client_examples.dto.FileMetaData;
 import com.example.spring_api_client_examples.utils.file.FileMetaDataExtractor;
+import com.example.spring_api_client_examples.utils.file.FileSignature;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
 import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 /**
  * WebClient를 사용하여 외부 API에서 파일을 다운로드하고 로컬 디스크에 저장하는 유틸리티입니다.
  * I/O 작업(스트리밍 및 저장)에 집중하며, 메타데이터 추출은 FileMetadataExtractor에 위임합니다.
+ * 서버가 Range를 지원하고 파일이 충분히 크면 여러 구간을 동시에 받아 하나의 파일에 위치 지정 쓰기로 합칩니다.
+ * Range를 지원하는 서버에서는 '.part' 파일과 진행 상태(PartialDownload)를 남겨, 실패 후 재시도나 다음 호출이 이어받습니다.
+ * 내용 주소 저장 모드에서는 같은 내용을 한 번만 저장하고(ContentStore), 이전에 받은 URL은 조건부 요청으로 재검증합니다.
+ * 저장 디렉토리는 StorageManager가 용량/파일 수 제한 안으로 유지합니다. (넘으면 LRU/LFU 순으로 정리)
  */
 @Slf4j
 public class FileDownloadUtil {
 
     //파일 저장 기본 경로 설정: 운영체제의 임시 데렉토리 아래 'app_downloads' 폴더를 사용
     //지금은 sample이지만 디렉토리내용은 OS에 의해 정기적으로 정리, 파일을 영구 저장소 (FFP/S3)등 이동시킨 후 삭제 해아 함
+    //용량/파일 수 제한을 넘으면 StorageManager가 오래된 파일부터 삭제함 (api.client.download.storage-quota 등)
     private static final Path STORAGE_ROOT_DIR = Paths.get(
             System.getProperty("java.io.tmpdir"),
             "downloads"
     );
+    // 받는 중인 '.part' 파일과 사이드카를 두는 디렉토리 (완료 시 STORAGE_ROOT_DIR로 이동)
+    private static final Path PARTIAL_DIR = STORAGE_ROOT_DIR.resolve(".partial");
+    // 내용 주소 저장소: objects/<SHA-256> 객체 + 저장 파일은 그 하드 링크
+    private static final ContentStore CONTENT_STORE = new ContentStore(STORAGE_ROOT_DIR.resolve("objects"));
+    // 저장 디렉토리 용량 관리 (용량/파일 수 제한, LRU/LFU 정리, 디스크 여유 공간 확인)
+    private static final StorageManager STORAGE = new StorageManager(STORAGE_ROOT_DIR, STORAGE_ROOT_DIR.resolve("objects"), PARTIAL_DIR);
+
+    // 저장 파일 조회 시 허용하는 이름 (저장 파일명: UUID[.확장자], 내용 해시: SHA-256 16진수)
+    private static final Pattern STORED_FILE_ID = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    // 같은 URL을 동시에 받을 때 같은 .part 파일을 함께 쓰지 않도록 진행 중인 URL을 기록
+    private static final Set<String> ACTIVE_PARTIALS = ConcurrentHashMap.newKeySet();
+
+    // 다운로드 설정 (ApiClientConfig에서 application.properties 값으로 덮어씀)
+    private static volatile boolean segmentedEnabled = true;
+    private static volatile int segments = 4;
+    private static volatile long minSegmentedSize = 8L * 1024 * 1024;
+    private static volatile boolean resumeEnabled = true;
+    private static volatile int resumeRetries = 2;
+    private static volatile Duration resumeBackoff = Duration.ofSeconds(1);
+    private static volatile long checkpointInterval = 4L * 1024 * 1024;
+    private static volatile boolean contentAddressed = true;
+    private static volatile long maxFileSize = 0;
+    private static volatile List<MediaType> allowedTypes = List.of();
 
     // FileDownloadResult record는 별도의 파일로 분리되었습니다.
 
+    public static void configure(ApiClientProperties.Download settings) {
+        segmentedEnabled = settings.isSegmentedEnabled();
+        segments = Math.max(1, settings.getSegments());
+        minSegmentedSize = settings.getMinSegmentedSize().toBytes();
+        resumeEnabled = settings.isResumeEnabled();
+        resumeRetries = Math.max(0, settings.getResumeRetries());
+        resumeBackoff = settings.getResumeBackoff();
+        checkpointInterval = settings.getCheckpointInterval().toBytes();
+        contentAddressed = settings.isContentAddressed();
+        maxFileSize = settings.getMaxFileSize().toBytes();
+        allowedTypes = settings.getAllowedTypes().stream().map(MediaType::parseMediaType).toList();
+        STORAGE.configure(settings);
+        log.info("파일 다운로드 설정 적용: segmentedEnabled={}, segments={}, minSegmentedSize={}, resumeEnabled={}, resumeRetries={}, checkpointInterval={}, contentAddressed={}, maxFileSize={}, allowedTypes={}, storageQuota={}, storageMaxFiles={}, evictionPolicy={}, minFreeSpace={}",
+                settings.isSegmentedEnabled(), settings.getSegments(), settings.getMinSegmentedSize(),
+                settings.isResumeEnabled(), settings.getResumeRetries(), settings.getCheckpointInterval(),
+                settings.isContentAddressed(), settings.getMaxFileSize(), allowedTypes, settings.getStorageQuota(), settings.getStorageMaxFiles(),
+                settings.getEvictionPolicy(), settings.getMinFreeSpace());
+        // 이전 실행에서 남은 파일로 용량 색인을 다시 만들고, 제한을 넘었으면 정리
+        STORAGE.rebuild();
+    }
+
+    /** 같은 내용의 객체가 이미 있어 디스크 쓰기를 생략한 다운로드 수 (내용 주소 저장 모드) */
+    public static long getDeduplicatedCount() {
+        return CONTENT_STORE.getDeduplicatedCount();
+    }
+
+    /** 304 재검증으로 전송 자체를 생략한 다운로드 수 (내용 주소 저장 모드) */
+    public static long getNotModifiedCount() {
+        return CONTENT_STORE.getNotModifiedCount();
+    }
+
+    /** 저장 디렉토리 사용량 (하드 링크는 한 번만 셈) */
+    public static long getStorageUsedBytes() {
+        return STORAGE.getUsedBytes();
+    }
+
+    /** 저장 디렉토리 파일 수 */
+    public static int getStorageFileCount() {
+        return STORAGE.getFileCount();
+    }
+
+    /** 저장 용량 제한 (0이면 제한 없음) */
+    public static long getStorageQuotaBytes() {
+        return STORAGE.getQuotaBytes();
+    }
+
+    /** 저장 디렉토리 파일 시스템의 사용 가능한 공간 (알 수 없으면 -1) */
+    public static long getStorageUsableSpace() {
+        return STORAGE.getUsableSpace();
+    }
+
+    /** 용량/파일 수 제한으로 정리한 수 */
+    public static long getStorageEvictionCount() {
+        return STORAGE.getEvictionCount();
+    }
+
     // =========================================================================
     // 핵심 다운로드 및 저장 로직
     // =========================================================================
 
     /**
-     * 파일을 다운로드하고 로컬 디스크에 저장합니다.
+     * 파일을 다운로드하고 로컬 디스크에 저장합니다. 이어받기 상태는 path를 기준으로 구분합니다.
      * @param webClient WebClient 인스턴스 (Base URL이 이미 설정되어 있어야 합니다.)
      * @param path 다운로드할 파일 경로
      * @return 파일 메타데이터와 최종 저장 경로를 담은 Mono
      */
     public static Mono<FileMetaData> downloadFile(WebClient webClient, String path){
-        // 1. 저장 디렉토리가 존재하는지 확인하고 없으면 생성하는 비동기 작업 정의
-        Mono<Void> ensureDirMono = Mono.fromRunnable(() -> {
+        return downloadFile(webClient, path, path);
+    }
+
+    /**
+     * 파일을 다운로드하고 로컬 디스크에 저장합니다. (INTERACTIVE 우선순위)
+     * @param webClient WebClient 인스턴스 (Base URL이 이미 설정되어 있어야 합니다.)
+     * @param resourceUrl 이어받기 상태를 구분하는 전체 URL (Base URL + path)
+     * @param path 다운로드할 파일 경로
+     * @return 파일 메타데이터와 최종 저장 경로를 담은 Mono
+     */
+    public static Mono<FileMetaData> downloadFile(WebClient webClient, String resourceUrl, String path){
+        return downloadFile(webClient, resourceUrl, path, DownloadScheduler.Priority.INTERACTIVE);
+    }
+
+    /**
+     * 파일을 다운로드하고 로컬 디스크에 저장합니다.
+     * 다운로드는 DownloadScheduler의 대기열을 거쳐 자리가 나면 시작하며, 우선순위의 대역폭 제한을 받습니다.
+     * @param priority 다운로드 우선순위 (작은 파일은 INTERACTIVE, 큰 파일은 BULK)
+     * @return 파일 메타데이터와 최종 저장 경로를 담은 Mono
+     */
+    public static Mono<FileMetaData> downloadFile(WebClient webClient, String resourceUrl, String path,
+                                                  DownloadScheduler.Priority priority){
+        // 1. 저장 디렉토리 확인 후, 2. 다음 Mono체인을 실행
+        return DownloadScheduler.schedule(priority, resourceUrl, ensureStorageDir().then(
+            // WebClient 호출부터 응답 처리까지 모든 로직을 downloadAndHandleResponse 메서드에 위임합니다.
+            downloadFileWithHandling(webClient, resourceUrl, path)
+        ));
+    }
+
+    /**
+     * 업스트림 응답 헤더만 받고, 본문은 DownloadStream.transferTo()에서 호출자에게 그대로 중계합니다. (패스스루)
+     * 본문은 디스크나 메모리에 모아 두지 않으며, 호출자가 읽는 속도에 맞춰 업스트림에서 읽어 옵니다.
+     * @param teeToDisk true면 중계하는 바이트를 동시에 디스크에도 저장 (끝까지 전달된 경우에만 남김)
+     * @return 헤더와 아직 읽지 않은 본문을 담은 Mono (응답 상태가 2xx가 아니면 WebClientResponseException)
+     */
+    public static Mono<DownloadStream> openStream(WebClient webClient, String resourceUrl, String path, boolean teeToDisk){
+        Mono<ResponseEntity<Flux<DataBuffer>>> upstream = webClient.get()
+                .uri(path)
+                .retrieve()
+                .toEntityFlux(DataBuffer.class);
+        if(!teeToDisk){
+            return upstream.map(response -> new DownloadStream(response.getHeaders(), response.getBody(), null, null, null));
+        }
+        return ensureStorageDir().then(upstream.map(response -> {
+            HttpHeaders headers = response.getHeaders();
             try {
-                if(!STORAGE_ROOT_DIR.toFile().exists()){ // 디렉토리가 비어있는지 확인
-                    STORAGE_ROOT_DIR.toFile().mkdirs(); // 디렉토리 생성
+                STORAGE.ensureSpace(Math.max(0, headers.getContentLength()));
+            } catch (StorageManager.StorageFullException e){
+                // 사본을 저장할 공간이 없어도 중계는 계속함
+                log.warn("저장 공간이 부족하여 사본 없이 중계합니다: {}", e.getMessage());
+                return new DownloadStream(headers, response.getBody(), null, null, null);
+            }
+            FileMetaData metaData = FileMetaDataExtractor.extract(headers, path);
+            Path teePath = STORAGE_ROOT_DIR.resolve(metaData.getSavedFileName());
+            // 내용 주소 저장 모드면 중계하면서 해시도 함께 계산
+            MessageDigest digest = contentAddressed ? ContentStore.newDigest() : null;
+            return new DownloadStream(headers, response.getBody(), teePath, digest,
+                    (hash, size) -> completeTee(teePath, metaData, resourceUrl, headers, hash, size));
+        }));
+    }
+
+    /**
+     * 저장된 파일을 찾습니다. savedFileName(다운로드 결과의 저장 파일명) 또는 contentHash(내용 주소 객체)로 찾을 수 있습니다.
+     * 경로 조작을 막기 위해 디렉토리 구분자나 '.'으로 시작하는 이름은 받지 않습니다.
+     * @return 파일 경로, 없으면 null
+     */
+    public static Path findStoredFile(String id){
+        if(id == null || !STORED_FILE_ID.matcher(id).matches()){
+            return null;
+        }
+        Path candidate = CONTENT_HASH.matcher(id).matches()
+                ? CONTENT_STORE.objectPath(id)
+                : STORAGE_ROOT_DIR.resolve(id);
+        if(!Files.isRegularFile(candidate)){
+            return null;
+        }
+        STORAGE.touch(candidate);
+        return candidate;
+    }
+
+    // 저장 디렉토리가 존재하는지 확인하고 없으면 생성하는 비동기 작업 정의
+    private static Mono<Void> ensureStorageDir(){
+        return Mono.fromRunnable(() -> {
+            try {
+                if(!PARTIAL_DIR.toFile().exists()){ // 디렉토리가 비어있는지 확인
+                    PARTIAL_DIR.toFile().mkdirs(); // 디렉토리 생성 (상위 STORAGE_ROOT_DIR 포함)
                     log.info("저장 디렉토리 생성 완료 : {}", STORAGE_ROOT_DIR.toAbsolutePath());
                 }
             }catch (Exception e){
@@ -57,86 +240,475 @@ public class FileDownloadUtil {
                 throw new RuntimeException("저장 디렉토리 생성 실패", e);
             }
         });
-        // 2. 디렉토리 생성 완료 후, 다음 Mono체인을 실행
-        return ensureDirMono.then(
-            // WebClient 호출부터 응답 처리까지 모든 로직을 downloadAndHandleResponse 메서드에 위임합니다.
-            downloadFileWithHandling(webClient, path)
-        );
+    }
+
+    // 패스스루 사본 저장이 끝까지 완료되었을 때: 내용 주소 저장 모드면 저장소로 옮기고 색인 갱신
+    private static void completeTee(Path teePath, FileMetaData metaData, String resourceUrl, HttpHeaders headers,
+                                    String digest, long size){
+        metaData.setFileSize(size);
+        Mono<FileMetaData> result = digest != null
+                ? storeContent(teePath, metaData, resourceUrl, headers, digest, null)
+                : buildFileDownloadResultMono(teePath, metaData);
+        result.subscribe(
+                saved -> log.info("패스스루 사본 저장 완료: {}", saved.getSavedPath()),
+                e -> log.warn("패스스루 사본 저장 실패: {}", e.getMessage()));
     }
 
     /**
      * WebClient 호출, 응답 처리 및 네트워크 오류를 처리하는 통합 파이프라인입니다.
+     * 구간 분할이나 이어받기가 켜져 있으면 먼저 남아 있는 .part 파일을 이어받고, 없으면
+     * 'Range: bytes=0-0' 요청으로 Range 지원 여부와 전체 크기를 확인합니다.
+     * 서버가 Range를 무시하고 200으로 전체 본문을 보내면 그 응답을 그대로 저장하므로 추가 요청은 없습니다.
      */
-    private static Mono<FileMetaData> downloadFileWithHandling(WebClient webClient, String path){
-       return webClient.get()
+    private static Mono<FileMetaData> downloadFileWithHandling(WebClient webClient, String resourceUrl, String path){
+        Mono<FileMetaData> download = Mono.defer(() -> {
+            // 내용 주소 저장 모드에서 이전에 받은 URL이면 조건부 요청으로 변경 여부만 확인
+            ContentStore.IndexEntry known = contentAddressed ? CONTENT_STORE.lookup(resourceUrl) : null;
+            return known != null
+                    ? revalidateStored(webClient, resourceUrl, path, known)
+                    : transfer(webClient, resourceUrl, path);
+        });
+        return download
+                .onErrorResume(e -> {
+                    log.error("네트워크 오류 또는 예상치 못한 예외 발생: {}", e.getMessage());
+                    // 새로운 RuntimeException을 Mono에 담아 상위 호출자에게 실패를 알립니다.
+                    return Mono.error(new RuntimeException("파일 다운로드 실패: " + e.getMessage()));
+                });
+    }
+
+    private static Mono<FileMetaData> transfer(WebClient webClient, String resourceUrl, String path){
+        Mono<FileMetaData> download;
+        if(!segmentedEnabled && !resumeEnabled){
+            download = downloadSingleStream(webClient, resourceUrl, path);
+        } else {
+            download = Mono.defer(() -> {
+                if(!ACTIVE_PARTIALS.add(resourceUrl)){
+                    log.info("같은 파일을 이미 받는 중이므로 이어받기 없이 단일 스트림으로 받습니다: {}", resourceUrl);
+                    return downloadSingleStream(webClient, resourceUrl, path);
+                }
+                // 재시도는 디스크에 저장된 진행 상태를 다시 읽어 남은 부분만 요청합니다. (응답 4xx는 재시도하지 않음)
+                return resumeOrStart(webClient, resourceUrl, path)
+                        .retryWhen(Retry.backoff(resumeEnabled ? resumeRetries : 0, resumeBackoff)
+                                .filter(FileDownloadUtil::isResumable)
+                                .doBeforeRetry(signal -> log.warn("다운로드 재시도 ({}회차): {}",
+                                        signal.totalRetries() + 1, signal.failure().getMessage()))
+                                .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                        .doFinally(signal -> ACTIVE_PARTIALS.remove(resourceUrl));
+            });
+        }
+        return download;
+    }
+
+    /**
+     * 이전에 받은 URL을 If-None-Match / If-Modified-Since로 요청합니다.
+     * 304면 본문 전송 없이 기존 객체를 링크하고, 200이면 그 응답을 새로 저장합니다.
+     */
+    private static Mono<FileMetaData> revalidateStored(WebClient webClient, String resourceUrl, String path,
+                                                       ContentStore.IndexEntry known){
+        return webClient.get()
                 .uri(path)
+                .headers(headers -> {
+                    if(known.getEtag() != null){
+                        headers.setIfNoneMatch(known.getEtag());
+                    }
+                    if(known.getLastModified() != null){
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, known.getLastModified());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if(response.statusCode().value() == 304){
+                        CONTENT_STORE.recordNotModified();
+                        log.info("변경 없음(304), 저장된 객체 재사용: {} → {}", resourceUrl, known.getDigest());
+                        return response.releaseBody().then(Mono.defer(() -> linkStored(known, path)));
+                    }
+                    return handleFullResponse(response, resourceUrl, path);
+                });
+    }
+
+    private static Mono<FileMetaData> linkStored(ContentStore.IndexEntry known, String path){
+        FileMetaData metaData = FileMetaDataExtractor.extract(known.headers(), path);
+        FileMetaDataExtractor.applySignature(metaData, known.getSignature());
+        Path savedPath = CONTENT_STORE.link(CONTENT_STORE.objectPath(known.getDigest()),
+                STORAGE_ROOT_DIR.resolve(metaData.getSavedFileName()));
+        metaData.setContentHash(known.getDigest());
+        metaData.setFileSize(known.getSize());
+        STORAGE.register(CONTENT_STORE.objectPath(known.getDigest()), known.getSize(), known.getDigest());
+        return buildFileDownloadResultMono(savedPath, metaData);
+    }
+
+    /**
+     * 기존 방식: 한 번의 GET으로 전체 파일을 받아 저장합니다.
+     */
+    private static Mono<FileMetaData> downloadSingleStream(WebClient webClient, String resourceUrl, String path){
+        return webClient.get()
+                .uri(path)
+                .exchangeToMono(response -> handleFullResponse(response, resourceUrl, path));
+    }
+
+    private static Mono<FileMetaData> handleFullResponse(ClientResponse response, String resourceUrl, String path){
+        if(!response.statusCode().is2xxSuccessful()){
+            log.error("파일 다운로드 실패. HTTP 상태 : {}", response.statusCode());
+            // response.createException(): HTTP 상태 코드에 맞는 WebClientException (예: HttpClientErrorException)을 생성합니다.
+            return response.createException().flatMap(Mono::error);
+        }
+        //2. 스트리밍 및 저장 로직을 다움 메서드로 위임함
+        return processStreamingAndSave(response, resourceUrl, path);
+    }
+
+    // =========================================================================
+    // 구간(Range) 다운로드: 구간 분할 + 이어받기
+    // =========================================================================
+
+    /**
+     * 이전 시도의 .part 파일이 있으면 남은 구간만 받고, 없으면 프로브부터 시작합니다.
+     * 그사이 서버의 파일이 바뀌었으면(If-Range 불일치) 상태를 버리고 처음부터 받습니다.
+     */
+    private static Mono<FileMetaData> resumeOrStart(WebClient webClient, String resourceUrl, String path){
+        return Mono.defer(() -> {
+            PartialDownload state = resumeEnabled ? PartialDownload.load(PARTIAL_DIR, resourceUrl) : null;
+            if(state == null){
+                return probeAndDownload(webClient, resourceUrl, path);
+            }
+            log.info("이어받기: {} ({} / {} bytes 완료)", resourceUrl, state.bytesWritten(), state.getTotalSize());
+            return downloadRanges(webClient, resourceUrl, path, state)
+                    .onErrorResume(ResumeRejectedException.class, e -> {
+                        log.info("서버의 파일이 바뀌어 처음부터 다시 받습니다: {}", e.getMessage());
+                        state.discard();
+                        return probeAndDownload(webClient, resourceUrl, path);
+                    });
+        });
+    }
+
+    private static Mono<FileMetaData> probeAndDownload(WebClient webClient, String resourceUrl, String path){
+        return webClient.get()
+                .uri(path)
+                .header(HttpHeaders.RANGE, "bytes=0-0")
+                .exchangeToMono(response -> {
+                    int status = response.statusCode().value();
+                    if(status == 206){
+                        // 1바이트 본문은 버리고, 헤더(Content-Range의 전체 크기)로 구간을 나눕니다.
+                        HttpHeaders probeHeaders = response.headers().asHttpHeaders();
+                        return response.releaseBody().then(startRangedDownload(webClient, resourceUrl, path, probeHeaders));
+                    }
+                    if(status == 416){
+                        // 빈 파일 등 Range를 만족할 수 없는 경우: Range 없이 다시 요청
+                        return response.releaseBody().then(downloadSingleStream(webClient, resourceUrl, path));
+                    }
+                    // Range를 지원하지 않는 서버(200): 이어받기도 불가능하므로 받은 본문을 그대로 저장
+                    return handleFullResponse(response, resourceUrl, path);
+                });
+    }
+
+    /**
+     * 전체 크기가 기준 이상이면 N개 구간으로, 아니면 하나의 구간으로 .part 파일에 받습니다.
+     */
+    private static Mono<FileMetaData> startRangedDownload(WebClient webClient, String resourceUrl, String path, HttpHeaders probeHeaders){
+        long totalSize = parseContentRange(probeHeaders.getFirst(HttpHeaders.CONTENT_RANGE))[1];
+        if(totalSize < 0){
+            log.debug("전체 크기를 알 수 없어 단일 스트림으로 받습니다: {}", resourceUrl);
+            return downloadSingleStream(webClient, resourceUrl, path);
+        }
+        try {
+            // 전체 크기를 알고 있으므로 본문을 받기 전에 최대 크기와 저장 공간을 확인
+            newInspector(probeHeaders).checkExpectedSize(totalSize);
+            STORAGE.ensureSpace(totalSize);
+        } catch (DownloadInspector.DownloadRejectedException | StorageManager.StorageFullException e){
+            return Mono.error(e);
+        }
+        boolean split = segmentedEnabled && segments > 1 && totalSize >= minSegmentedSize;
+        List<long[]> ranges = split ? splitRanges(totalSize, segments) : splitRanges(totalSize, 1);
+        PartialDownload state = PartialDownload.create(PARTIAL_DIR, resourceUrl, probeHeaders, totalSize, ranges);
+        log.info("구간 다운로드 시작: {} bytes, {}개 구간, If-Range={}", totalSize, ranges.size(), state.validator());
+        return downloadRanges(webClient, resourceUrl, path, state);
+    }
+
+    /**
+     * 남은 구간을 동시에 받아 .part 파일의 각 위치에 쓰고, 모두 끝나면 최종 경로로 원자적으로 이동합니다.
+     * 실패하면 이어받기 상태를 저장하고 .part 파일을 남겨 둡니다. (이어받기를 끄면 삭제)
+     */
+    private static Mono<FileMetaData> downloadRanges(WebClient webClient, String resourceUrl, String path, PartialDownload state){
+        List<PartialDownload.Segment> remaining = state.incompleteSegments();
+        // 첫 구간을 처음부터 받을 때만 첫 버퍼로 형식을 판별 (이어받기로 앞부분이 이미 디스크에 있으면 헤더 기준)
+        DownloadInspector inspector = newInspector(state.headers());
+        return Mono.using(
+                        () -> {
+                            if(resumeEnabled){
+                                state.save(); // 검증자와 구간 정보를 먼저 기록
+                            }
+                            return state.openChannel();
+                        },
+                        channel -> Flux.fromIterable(remaining)
+                                .flatMap(segment -> downloadSegment(webClient, path, state, channel, segment, inspector), Math.max(1, remaining.size()))
+                                .then(),
+                        FileDownloadUtil::closeQuietly
+                )
+                // 파일 생성/크기 지정은 블로킹 I/O이므로 이벤트 루프가 아닌 스레드에서 수행
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.defer(() -> completeRangedDownload(state, inspector, resourceUrl, path)))
+                .doOnError(e -> {
+                    if(resumeEnabled && !(e instanceof ResumeRejectedException) && !(e instanceof DownloadInspector.DownloadRejectedException)){
+                        state.save();
+                        log.warn("다운로드 중단, 이어받기 상태 저장 ({} / {} bytes): {}", state.bytesWritten(), state.getTotalSize(), e.getMessage());
+                    } else {
+                        state.discard();
+                    }
+                });
+    }
+
+    /**
+     * 한 구간의 남은 부분을 'Range: bytes=N-end' + If-Range로 요청하여 .part 파일의 해당 위치부터 씁니다.
+     */
+    private static Mono<Void> downloadSegment(WebClient webClient, String path, PartialDownload state,
+                                              AsynchronousFileChannel channel, PartialDownload.Segment segment,
+                                              DownloadInspector inspector){
+        long from = segment.nextOffset();
+        String range = "bytes=" + from + "-" + (segment.getEnd() >= 0 ? String.valueOf(segment.getEnd()) : "");
+        String validator = state.validator();
+        return webClient.get()
+                .uri(path)
+                .headers(headers -> {
+                    headers.set(HttpHeaders.RANGE, range);
+                    if(validator != null){
+                        headers.set(HttpHeaders.IF_RANGE, validator);
+                    }
+                })
                 .exchangeToMono(response -> {
                     if(!response.statusCode().is2xxSuccessful()){
-                        log.error("파일 다운로드 실패. HTTP 상태 : {}", response.statusCode());
-                        // response.createException(): HTTP 상태 코드에 맞는 WebClientException (예: HttpClientErrorException)을 생성합니다.
                         return response.createException().flatMap(Mono::error);
                     }
-                    //2. 스트리밍 및 저장 로직을 다움 메서드로 위임함
-                    return processStreamingAndSave(response, path);
-                })
-                .onErrorResume(e -> {
-                    log.error("네트워크 오류 또는 예상치 못한 예외 발생: {}", e.getMessage());
-                    // 새로운 RuntimeException을 Mono에 담아 상위 호출자에게 실패를 알립니다.
-                    return Mono.error(new RuntimeException("파일 다운로드 실패: " + e.getMessage()));
+                    long rangeStart = parseContentRange(response.headers().asHttpHeaders().getFirst(HttpHeaders.CONTENT_RANGE))[0];
+                    if(response.statusCode().value() != 206 || rangeStart != from){
+                        // If-Range 불일치(파일 변경) 시 서버는 200 전체 응답을 보냅니다. 다른 버전과 섞지 않도록 중단
+                        return response.releaseBody().then(Mono.<Void>error(new ResumeRejectedException(
+                                "구간 응답이 아닙니다: " + response.statusCode() + ", " + range)));
+                    }
+                    Flux<DataBuffer> body = DownloadScheduler.throttle(response.bodyToFlux(DataBuffer.class));
+                    if(from == 0){
+                        body = inspector.inspect(body);
+                    }
+                    return writeSegment(body, channel, state, segment)
+                            .then(Mono.defer(() -> segment.isComplete() || segment.getEnd() < 0
+                                    ? Mono.<Void>empty()
+                                    : Mono.<Void>error(new IOException("구간을 끝까지 받지 못했습니다: " + range
+                                            + ", 다음 위치=" + segment.nextOffset()))));
                 });
     }
 
-    private static Mono<FileMetaData> processStreamingAndSave(ClientResponse response, String path) {
+    /**
+     * 버퍼를 하나씩 현재 위치에 쓰고, 쓰기가 끝난 만큼만 진행 상태에 반영합니다.
+     * (진행 상태에는 실제로 디스크에 기록된 바이트만 남으므로 이어받을 때 빈 구간이 생기지 않음)
+     */
+    private static Mono<Void> writeSegment(Flux<DataBuffer> body, AsynchronousFileChannel channel,
+                                           PartialDownload state, PartialDownload.Segment segment){
+        return body.concatMap(buffer -> Mono.defer(() -> {
+                    int length = buffer.readableByteCount();
+                    return DataBufferUtils.write(Mono.just(buffer), channel, segment.nextOffset())
+                            .doOnNext(DataBufferUtils::release)
+                            .then(Mono.fromRunnable(() -> {
+                                if(state.advance(segment, length) >= checkpointInterval && resumeEnabled){
+                                    state.save(); // 주기적으로 체크포인트를 남겨 프로세스가 죽어도 이어받을 수 있게 함
+                                }
+                            }));
+                }))
+                .then();
+    }
+
+    private static Mono<FileMetaData> completeRangedDownload(PartialDownload state, DownloadInspector inspector,
+                                                             String resourceUrl, String path){
+        FileMetaData metaData = FileMetaDataExtractor.extract(state.headers(), path);
+        FileMetaDataExtractor.applySignature(metaData, inspector.getSignature());
+        metaData.setFileSize(state.getTotalSize());
+        Path finalPath = STORAGE_ROOT_DIR.resolve(metaData.getSavedFileName());
+        try {
+            state.moveTo(finalPath);
+        } catch (IOException e){
+            return Mono.error(e);
+        }
+        if(!contentAddressed){
+            return buildFileDownloadResultMono(finalPath, metaData);
+        }
+        // 구간은 순서 없이 도착하므로 완성된 파일을 한 번 더 읽어 해시를 계산합니다. (블로킹 I/O)
+        return Mono.fromCallable(() -> ContentStore.hashFile(finalPath))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(digest -> storeContent(finalPath, metaData, resourceUrl, state.headers(), digest, inspector.getSignature()));
+    }
+
+    // 응답 상태 코드 4xx(없는 파일, 권한 등)나 버전 변경은 같은 요청을 반복해도 소용없으므로 재시도하지 않습니다.
+    private static boolean isResumable(Throwable e){
+        if(e instanceof ResumeRejectedException || e instanceof StorageManager.StorageFullException
+                || e instanceof DownloadInspector.DownloadRejectedException){
+            return false;
+        }
+        return !(e instanceof WebClientResponseException responseException
+                && responseException.getStatusCode().is4xxClientError());
+    }
+
+    // 'bytes 0-0/12345' 형식에서 [시작 위치, 전체 크기]를 꺼냅니다. 알 수 없는 값('*' 또는 형식 오류)은 -1
+    private static long[] parseContentRange(String contentRange){
+        long[] parsed = {-1, -1};
+        if(contentRange == null){
+            return parsed;
+        }
+        String value = contentRange.trim();
+        int space = value.indexOf(' ');
+        int dash = value.indexOf('-');
+        int slash = value.lastIndexOf('/');
+        try {
+            if(space >= 0 && dash > space){
+                parsed[0] = Long.parseLong(value.substring(space + 1, dash).trim());
+            }
+        } catch (NumberFormatException ignored){
+            // '*' 등: 시작 위치 없음
+        }
+        try {
+            if(slash >= 0){
+                parsed[1] = Long.parseLong(value.substring(slash + 1).trim());
+            }
+        } catch (NumberFormatException ignored){
+            // '*': 전체 크기 미상
+        }
+        return parsed;
+    }
+
+    // 전체 크기를 segmentCount개 구간 [start, end]로 나눕니다. (마지막 구간이 나머지를 가짐)
+    private static List<long[]> splitRanges(long totalSize, int segmentCount){
+        long segmentSize = Math.max(1, (totalSize + segmentCount - 1) / segmentCount);
+        List<long[]> ranges = new ArrayList<>(segmentCount);
+        for(long start = 0; start < totalSize; start += segmentSize){
+            ranges.add(new long[]{start, Math.min(start + segmentSize, totalSize) - 1});
+        }
+        return ranges;
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel){
+        try {
+            channel.close();
+        } catch (IOException e){
+            log.warn("파일 채널 닫기 실패: {}", e.getMessage());
+        }
+    }
+
+    // 서버의 파일이 바뀌어 지금까지 받은 부분을 이어 쓸 수 없음을 나타냅니다.
+    static final class ResumeRejectedException extends RuntimeException {
+        ResumeRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    private static Mono<FileMetaData> processStreamingAndSave(ClientResponse response, String resourceUrl, String path) {
 
         //1. 메타 데이터 추출
         HttpHeaders headers = response.headers().asHttpHeaders(); // 응답 헤더 객체를 Spring HttpHeaders로 변환
         FileMetaData metaData = FileMetaDataExtractor.extract(headers, path);
 
-        //2.최종 저장 경로 결정 Path.resolve()로 경로 결합
-        Path finalPath = STORAGE_ROOT_DIR.resolve(metaData.getSavedFileName());
+        //2. 본문을 받기 전 확인: Content-Length가 최대 크기를 넘으면 바로 중단, 저장 공간 확보
+        DownloadInspector inspector = newInspector(headers);
+        try {
+            inspector.checkExpectedSize(headers.getContentLength());
+            // 크기를 알면 그만큼, 모르면 최소 여유 공간만 확인 (부족하면 오래된 파일 정리)
+            STORAGE.ensureSpace(Math.max(0, headers.getContentLength()));
+        } catch (DownloadInspector.DownloadRejectedException | StorageManager.StorageFullException e){
+            return response.releaseBody().then(Mono.error(e));
+        }
 
         //3.응답 본문을 DataBuffer 스트림으로 가져옴
-        Flux<DataBuffer> dataBufferFlux = response.bodyToFlux(DataBuffer.class);
+        //  (스케줄러가 정한 우선순위별 대역폭 제한 적용 → 바이트 수 / 형식 판별 / 크기·형식 제한 검사)
+        Flux<DataBuffer> dataBufferFlux = inspector.inspect(DownloadScheduler.throttle(response.bodyToFlux(DataBuffer.class)));
 
+        // 내용 주소 저장 모드: 디스크에 쓰기 전에 각 버퍼를 SHA-256에 반영 (파일을 다시 읽지 않음)
+        MessageDigest digest = contentAddressed ? ContentStore.newDigest() : null;
+        if(digest != null){
+            dataBufferFlux = dataBufferFlux.doOnNext(buffer -> ContentStore.update(digest, buffer));
+        }
+
+        // 4. 첫 버퍼가 검사를 통과해 형식이 정해진 뒤에 저장 경로(확장자)를 결정하고 쓰기 시작합니다.
+        //    switchOnFirst는 첫 버퍼를 포함한 전체 스트림을 그대로 넘기므로 다시 받거나 파일 이름을 바꿀 필요가 없습니다.
         // DataBufferUtils.write(...)로 시작하는 I/O 체이닝을 .
-        // 4. 추출된 Mono<FileMetaData>를 리턴합니다.
-        return DataBufferUtils.write(
-                        dataBufferFlux, //다운로드된 데이터 스트림(파일)
-                        finalPath, //데이터 저장 경로
-                        StandardOpenOption.CREATE, //파일 없을시 생성
-                        StandardOpenOption.TRUNCATE_EXISTING //파일이 있으면 내용 덮어씀
-                )// .then(): 이전 I/O 작업(Mono<Void>) 반환
-                // .then(): 이전 I/O 작업(Mono<Void>) 완료 후 다음 Mono(Mono<FileMetaData>)를 실행합니다.
-                .then(buildFileDownloadResultMono(finalPath, metaData))
+        // 5. 추출된 Mono<FileMetaData>를 리턴합니다.
+        return dataBufferFlux
+                .switchOnFirst((first, body) -> {
+                    FileMetaDataExtractor.applySignature(metaData, inspector.getSignature());
+                    return DataBufferUtils.write(
+                            body, //다운로드된 데이터 스트림(파일)
+                            STORAGE_ROOT_DIR.resolve(metaData.getSavedFileName()), //데이터 저장 경로
+                            StandardOpenOption.CREATE, //파일 없을시 생성
+                            StandardOpenOption.TRUNCATE_EXISTING //파일이 있으면 내용 덮어씀
+                    );
+                })
+                // .then(): 이전 I/O 작업 완료 후 다음 Mono(Mono<FileMetaData>)를 실행합니다.
+                .then(Mono.defer(() -> {
+                    Path finalPath = STORAGE_ROOT_DIR.resolve(metaData.getSavedFileName());
+                    // 파일 크기는 흘러간 바이트 수 (파일을 다시 조회하지 않음)
+                    metaData.setFileSize(inspector.getBytes());
+                    return digest != null
+                            ? storeContent(finalPath, metaData, resourceUrl, headers, ContentStore.toHex(digest), inspector.getSignature())
+                            : buildFileDownloadResultMono(finalPath, metaData);
+                }))
                 .onErrorResume(e -> {
                     log.error("스트리밍 저장 중 오류 발생: {}", e.getMessage());
+                    if(e instanceof DownloadInspector.DownloadRejectedException){
+                        // 제한에 걸려 중단된 파일은 남기지 않음
+                        deleteQuietly(STORAGE_ROOT_DIR.resolve(metaData.getSavedFileName()));
+                    }
                     return Mono.error(e);
                 });
     }
 
     /**
-     * 파일 쓰기(I/O)가 완료된 후, 파일 크기를 측정하고 최종 FileMetaData DTO를 완성하는 Mono를 만듭니다.
+     * 받은 파일을 내용 주소 저장소로 옮기고(같은 내용이 있으면 재사용) 저장 파일을 객체의 하드 링크로 바꿉니다.
+     * URL 색인도 이번 응답의 검증자로 갱신합니다.
+     * @param signature 본문으로 판별한 형식 (304 재사용 시 같은 확장자로 링크하기 위해 색인에 보관, 모르면 null)
+     */
+    private static Mono<FileMetaData> storeContent(Path downloaded, FileMetaData metaData, String resourceUrl,
+                                                   HttpHeaders headers, String digest, FileSignature signature){
+        try {
+            Path savedPath = CONTENT_STORE.store(downloaded, digest);
+            CONTENT_STORE.remember(resourceUrl, headers, digest, metaData.getFileSize(), signature);
+            metaData.setContentHash(digest);
+            STORAGE.register(CONTENT_STORE.objectPath(digest), metaData.getFileSize(), digest);
+            return buildFileDownloadResultMono(savedPath, metaData);
+        } catch (IOException e){
+            log.error("내용 주소 저장 실패 : {}", downloaded, e);
+            return Mono.error(new RuntimeException("내용 주소 저장 실패: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 파일 쓰기(I/O)가 완료된 후 최종 FileMetaData DTO를 완성하는 Mono를 만듭니다.
+     * 파일 크기(fileSize)는 다운로드 중에 센 값이 이미 채워져 있어야 합니다.
      */
     private static Mono<FileMetaData> buildFileDownloadResultMono(Path finalPath, FileMetaData metaData){
-        // Mono.defer: I/O가 완료될 때까지 Files.size() 호출을 지연시킵니다.
-        return Mono.defer(() -> {
-            try {
-                //1. 파일크기 측정 경로에있는 파일을 통해 측정함.
-                long fileSize = Files.size(finalPath);
-                log.info("파일 다운로드 및 저장 완료 크기: {} bytes", fileSize);
-
-                //2. DTO에 최종 정보(savePath와 fileSize)를 Setter로 채워 넣음
-                metaData.setSavedPath(finalPath);
-                metaData.setFileSize(fileSize);
-
-                //3. 완성된 DTO를 Mono에 담아 반환
-                return Mono.just(metaData);
-            } catch (IOException e){
-                //파일 크기 측정 실패는 중요 오류 체인을 종료
-                log.error("파일 크기 측정 실패 : {}", finalPath, e);
-                return Mono.error(new RuntimeException("파일 크기 측정 실패"));
-            }
+        return Mono.fromSupplier(() -> {
+            log.info("파일 다운로드 및 저장 완료 크기: {} bytes, 형식: {}", metaData.getFileSize(), metaData.getContentType());
+
+            //1. DTO에 최종 정보(savePath)를 Setter로 채워 넣음
+            metaData.setSavedPath(finalPath);
+            //2. 용량 색인에 등록 (제한을 넘으면 다른 파일 정리)
+            STORAGE.register(finalPath, metaData.getFileSize(), metaData.getContentHash());
+
+            //3. 완성된 DTO를 반환
+            return metaData;
         });
     }
 
+    // 현재 설정(최대 크기, 허용 형식)으로 다운로드 한 건의 검사 단계를 만듭니다.
+    private static DownloadInspector newInspector(HttpHeaders headers){
+        MediaType declaredType;
+        try {
+            declaredType = headers.getContentType();
+        } catch (InvalidMediaTypeException e){
+            declaredType = null;
+        }
+        return new DownloadInspector(maxFileSize, allowedTypes, declaredType);
+    }
+
+    // 중단된 다운로드의 잔여 파일 정리
+    private static void deleteQuietly(Path path){
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e){
+            log.warn("파일 삭제 실패: {}", path, e);
+        }
+    }
+
 }
@@ -1,26 +1,110 @@
 package com.example.spring_api_client_examples.utils.api;
 
+import com.example.spring_api_client_examples.config.ApiClientProperties;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 public class HttpClientUtil {
 
     // [핵심 설정] Jackson ObjectMapper 사용 및 설정
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-    private static final HttpClient CLIENT = HttpClient.newBuilder()
+    private static final String CLIENT = ClientMetrics.HTTP_CLIENT;
+    private static volatile HttpClient client = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(5)).build();
+    // configure()로 생성한 Executor (종료 시 정리 대상)
+    private static volatile ExecutorService ownedExecutor;
+
+    // =========================================================================
+    // 0. HttpClient 설정 (sendAsync 응답 처리 Executor, HTTP 버전)
+    // =========================================================================
+    /**
+     * 설정에 맞는 Executor와 HTTP 버전으로 HttpClient를 다시 만듭니다.
+     * sendAsync의 응답 처리(파싱 포함)는 이 Executor에서 실행됩니다.
+     */
+    public static synchronized void configure(ApiClientProperties.HttpClient settings) {
+        ExecutorService executor = createExecutor(settings);
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(settings.getConnectTimeout())
+                .version(version(settings.getHttp2()));
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        client = builder.build();
+
+        ExecutorService previous = ownedExecutor;
+        ownedExecutor = executor;
+        if (previous != null) {
+            previous.shutdown();
+        }
+        log.info("HttpClient 설정 적용: executor={}, protocol={}", settings.getExecutor(), settings.getHttp2().getMode());
+    }
+
+    /** 애플리케이션 종료 시 configure()로 만든 Executor를 정리합니다. */
+    public static synchronized void shutdown() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+            ownedExecutor = null;
+        }
+    }
+
+    /**
+     * 설정된 모드에 맞는 HttpClient 버전. JDK HttpClient는 HTTP/2에 대해 켜고 끄기만 지원하므로
+     * - HTTP_2: https:// 는 ALPN, http:// 는 Upgrade: h2c로 협상하며 실패하면 항상 HTTP/1.1로 진행 (fallback=FAIL 미지원)
+     * - H2C: prior-knowledge를 지원하지 않아 HTTP_2와 같이 Upgrade: h2c로 동작
+     * 커넥션당 스트림 수와 커넥션 수는 JDK가 정하며 (호스트당 HTTP/2 커넥션 1개, 스트림 수는 서버 SETTINGS) 설정값은 무시됩니다.
+     */
+    private static HttpClient.Version version(ApiClientProperties.Http2 http2) {
+        if (http2.getMode() == ApiClientProperties.HttpProtocolMode.HTTP_1_1) {
+            return HttpClient.Version.HTTP_1_1;
+        }
+        if (http2.getMode() == ApiClientProperties.HttpProtocolMode.H2C) {
+            log.warn("JDK HttpClient는 h2c prior-knowledge를 지원하지 않습니다. 첫 요청은 Upgrade: h2c 협상으로 보냅니다.");
+        }
+        if (http2.getFallback() == ApiClientProperties.Http2Fallback.FAIL) {
+            log.warn("JDK HttpClient는 h2 협상 실패 시 항상 HTTP/1.1로 진행합니다. (fallback=FAIL 무시)");
+        }
+        return HttpClient.Version.HTTP_2;
+    }
+
+    private static ExecutorService createExecutor(ApiClientProperties.HttpClient settings) {
+        switch (settings.getExecutor()) {
+            case FIXED:
+                return Executors.newFixedThreadPool(settings.getExecutorThreads());
+            case VIRTUAL:
+                // 프로젝트 툴체인은 Java 17이므로 리플렉션으로 호출합니다. (Java 21 이상 런타임에서만 성공)
+                try {
+                    return (ExecutorService) Executors.class
+                            .getMethod("newVirtualThreadPerTaskExecutor")
+                            .invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    log.warn("가상 스레드를 지원하지 않는 런타임입니다. HttpClient 기본 Executor를 사용합니다.");
+                    return null;
+                }
+            case DEFAULT:
+            default:
+                return null;
+        }
+    }
 
 
     // =========================================================================
@@ -30,25 +114,80 @@ public class HttpClientUtil {
         String finalUrl = UrlBuilder.buildUrlWithParams(baseUrl, params);
         log.info("--- HttpClient GET 호출 URL: {} ----", finalUrl);
 
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(finalUrl))
-                    .GET()
-                    .header("Accept", "application/json")
-                    .timeout(Duration.ofSeconds(10))
-                    .build();
+        return RetryEngine.execute(CLIENT, "GET", finalUrl, () -> {
+            try {
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create(finalUrl))
+                        .GET()
+                        .header("Accept", "application/json")
+                        .timeout(Duration.ofSeconds(10))
+                        .build();
+
+                return sendAndHandleResponse(request, responseType);
+            } catch (IOException e){
+                String details = "Connection or IO Error: " + e.getMessage();
+                log.error(details);
+                return CircuitBreaker.failure(e, 500, details);
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                String details = "Request Interrupted: " + e.getMessage();
+                log.error(details);
+                return ApiResponse.fail(500, details);
+            }
+        });
+    }
+
+    /**
+     * 공유 응답 캐시(ResponseCache)를 거치는 GET. 캐시가 만료되면 ETag/Last-Modified로 조건부 요청을 보냅니다.
+     * 반환된 data는 호출자마다 따로 만든 객체이므로 고쳐도 캐시나 다른 호출자에 영향이 없습니다.
+     */
+    public static <T> ApiResponse<T> getCached(String baseUrl, Map<String, Object> params, Class<T> responseType) {
+        String finalUrl = UrlBuilder.buildUrlWithParams(baseUrl, params);
+        return ResponseCache.get(finalUrl, responseType, (etag, lastModified) -> {
+            log.info("--- HttpClient GET(cache miss) 호출 URL: {} ----", finalUrl);
+            return conditionalGet(finalUrl, responseType, etag, lastModified);
+        });
+    }
 
-            return sendAndHandleResponse(request, responseType);
-        } catch (IOException e){
-            String details = "Connection or IO Error: " + e.getMessage();
-            log.error(details);
-            return ApiResponse.fail(500, details);
-        } catch (InterruptedException e){
-            Thread.currentThread().interrupt();
-            String details = "Request Interrupted: " + e.getMessage();
-            log.error(details);
-            return ApiResponse.fail(500, details);
+    // 검증자(etag/lastModified)가 있으면 조건부 요청을 보내고, 304면 본문 없이 notModified를 반환합니다.
+    static <T> ConditionalResponse<T> conditionalGet(String fullUrl, Class<T> responseType, String etag, String lastModified) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(fullUrl))
+                .GET()
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(10));
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
         }
+        HttpRequest request = builder.build();
+
+        return RetryEngine.execute(CLIENT, "GET", fullUrl, () -> {
+            long start = System.nanoTime();
+            try (AdaptiveLimiter.Permit permit = admit(request)) {
+                HttpResponse<InputStream> response = send(request, start);
+                String newEtag = response.headers().firstValue("ETag").orElse(null);
+                String newLastModified = response.headers().firstValue("Last-Modified").orElse(null);
+                if (response.statusCode() == 304) {
+                    response.body().close();
+                    ConditionalResponse<T> notModified = ConditionalResponse.notModified(newEtag, newLastModified);
+                    ClientMetrics.record(CLIENT, "GET", fullUrl, start, notModified.getResponse());
+                    return notModified;
+                }
+                return ConditionalResponse.of(readResponse(request, response, start, responseType), newEtag, newLastModified);
+            } catch (IOException e) {
+                String details = "Connection or IO Error: " + e.getMessage();
+                log.error(details);
+                return ConditionalResponse.of(CircuitBreaker.failure(e, 500, details), null, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                String details = "Request Interrupted: " + e.getMessage();
+                log.error(details);
+                return ConditionalResponse.of(ApiResponse.fail(500, details), null, null);
+            }
+        }, ConditionalResponse::getResponse);
     }
 
     // =========================================================================
@@ -56,26 +195,28 @@ public class HttpClientUtil {
     // =========================================================================
     public static <T> ApiResponse<T> post(String fullUrl, Object requestBody, Class<T> responseType) {
         log.info("--- HttpClient POST 호출 URL: {} ----", fullUrl);
-        try {
-            String jsonInputString = OBJECT_MAPPER.writeValueAsString(requestBody);
+        return RetryEngine.execute(CLIENT, "POST", fullUrl, () -> {
+            try {
+                String jsonInputString = OBJECT_MAPPER.writeValueAsString(requestBody);
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(fullUrl))
-                    .header("Content-Type", "application/json; charset=UTF-8")
-                    .header("Accept", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonInputString))
-                    .timeout(Duration.ofSeconds(10))
-                    .build();
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create(fullUrl))
+                        .header("Content-Type", "application/json; charset=UTF-8")
+                        .header("Accept", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(jsonInputString))
+                        .timeout(Duration.ofSeconds(10))
+                        .build();
 
-            return sendAndHandleResponse(request, responseType);
-        } catch (IOException e) {
-            log.error("POST Client Error: {}", e.getMessage());
-            return ApiResponse.fail(500, "POST Client Error: " + e.getMessage());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("POST Client Interrupted: {}", e.getMessage());
-            return ApiResponse.fail(500, "POST Request Interrupted.");
-        }
+                return sendAndHandleResponse(request, responseType);
+            } catch (IOException e) {
+                log.error("POST Client Error: {}", e.getMessage());
+                return CircuitBreaker.failure(e, 500, "POST Client Error: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("POST Client Interrupted: {}", e.getMessage());
+                return ApiResponse.fail(500, "POST Request Interrupted.");
+            }
+        });
     }
 
     // =========================================================================
@@ -83,26 +224,28 @@ public class HttpClientUtil {
     // =========================================================================
     public static <T> ApiResponse<T> put(String fullUrl, Object requestBody, Class<T> responseType) {
         log.info("--- HttpClient PUT 호출 URL: {} ----", fullUrl);
-        try {
-            String jsonInputString = OBJECT_MAPPER.writeValueAsString(requestBody);
+        return RetryEngine.execute(CLIENT, "PUT", fullUrl, () -> {
+            try {
+                String jsonInputString = OBJECT_MAPPER.writeValueAsString(requestBody);
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(fullUrl))
-                    .header("Content-Type", "application/json; charset=UTF-8")
-                    .header("Accept", "application/json")
-                    .PUT(HttpRequest.BodyPublishers.ofString(jsonInputString))
-                    .timeout(Duration.ofSeconds(10))
-                    .build();
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create(fullUrl))
+                        .header("Content-Type", "application/json; charset=UTF-8")
+                        .header("Accept", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(jsonInputString))
+                        .timeout(Duration.ofSeconds(10))
+                        .build();
 
-            return sendAndHandleResponse(request, responseType);
-        } catch (IOException e) {
-            log.error("PUT Client Error: {}", e.getMessage());
-            return ApiResponse.fail(500, "PUT Client Error: " + e.getMessage());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("PUT Client Interrupted: {}", e.getMessage());
-            return ApiResponse.fail(500, "PUT Request Interrupted.");
-        }
+                return sendAndHandleResponse(request, responseType);
+            } catch (IOException e) {
+                log.error("PUT Client Error: {}", e.getMessage());
+                return CircuitBreaker.failure(e, 500, "PUT Client Error: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("PUT Client Interrupted: {}", e.getMessage());
+                return ApiResponse.fail(500, "PUT Request Interrupted.");
+            }
+        });
     }
 
     // =========================================================================
@@ -110,26 +253,28 @@ public class HttpClientUtil {
     // =========================================================================
     public static <T> ApiResponse<T> patch(String fullUrl, Object requestBody, Class<T> responseType) {
         log.info("--- HttpClient PATCH 호출 URL: {} ----", fullUrl);
-        try {
-            String jsonInputString = OBJECT_MAPPER.writeValueAsString(requestBody);
+        return RetryEngine.execute(CLIENT, "PATCH", fullUrl, () -> {
+            try {
+                String jsonInputString = OBJECT_MAPPER.writeValueAsString(requestBody);
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(fullUrl))
-                    .method("PATCH", HttpRequest.BodyPublishers.ofString(jsonInputString))
-                    .header("Content-Type", "application/json; charset=UTF-8")
-                    .header("Accept", "application/json")
-                    .timeout(Duration.ofSeconds(10))
-                    .build();
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create(fullUrl))
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(jsonInputString))
+                        .header("Content-Type", "application/json; charset=UTF-8")
+                        .header("Accept", "application/json")
+                        .timeout(Duration.ofSeconds(10))
+                        .build();
 
-            return sendAndHandleResponse(request, responseType);
-        } catch (IOException e) {
-            log.error("PATCH Client Error: {}", e.getMessage());
-            return ApiResponse.fail(500, "PATCH Client Error: " + e.getMessage());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("PATCH Client Interrupted: {}", e.getMessage());
-            return ApiResponse.fail(500, "PATCH Request Interrupted.");
-        }
+                return sendAndHandleResponse(request, responseType);
+            } catch (IOException e) {
+                log.error("PATCH Client Error: {}", e.getMessage());
+                return CircuitBreaker.failure(e, 500, "PATCH Client Error: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("PATCH Client Interrupted: {}", e.getMessage());
+                return ApiResponse.fail(500, "PATCH Request Interrupted.");
+            }
+        });
     }
 
     // =========================================================================
@@ -137,48 +282,346 @@ public class HttpClientUtil {
     // =========================================================================
     public static ApiResponse<Void> delete(String fullUrl) {
         log.info("--- HttpClient DELETE 호출 URL: {} ----", fullUrl);
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(fullUrl))
-                    .DELETE()
-                    .timeout(Duration.ofSeconds(10))
-                    .build();
+        return RetryEngine.execute(CLIENT, "DELETE", fullUrl, () -> {
+            try {
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create(fullUrl))
+                        .DELETE()
+                        .timeout(Duration.ofSeconds(10))
+                        .build();
+
+                return sendAndHandleResponse(request, Void.class);
+            } catch (IOException e) {
+                log.error("DELETE Client Error: {}", e.getMessage());
+                return CircuitBreaker.failure(e, 500, "DELETE Client Error: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("DELETE Client Interrupted: {}", e.getMessage());
+                return ApiResponse.fail(500, "DELETE Request Interrupted.");
+            }
+        });
+    }
 
-            return sendAndHandleResponse(request, Void.class);
+    // =========================================================================
+    // 6. 비동기 (sendAsync) - GET/POST/PUT/PATCH/DELETE
+    // =========================================================================
+    public static <T> CompletableFuture<ApiResponse<T>> getAsync(String baseUrl, Map<String, Object> params, Class<T> responseType) {
+        String finalUrl = UrlBuilder.buildUrlWithParams(baseUrl, params);
+        log.info("--- HttpClient GET(async) 호출 URL: {} ----", finalUrl);
+        return sendAsyncAndHandleResponse(buildRequest(finalUrl, "GET", null), responseType);
+    }
+
+    public static <T> CompletableFuture<ApiResponse<T>> postAsync(String fullUrl, Object requestBody, Class<T> responseType) {
+        log.info("--- HttpClient POST(async) 호출 URL: {} ----", fullUrl);
+        return sendJsonAsync(fullUrl, "POST", requestBody, responseType);
+    }
+
+    public static <T> CompletableFuture<ApiResponse<T>> putAsync(String fullUrl, Object requestBody, Class<T> responseType) {
+        log.info("--- HttpClient PUT(async) 호출 URL: {} ----", fullUrl);
+        return sendJsonAsync(fullUrl, "PUT", requestBody, responseType);
+    }
+
+    public static <T> CompletableFuture<ApiResponse<T>> patchAsync(String fullUrl, Object requestBody, Class<T> responseType) {
+        log.info("--- HttpClient PATCH(async) 호출 URL: {} ----", fullUrl);
+        return sendJsonAsync(fullUrl, "PATCH", requestBody, responseType);
+    }
+
+    public static CompletableFuture<ApiResponse<Void>> deleteAsync(String fullUrl) {
+        log.info("--- HttpClient DELETE(async) 호출 URL: {} ----", fullUrl);
+        return sendAsyncAndHandleResponse(buildRequest(fullUrl, "DELETE", null), Void.class);
+    }
+
+    // 요청 본문을 JSON으로 직렬화한 뒤 비동기 전송 (직렬화 실패는 즉시 완료된 실패 future로 반환)
+    private static <T> CompletableFuture<ApiResponse<T>> sendJsonAsync(String fullUrl, String method, Object requestBody, Class<T> responseType) {
+        try {
+            String jsonInputString = OBJECT_MAPPER.writeValueAsString(requestBody);
+            return sendAsyncAndHandleResponse(buildRequest(fullUrl, method, jsonInputString), responseType);
         } catch (IOException e) {
-            log.error("DELETE Client Error: {}", e.getMessage());
-            return ApiResponse.fail(500, "DELETE Client Error: " + e.getMessage());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("DELETE Client Interrupted: {}", e.getMessage());
-            return ApiResponse.fail(500, "DELETE Request Interrupted.");
+            log.error("{} Client Error: {}", method, e.getMessage());
+            return CompletableFuture.completedFuture(ApiResponse.fail(500, method + " Client Error: " + e.getMessage()));
+        }
+    }
+
+    // 비동기/스트리밍 메서드용 HttpRequest 생성 (jsonBody가 null이면 본문 없음)
+    private static HttpRequest buildRequest(String fullUrl, String method, String jsonBody) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(fullUrl))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(10));
+        if (jsonBody != null) {
+            builder.header("Content-Type", "application/json; charset=UTF-8")
+                    .method(method, HttpRequest.BodyPublishers.ofString(jsonBody));
+        } else {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
         }
+        return builder.build();
+    }
+
+    // =========================================================================
+    // 7. 스트리밍 GET (JSON 배열을 요소 단위로 파싱)
+    // =========================================================================
+    /**
+     * JSON 배열 응답을 전체 배열로 만들지 않고 요소 단위로 읽는 Iterator를 반환합니다.
+     * 성공 시 data의 Iterator는 응답 스트림을 붙잡고 있으므로 사용 후 반드시 close() 해야 합니다.
+     */
+    public static <T> ApiResponse<JsonElementIterator<T>> getStream(String baseUrl, Map<String, Object> params, Class<T> elementType) {
+        String finalUrl = UrlBuilder.buildUrlWithParams(baseUrl, params);
+        log.info("--- HttpClient GET(stream) 호출 URL: {} ----", finalUrl);
+
+        return RetryEngine.execute(CLIENT, "GET", finalUrl, () -> {
+            long start = System.nanoTime();
+            // 스트리밍은 응답 헤더 수신까지를 한 요청으로 보므로 Iterator를 넘긴 뒤 바로 허가를 반납
+            try (AdaptiveLimiter.Permit permit = admit(finalUrl)) {
+                HttpResponse<InputStream> response = client.send(buildRequest(finalUrl, "GET", null), HttpResponse.BodyHandlers.ofInputStream());
+                int statusCode = response.statusCode();
+                InputStream body = response.body();
+
+                if (statusCode >= 200 && statusCode < 300) {
+                    JsonElementIterator<T> elements;
+                    try {
+                        elements = JsonStreamDecoder.iterate(body, elementType, null);
+                    } catch (JsonProcessingException e) {
+                        closeQuietly(body);
+                        log.error("JSON Parsing Error for successful response: {}", e.getMessage());
+                        ClientMetrics.parseFailure(CLIENT, finalUrl);
+                        return ClientMetrics.record(CLIENT, "GET", finalUrl, start,
+                                ApiResponse.fail(500, "JSON Parsing Error: " + e.getMessage()));
+                    } catch (IOException | RuntimeException e) {
+                        // 배열 시작을 읽다가 끊긴 경우: 풀의 커넥션을 돌려주도록 본문을 닫고 아래의 IO 오류 처리로 넘김
+                        closeQuietly(body);
+                        throw e;
+                    }
+                    // 스트리밍은 본문을 호출자가 읽으므로 응답 헤더 수신까지의 시간을 기록합니다.
+                    return ClientMetrics.record(CLIENT, "GET", finalUrl, start, ApiResponse.success(statusCode, elements));
+                }
+                try (InputStream in = body) {
+                    String details = String.format("API Error %d. Body: %s", statusCode,
+                            new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                    return ClientMetrics.record(CLIENT, "GET", finalUrl, start,
+                            ApiResponse.failWithRetryAfter(statusCode, details, retryAfter(response)));
+                }
+            } catch (IOException e) {
+                String details = "Connection or IO Error: " + e.getMessage();
+                log.error(details);
+                return ClientMetrics.recordFailure(CLIENT, "GET", finalUrl, start, CircuitBreaker.failure(e, 500, details));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                String details = "Request Interrupted: " + e.getMessage();
+                log.error(details);
+                return ClientMetrics.recordFailure(CLIENT, "GET", finalUrl, start, ApiResponse.fail(500, details));
+            }
+        });
     }
 
     // =========================================================================
     // Private: 요청 전송 및 응답 처리 (공통 로직)
     // =========================================================================
+    // 동기 경로: 본문을 String으로 만들지 않고 InputStream에서 바로 스트리밍 파싱합니다.
+    // 헤징 대상이면 두 요청을 겨루게 해야 하므로 비동기 경로(byte[] 본문)로 보내고 결과를 기다립니다.
     private static <T> ApiResponse<T> sendAndHandleResponse(HttpRequest request, Class<T> responseType)
             throws IOException, InterruptedException {
+        if (RequestHedger.isHedgeable(request.method())) {
+            // 재시도는 호출한 동기 메서드에서 하므로 한 번만 보내는 경로를 사용
+            return sendAsyncOnce(request, responseType).join();
+        }
+        long start = System.nanoTime();
+        // 허가는 본문을 다 읽고 결과를 기록할 때까지 잡고 있다가, 중간에 예외가 나도 반납
+        try (AdaptiveLimiter.Permit permit = admit(request)) {
+            return readResponse(request, send(request, start), start, responseType);
+        }
+    }
+
+    // 호스트의 서킷이 열려 있거나 동시 요청 제한에 걸리면 보내지 않고 CircuitOpenException/LoadShedException을 던집니다.
+    // (보내지 않았으므로 기록하지 않음) 받은 허가는 결과 기록 여부와 관계없이 try-with-resources로 반납합니다.
+    private static AdaptiveLimiter.Permit admit(HttpRequest request) throws IOException {
+        return admit(request.uri().toString());
+    }
+
+    private static AdaptiveLimiter.Permit admit(String url) throws IOException {
+        CircuitBreaker.acquire(url);
+        return AdaptiveLimiter.acquire(url);
+    }
+
+    // 응답 헤더까지 수신 (본문은 InputStream으로 남겨 둠). 전송 실패는 IO_ERROR로 기록 후 다시 던집니다.
+    // (client.send의 IllegalArgumentException, UncheckedIOException 같은 RuntimeException 포함)
+    private static HttpResponse<InputStream> send(HttpRequest request, long start) throws IOException, InterruptedException {
+        try {
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            ClientMetrics.bytesOut(CLIENT, request.uri().toString(), requestBodyLength(request));
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            ClientMetrics.recordFailure(CLIENT, request.method(), request.uri().toString(), start);
+            throw e;
+        }
+    }
+
+    private static <T> ApiResponse<T> readResponse(HttpRequest request, HttpResponse<InputStream> response, long start,
+                                                   Class<T> responseType) throws IOException {
+        String url = request.uri().toString();
+        int statusCode = response.statusCode();
+
+        CountingInputStream counting = new CountingInputStream(response.body());
+        try (InputStream body = counting) {
+            if (statusCode >= 200 && statusCode < 300) {
+                if (responseType == Void.class) {
+                    // 커넥션 재사용을 위해 남은 본문을 버리면서 끝까지 읽습니다.
+                    body.transferTo(OutputStream.nullOutputStream());
+                    return ClientMetrics.record(CLIENT, request.method(), url, start, ApiResponse.success(statusCode, null));
+                }
+                try {
+                    T data = JsonStreamDecoder.decode(body, responseType);
+                    return ClientMetrics.record(CLIENT, request.method(), url, start, ApiResponse.success(statusCode, data));
+                } catch (JsonProcessingException e) {
+                    log.error("JSON Parsing Error for successful response: {}", e.getMessage());
+                    ClientMetrics.parseFailure(CLIENT, url);
+                    return ClientMetrics.record(CLIENT, request.method(), url, start,
+                            ApiResponse.fail(500, "JSON Parsing Error: " + e.getMessage()));
+                }
+            }
+            // 실패 응답은 에러 상세를 남기기 위해서만 문자열로 읽습니다.
+            String responseBody = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            String details = String.format("API Error %d. Body: %s", statusCode, responseBody);
+            return ClientMetrics.record(CLIENT, request.method(), url, start,
+                    ApiResponse.failWithRetryAfter(statusCode, details, retryAfter(response)));
+        } catch (IOException e) {
+            // 본문 읽기 도중 끊긴 경우
+            ClientMetrics.recordFailure(CLIENT, request.method(), url, start);
+            throw e;
+        } finally {
+            ClientMetrics.bytesIn(CLIENT, url, counting.getCount());
+        }
+    }
+
+    // 실패 경로에서 응답 본문 닫기 (닫기 실패는 원래 오류를 가리지 않도록 로그만 남김)
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.warn("응답 본문 닫기 실패: {}", e.getMessage());
+        }
+    }
+
+    // 실패 응답의 Retry-After 헤더 (없으면 null)
+    private static Duration retryAfter(HttpResponse<?> response) {
+        return RetryEngine.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null));
+    }
+
+    // 요청 본문 크기 (본문이 없거나 길이를 알 수 없으면 0)
+    private static long requestBodyLength(HttpRequest request) {
+        return request.bodyPublisher()
+                .map(HttpRequest.BodyPublisher::contentLength)
+                .filter(length -> length > 0)
+                .orElse(0L);
+    }
 
-        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * 비동기 전송(sendAsync) 공통 로직. 호출 스레드를 막지 않고 CompletableFuture를 반환합니다.
+     * 네트워크 오류 등 예외는 ApiResponse.fail로 변환되므로 future 자체는 예외로 완료되지 않습니다.
+     * 완료 콜백에서 블로킹 스트림 읽기를 하지 않도록 byte[]로 받은 뒤 String 변환 없이 바로 파싱합니다.
+     */
+    private static <T> CompletableFuture<ApiResponse<T>> sendAsyncAndHandleResponse(HttpRequest request, Class<T> responseType) {
+        // 재시도 대상이면 백오프 후 같은 요청(HttpRequest는 불변)을 다시 보냄
+        return RetryEngine.executeAsync(CLIENT, request.method(), request.uri().toString(),
+                () -> sendAsyncOnce(request, responseType));
+    }
+
+    // 한 번의 비동기 전송 (헤징 포함)
+    // 헤징 대상(GET/PUT/DELETE)이면 느릴 때 같은 요청을 한 번 더 보내고 먼저 받은 응답을 사용
+    // (시도마다 서킷 확인, 동시 요청 허가, 결과 기록을 따로 함)
+    private static <T> CompletableFuture<ApiResponse<T>> sendAsyncOnce(HttpRequest request, Class<T> responseType) {
+        return RequestHedger.hedge(CLIENT, request.method(), request.uri().toString(),
+                () -> sendAsyncAttempt(request, responseType));
+    }
+
+    // 시도 한 건: 동시 요청 허가를 받은 뒤 보냄 (차단되면 LoadShedException으로 LOAD_SHED 응답)
+    // 허가는 결과를 기록한 뒤, 변환 중 예외가 나도 반납. 반환한 future를 취소하면(헤징에서 진 시도)
+    // 허가 대기나 교환을 중단하고 기록하지 않음
+    private static <T> CompletableFuture<ApiResponse<T>> sendAsyncAttempt(HttpRequest request, Class<T> responseType) {
+        String url = request.uri().toString();
+        try {
+            CircuitBreaker.acquire(url);
+        } catch (CircuitBreaker.CircuitOpenException e) {
+            return CompletableFuture.completedFuture(CircuitBreaker.rejected(e));
+        }
+        long start = System.nanoTime();
+        CompletableFuture<ApiResponse<T>> result = new CompletableFuture<>();
+        CompletableFuture<AdaptiveLimiter.Permit> admitted = AdaptiveLimiter.acquireAsync(url);
+        admitted.whenComplete((permit, error) -> {
+            if (result.isDone()) {
+                // 허가를 받기 전에 취소된 시도 (기다리는 중에 취소되면 acquireAsync가 대기열에서 뺌)
+                if (permit != null) {
+                    permit.release();
+                }
+                return;
+            }
+            if (error != null) {
+                result.complete(asyncFailure(request, start, error));
+                return;
+            }
+            CompletableFuture<HttpResponse<byte[]>> exchange;
+            try {
+                exchange = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (RuntimeException e) {
+                permit.release();
+                result.complete(asyncFailure(request, start, e));
+                return;
+            }
+            result.whenComplete((response, e) -> {
+                if (result.isCancelled()) {
+                    exchange.cancel(true);
+                }
+            });
+            exchange.thenApply(response -> {
+                        ClientMetrics.bytesOut(CLIENT, url, requestBodyLength(request));
+                        return ClientMetrics.record(CLIENT, request.method(), url, start, toApiResponse(response, responseType));
+                    })
+                    .whenComplete((response, e) -> {
+                        permit.release();
+                        if (!result.isCancelled()) {
+                            result.complete(e == null ? response : asyncFailure(request, start, e));
+                        }
+                    });
+        });
+        result.whenComplete((response, e) -> {
+            if (result.isCancelled()) {
+                admitted.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // 보내지 못했거나 응답을 받지 못한 비동기 시도를 IO_ERROR로 기록 (차단된 호출은 기록하지 않음)
+    private static <T> ApiResponse<T> asyncFailure(HttpRequest request, long start, Throwable e) {
+        Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+        String details = "Async Connection or IO Error: " + cause.getMessage();
+        log.error(details);
+        return ClientMetrics.recordFailure(CLIENT, request.method(), request.uri().toString(), start,
+                CircuitBreaker.failure(cause, 500, details));
+    }
+
+    // byte[] 본문 HttpResponse를 ApiResponse로 변환하는 로직 (비동기 경로)
+    private static <T> ApiResponse<T> toApiResponse(HttpResponse<byte[]> response, Class<T> responseType) {
         int statusCode = response.statusCode();
-        String responseBody = response.body();
+        byte[] responseBody = response.body();
+        String url = response.uri().toString();
+        ClientMetrics.bytesIn(CLIENT, url, responseBody == null ? 0 : responseBody.length);
 
         if (statusCode >= 200 && statusCode < 300) {
-            if (responseType == Void.class || responseBody == null || responseBody.isEmpty()) {
+            if (responseType == Void.class || responseBody == null || responseBody.length == 0) {
                 return ApiResponse.success(statusCode, null);
             }
             try {
-                T data = OBJECT_MAPPER.readValue(responseBody, responseType);
+                T data = JsonStreamDecoder.decode(responseBody, responseType);
                 return ApiResponse.success(statusCode, data);
             } catch (IOException e) {
                 log.error("JSON Parsing Error for successful response: {}", e.getMessage());
+                ClientMetrics.parseFailure(CLIENT, url);
                 return ApiResponse.fail(500, "JSON Parsing Error: " + e.getMessage());
             }
         } else {
-            String details = String.format("API Error %d. Body: %s", statusCode, responseBody);
-            return ApiResponse.fail(statusCode, details);
+            String body = responseBody == null ? "" : new String(responseBody, StandardCharsets.UTF_8);
+            String details = String.format("API Error %d. Body: %s", statusCode, body);
+            return ApiResponse.failWithRetryAfter(statusCode, details, retryAfter(response));
         }
     }
-}
\ No newline at end of file
+}
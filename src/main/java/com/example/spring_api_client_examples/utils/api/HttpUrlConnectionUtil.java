@@ -1,18 +1,66 @@
 package com.example.spring_api_client_examples.utils.api;
 
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.gson.Gson; // Gson 임포트
 import lombok.extern.slf4j.Slf4j;
 
+import javax.net.ssl.HttpsURLConnection;
 import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public class HttpUrlConnectionUtil {
 
     private static final Gson GSON = new Gson();
+    private static final String CLIENT = ClientMetrics.HTTP_URL_CONNECTION;
+
+    // keep-alive 모드: true면 응답 스트림을 끝까지 읽고 닫은 뒤 disconnect()를 생략하여 소켓을 JDK keep-alive 캐시로 돌려보냅니다.
+    private static volatile boolean keepAliveEnabled = true;
+
+    // 커넥션 재사용률 측정용 (HTTPS 요청만 측정: 새 소켓 생성 시점을 SSLSocketFactory에서 감지)
+    // 평문 http의 소켓은 JDK 내부(sun.net.www.http)에서 만들어져 공개 API로 감지할 수 없으므로 세지 않습니다.
+    // (stand-in 서버(http://127.0.0.1:18080) 같은 평문 http 대상은 아래 세 값이 모두 0)
+    private static final CountingSSLSocketFactory SSL_SOCKET_FACTORY =
+            new CountingSSLSocketFactory(HttpsURLConnection.getDefaultSSLSocketFactory());
+    private static final AtomicLong HTTPS_REQUESTS = new AtomicLong();
+
+    // =========================================================================
+    // 0. keep-alive 설정 및 재사용 통계
+    // =========================================================================
+    /**
+     * keep-alive 모드와 JDK keep-alive 캐시 설정을 적용합니다.
+     * 'http.maxConnections' 는 JDK가 첫 연결 시점에 한 번만 읽으므로, 애플리케이션 시작 시(첫 호출 전) 적용해야 합니다.
+     */
+    public static void configure(ApiClientProperties.HttpUrlConnection settings) {
+        keepAliveEnabled = settings.isKeepAliveEnabled();
+        System.setProperty("http.keepAlive", String.valueOf(settings.isKeepAliveEnabled()));
+        // 목적지(host:port)별로 캐시에 보관할 유휴 커넥션 수 (JDK 기본값 5)
+        System.setProperty("http.maxConnections", String.valueOf(settings.getKeepAliveMaxConnections()));
+        // 서버가 Keep-Alive 헤더로 타임아웃을 알려주지 않을 때 사용할 유휴 유지 시간(초)
+        System.setProperty("http.keepAlive.time.server", String.valueOf(settings.getKeepAliveIdleTimeout().toSeconds()));
+        log.info("HttpURLConnection keep-alive 설정 적용: enabled={}, maxConnections={}, idleTimeout={}",
+                settings.isKeepAliveEnabled(), settings.getKeepAliveMaxConnections(), settings.getKeepAliveIdleTimeout());
+    }
+
+    /** 측정된 HTTPS 요청 수 (평문 http 요청은 포함하지 않음) */
+    public static long getHttpsRequestCount() {
+        return HTTPS_REQUESTS.get();
+    }
+
+    /** 새로 생성된 HTTPS 커넥션 수 (평문 http 커넥션은 포함하지 않음) */
+    public static long getHttpsNewConnectionCount() {
+        return SSL_SOCKET_FACTORY.getCreatedSockets();
+    }
+
+    /** keep-alive 캐시에서 재사용된 HTTPS 커넥션 수 (평문 http 커넥션은 포함하지 않음) */
+    public static long getHttpsReusedConnectionCount() {
+        return Math.max(0, getHttpsRequestCount() - getHttpsNewConnectionCount());
+    }
 
     // =========================================================================
     // 1. GET (데이터 조회)
@@ -23,27 +71,65 @@ public class HttpUrlConnectionUtil {
      */
     public static <T> ApiResponse<T> get(String fullUrl, Class<T> responseType){
         log.info("--- HttpURLConnection GET 호출 URL: {} ----", fullUrl);
+        return conditionalGet(fullUrl, responseType, null, null).getResponse();
+    }
+
+    /**
+     * 공유 응답 캐시(ResponseCache)를 거치는 GET. 캐시가 만료되면 ETag/Last-Modified로 조건부 요청을 보냅니다.
+     * 반환된 data는 호출자마다 따로 만든 객체이므로 고쳐도 캐시나 다른 호출자에 영향이 없습니다.
+     */
+    public static <T> ApiResponse<T> getCached(String fullUrl, Class<T> responseType) {
+        return ResponseCache.get(fullUrl, responseType, (etag, lastModified) -> {
+            log.info("--- HttpURLConnection GET(cache miss) 호출 URL: {} ----", fullUrl);
+            return conditionalGet(fullUrl, responseType, etag, lastModified);
+        });
+    }
 
-        HttpURLConnection con = null;
-
-        try {
-            URL url = new URL(fullUrl);
-            con = (HttpURLConnection) url.openConnection();
-            con.setRequestMethod("GET");
-            con.setRequestProperty("Accept", "application/json");
-            con.setConnectTimeout(5000);
-            con.setReadTimeout(5000);
-
-            return handleResponse(con, responseType);
-        }catch (IOException e){
-            String details = "Connection or IO Error: " + e.getMessage();
-            log.error(details);
-            return ApiResponse.fail(500, details);
-        }finally {
-            if(con != null){
-                con.disconnect();
+    // 검증자(etag/lastModified)가 있으면 조건부 요청을 보내고, 304면 본문 없이 notModified를 반환합니다.
+    static <T> ConditionalResponse<T> conditionalGet(String fullUrl, Class<T> responseType, String etag, String lastModified) {
+        return RetryEngine.execute(CLIENT, "GET", fullUrl, () -> {
+            long start = System.nanoTime();
+            HttpURLConnection con = null;
+            AdaptiveLimiter.Permit permit = null;
+            boolean consumed = false; // 응답 본문을 끝까지 읽었는지 여부 (keep-alive 재사용 가능 여부)
+
+            try {
+                permit = admit(fullUrl);
+                con = openConnection(fullUrl);
+                con.setRequestMethod("GET");
+                con.setRequestProperty("Accept", "application/json");
+                if (etag != null) {
+                    con.setRequestProperty("If-None-Match", etag);
+                }
+                if (lastModified != null) {
+                    con.setRequestProperty("If-Modified-Since", lastModified);
+                }
+                con.setConnectTimeout(5000);
+                con.setReadTimeout(5000);
+
+                if (con.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    // 304는 본문이 없으므로 빈 스트림을 닫으면 바로 keep-alive 캐시로 반환됩니다.
+                    con.getInputStream().close();
+                    consumed = true;
+                    ConditionalResponse<T> notModified = ConditionalResponse.notModified(
+                            con.getHeaderField("ETag"), con.getHeaderField("Last-Modified"));
+                    ClientMetrics.record(CLIENT, "GET", fullUrl, start, notModified.getResponse());
+                    return notModified;
+                }
+                ApiResponse<T> response = handleResponse(con, responseType);
+                consumed = true;
+                return ConditionalResponse.of(ClientMetrics.record(CLIENT, "GET", fullUrl, start, response),
+                        con.getHeaderField("ETag"), con.getHeaderField("Last-Modified"));
+            }catch (IOException e){
+                String details = "Connection or IO Error: " + e.getMessage();
+                log.error(details);
+                return ConditionalResponse.of(
+                        ClientMetrics.recordFailure(CLIENT, "GET", fullUrl, start, CircuitBreaker.failure(e, 500, details)), null, null);
+            }finally {
+                releaseConnection(con, consumed);
+                releasePermit(permit);
             }
-        }
+        }, ConditionalResponse::getResponse);
     }
 
     // =========================================================================
@@ -51,19 +137,29 @@ public class HttpUrlConnectionUtil {
     // =========================================================================
     public static <T> ApiResponse<T> post(String baseUrl, Object requestBody, Class<T> responseType) {
         log.info("--- HttpURLConnection POST Util 호출 URL: {} ----", baseUrl);
-        HttpURLConnection con = null;
-        try {
-            con = (HttpURLConnection) new URL(baseUrl).openConnection();
-            con.setRequestMethod("POST");
-            con.setRequestProperty("Accept", "application/json");
-            writeBody(con, requestBody);
-            return handleResponse(con, responseType);
-        } catch (IOException e) {
-            log.error("POST Connection or IO Error: {}", e.getMessage());
-            return ApiResponse.fail(500, "POST Connection or IO Error: " + e.getMessage());
-        } finally {
-            if (con != null) con.disconnect();
-        }
+        return RetryEngine.execute(CLIENT, "POST", baseUrl, () -> {
+            long start = System.nanoTime();
+            HttpURLConnection con = null;
+            AdaptiveLimiter.Permit permit = null;
+            boolean consumed = false;
+            try {
+                permit = admit(baseUrl);
+                con = openConnection(baseUrl);
+                con.setRequestMethod("POST");
+                con.setRequestProperty("Accept", "application/json");
+                writeBody(con, requestBody);
+                ApiResponse<T> response = handleResponse(con, responseType);
+                consumed = true;
+                return ClientMetrics.record(CLIENT, "POST", baseUrl, start, response);
+            } catch (IOException e) {
+                log.error("POST Connection or IO Error: {}", e.getMessage());
+                return ClientMetrics.recordFailure(CLIENT, "POST", baseUrl, start,
+                        CircuitBreaker.failure(e, 500, "POST Connection or IO Error: " + e.getMessage()));
+            } finally {
+                releaseConnection(con, consumed);
+                releasePermit(permit);
+            }
+        });
     }
 
     // =========================================================================
@@ -71,19 +167,29 @@ public class HttpUrlConnectionUtil {
     // =========================================================================
     public static <T> ApiResponse<T> put(String baseUrl, Object requestBody, Class<T> responseType) {
         log.info("--- HttpURLConnection PUT Util 호출 URL: {} ----", baseUrl);
-        HttpURLConnection con = null;
-        try {
-            con = (HttpURLConnection) new URL(baseUrl).openConnection();
-            con.setRequestMethod("PUT");
-            con.setRequestProperty("Accept", "application/json");
-            writeBody(con, requestBody);
-            return handleResponse(con, responseType);
-        } catch (IOException e) {
-            log.error("PUT Connection or IO Error: {}", e.getMessage());
-            return ApiResponse.fail(500, "PUT Connection or IO Error: " + e.getMessage());
-        } finally {
-            if (con != null) con.disconnect();
-        }
+        return RetryEngine.execute(CLIENT, "PUT", baseUrl, () -> {
+            long start = System.nanoTime();
+            HttpURLConnection con = null;
+            AdaptiveLimiter.Permit permit = null;
+            boolean consumed = false;
+            try {
+                permit = admit(baseUrl);
+                con = openConnection(baseUrl);
+                con.setRequestMethod("PUT");
+                con.setRequestProperty("Accept", "application/json");
+                writeBody(con, requestBody);
+                ApiResponse<T> response = handleResponse(con, responseType);
+                consumed = true;
+                return ClientMetrics.record(CLIENT, "PUT", baseUrl, start, response);
+            } catch (IOException e) {
+                log.error("PUT Connection or IO Error: {}", e.getMessage());
+                return ClientMetrics.recordFailure(CLIENT, "PUT", baseUrl, start,
+                        CircuitBreaker.failure(e, 500, "PUT Connection or IO Error: " + e.getMessage()));
+            } finally {
+                releaseConnection(con, consumed);
+                releasePermit(permit);
+            }
+        });
     }
 
     // =========================================================================
@@ -91,19 +197,29 @@ public class HttpUrlConnectionUtil {
     // =========================================================================
     public static <T> ApiResponse<T> patch(String baseUrl, Object requestBody, Class<T> responseType) {
         log.info("--- HttpURLConnection PATCH Util 호출 URL: {} ----", baseUrl);
-        HttpURLConnection con = null;
-        try {
-            con = (HttpURLConnection) new URL(baseUrl).openConnection();
-            con.setRequestMethod("PATCH"); // PATCH 명시
-            con.setRequestProperty("Accept", "application/json");
-            writeBody(con, requestBody);
-            return handleResponse(con, responseType);
-        } catch (IOException e) {
-            log.error("PATCH Connection or IO Error: {}", e.getMessage());
-            return ApiResponse.fail(500, "PATCH Connection or IO Error: " + e.getMessage());
-        } finally {
-            if (con != null) con.disconnect();
-        }
+        return RetryEngine.execute(CLIENT, "PATCH", baseUrl, () -> {
+            long start = System.nanoTime();
+            HttpURLConnection con = null;
+            AdaptiveLimiter.Permit permit = null;
+            boolean consumed = false;
+            try {
+                permit = admit(baseUrl);
+                con = openConnection(baseUrl);
+                con.setRequestMethod("PATCH"); // PATCH 명시
+                con.setRequestProperty("Accept", "application/json");
+                writeBody(con, requestBody);
+                ApiResponse<T> response = handleResponse(con, responseType);
+                consumed = true;
+                return ClientMetrics.record(CLIENT, "PATCH", baseUrl, start, response);
+            } catch (IOException e) {
+                log.error("PATCH Connection or IO Error: {}", e.getMessage());
+                return ClientMetrics.recordFailure(CLIENT, "PATCH", baseUrl, start,
+                        CircuitBreaker.failure(e, 500, "PATCH Connection or IO Error: " + e.getMessage()));
+            } finally {
+                releaseConnection(con, consumed);
+                releasePermit(permit);
+            }
+        });
     }
 
     // =========================================================================
@@ -111,18 +227,122 @@ public class HttpUrlConnectionUtil {
     // =========================================================================
     public static ApiResponse<Void> delete(String baseUrl) {
         log.info("--- HttpURLConnection DELETE Util 호출 URL: {} ----", baseUrl);
-        HttpURLConnection con = null;
-        try {
-            con = (HttpURLConnection) new URL(baseUrl).openConnection();
-            con.setRequestMethod("DELETE");
-            con.setRequestProperty("Accept", "application/json");
-            con.connect(); // 연결만 수행 (본문 없음)
-            return handleResponse(con, Void.class);
-        } catch (IOException e) {
-            log.error("DELETE Connection or IO Error: {}", e.getMessage());
-            return ApiResponse.fail(500, "DELETE Connection or IO Error: " + e.getMessage());
-        } finally {
-            if (con != null) con.disconnect();
+        return RetryEngine.execute(CLIENT, "DELETE", baseUrl, () -> {
+            long start = System.nanoTime();
+            HttpURLConnection con = null;
+            AdaptiveLimiter.Permit permit = null;
+            boolean consumed = false;
+            try {
+                permit = admit(baseUrl);
+                con = openConnection(baseUrl);
+                con.setRequestMethod("DELETE");
+                con.setRequestProperty("Accept", "application/json");
+                con.connect(); // 연결만 수행 (본문 없음)
+                ApiResponse<Void> response = handleResponse(con, Void.class);
+                consumed = true;
+                return ClientMetrics.record(CLIENT, "DELETE", baseUrl, start, response);
+            } catch (IOException e) {
+                log.error("DELETE Connection or IO Error: {}", e.getMessage());
+                return ClientMetrics.recordFailure(CLIENT, "DELETE", baseUrl, start,
+                        CircuitBreaker.failure(e, 500, "DELETE Connection or IO Error: " + e.getMessage()));
+            } finally {
+                releaseConnection(con, consumed);
+                releasePermit(permit);
+            }
+        });
+    }
+
+    // =========================================================================
+    // 6. 스트리밍 GET (JSON 배열을 요소 단위로 파싱)
+    // =========================================================================
+    /**
+     * JSON 배열 응답을 요소 단위로 읽는 Iterator를 반환합니다.
+     * 성공 시 data의 Iterator를 close() 하면 스트림이 닫히고 커넥션이 keep-alive 캐시로 반환(또는 종료)됩니다.
+     */
+    public static <T> ApiResponse<JsonElementIterator<T>> getStream(String fullUrl, Class<T> elementType) {
+        log.info("--- HttpURLConnection GET(stream) 호출 URL: {} ----", fullUrl);
+
+        return RetryEngine.execute(CLIENT, "GET", fullUrl, () -> {
+            long start = System.nanoTime();
+            HttpURLConnection con = null;
+            AdaptiveLimiter.Permit permit = null;
+            boolean released = false; // 커넥션 정리를 마쳤거나 Iterator에 넘겼는지 여부
+            try {
+                permit = admit(fullUrl);
+                con = openConnection(fullUrl);
+                con.setRequestMethod("GET");
+                con.setRequestProperty("Accept", "application/json");
+                con.setConnectTimeout(5000);
+                con.setReadTimeout(5000);
+
+                int responseCode = con.getResponseCode();
+                if (responseCode < 200 || responseCode >= 300) {
+                    ApiResponse<Void> failure = handleResponse(con, Void.class);
+                    releaseConnection(con, true);
+                    released = true;
+                    return ClientMetrics.record(CLIENT, "GET", fullUrl, start,
+                            ApiResponse.failWithRetryAfter(failure.getHttpStatusCode(), failure.getError().getDetails(),
+                                    failure.getRetryAfter()));
+                }
+
+                HttpURLConnection target = con;
+                // 스트림을 닫으면 JDK가 남은 본문을 정리하므로, 이후에는 정상 반환과 동일하게 처리합니다.
+                JsonElementIterator<T> iterator = JsonStreamDecoder.iterate(
+                        con.getInputStream(), elementType, () -> releaseConnection(target, true));
+                released = true;
+                // 스트리밍은 본문을 호출자가 읽으므로 응답 헤더 수신까지의 시간을 기록합니다.
+                return ClientMetrics.record(CLIENT, "GET", fullUrl, start, ApiResponse.success(responseCode, iterator));
+            } catch (IOException e) {
+                String details = "Connection or IO Error: " + e.getMessage();
+                log.error(details);
+                return ClientMetrics.recordFailure(CLIENT, "GET", fullUrl, start, CircuitBreaker.failure(e, 500, details));
+            } finally {
+                if (!released) {
+                    releaseConnection(con, false);
+                }
+                // 스트리밍은 응답 헤더 수신까지를 한 요청으로 보므로 Iterator를 넘긴 뒤에도 여기서 반납
+                releasePermit(permit);
+            }
+        });
+    }
+
+    // =========================================================================
+    // Private 헬퍼 메서드: 커넥션 생성 및 반환 (keep-alive)
+    // =========================================================================
+    // 호스트의 서킷이 열려 있으면 커넥션을 열지 않고 CircuitOpenException을 던집니다.
+    // 동시 요청 제한에 걸리면 최대 maxWait까지 기다리고, 그래도 자리가 없으면 LoadShedException을 던집니다.
+    // 받은 허가는 결과 기록 여부와 관계없이(Gson/URL 오류 같은 RuntimeException 포함) finally에서 releasePermit으로 반납합니다.
+    private static AdaptiveLimiter.Permit admit(String fullUrl) throws IOException {
+        CircuitBreaker.acquire(fullUrl);
+        return AdaptiveLimiter.acquire(fullUrl);
+    }
+
+    private static void releasePermit(AdaptiveLimiter.Permit permit) {
+        if (permit != null) {
+            permit.release();
+        }
+    }
+
+    private static HttpURLConnection openConnection(String fullUrl) throws IOException {
+        HttpURLConnection con = (HttpURLConnection) new URL(fullUrl).openConnection();
+        if (con instanceof HttpsURLConnection httpsCon) {
+            // 항상 같은 팩토리 인스턴스를 써야 keep-alive 캐시의 커넥션이 재사용됩니다.
+            httpsCon.setSSLSocketFactory(SSL_SOCKET_FACTORY);
+            HTTPS_REQUESTS.incrementAndGet();
+        }
+        return con;
+    }
+
+    /**
+     * keep-alive 모드이고 응답 스트림을 끝까지 읽고 닫았다면 disconnect()를 생략하여 소켓을 캐시로 돌려보냅니다.
+     * 그 외(모드 비활성, 읽기 도중 예외 등)에는 소켓 상태를 보장할 수 없으므로 disconnect()로 닫습니다.
+     */
+    private static void releaseConnection(HttpURLConnection con, boolean consumed) {
+        if (con == null) {
+            return;
+        }
+        if (!keepAliveEnabled || !consumed) {
+            con.disconnect();
         }
     }
 
@@ -144,15 +364,15 @@ public class HttpUrlConnectionUtil {
                 os.write(input, 0, input.length);
                 log.info("os={}", os);
             }
+            ClientMetrics.bytesOut(CLIENT, connection.getURL().toString(), input.length);
         }
     }
 
     // =========================================================================
-    // Private 헬퍼 메서드: 응답 받고 ApiResponse로 변환 (Gson 사용)
+    // Private 헬퍼 메서드: 응답 받고 ApiResponse로 변환 (Jackson 스트리밍 파싱)
     // =========================================================================
     private static <T> ApiResponse<T> handleResponse(HttpURLConnection connection, Class<T> responseType) throws IOException {
         int responseCode = connection.getResponseCode();
-        String jsonString = "";
 
         // 1. 응답 스트림 가져오기
         InputStream stream = null;
@@ -162,38 +382,43 @@ public class HttpUrlConnectionUtil {
             stream = connection.getInputStream();
         }
 
-        // 2. JSON 문자열 읽기
-        if (stream != null) {
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))){
-                StringBuilder content = new StringBuilder();
-                String line;
-                while ((line = in.readLine()) != null) {
-                    content.append(line);
-                    log.info("line={}",line);
-                }
-                jsonString = content.toString();
-                log.info("jsonString1={}", jsonString);
-            }
-        }
-
-        // 3. 응답 코드 및 JSON 내용에 따라 최종 결과 반환 (단일 블록)
+        // 2. 응답 코드에 따라 최종 결과 반환
+        // 스트림을 EOF까지 읽고 닫아야(drain) 해당 소켓이 keep-alive 캐시로 반환됩니다.
+        String url = connection.getURL().toString();
         if (responseCode >= 200 && responseCode < 300) {
-            if (responseType == Void.class || responseCode == HttpURLConnection.HTTP_NO_CONTENT || jsonString.isEmpty()) {
+            if (stream == null) {
                 return ApiResponse.success(responseCode, null);
             }
-
-            try {
-                T data = GSON.fromJson(jsonString, responseType);
+            CountingInputStream counting = new CountingInputStream(stream);
+            try (InputStream in = counting) {
+                if (responseType == Void.class) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                    return ApiResponse.success(responseCode, null);
+                }
+                // 본문을 StringBuilder/String으로 모으지 않고 스트림에서 바로 파싱 (빈 본문이면 data=null)
+                T data = JsonStreamDecoder.decode(in, responseType);
                 return ApiResponse.success(responseCode, data);
-            } catch (Exception e) {
-                log.error("JSON Parsing Error for successful response (Gson): {}", e.getMessage());
-                return ApiResponse.fail(500, "JSON Parsing Error (Gson): " + e.getMessage());
+            } catch (JsonProcessingException e) {
+                log.error("JSON Parsing Error for successful response: {}", e.getMessage());
+                ClientMetrics.parseFailure(CLIENT, url);
+                return ApiResponse.fail(500, "JSON Parsing Error: " + e.getMessage());
+            } finally {
+                ClientMetrics.bytesIn(CLIENT, url, counting.getCount());
             }
         } else {
-            // 4xx, 5xx 실패 응답
-            String details = String.format("HTTP Error %d. Body: %s", responseCode, jsonString);
+            // 4xx, 5xx 실패 응답: 에러 상세를 남기기 위해서만 문자열로 읽음
+            String errorBody = "";
+            if (stream != null) {
+                try (InputStream in = stream) {
+                    byte[] bytes = in.readAllBytes();
+                    ClientMetrics.bytesIn(CLIENT, url, bytes.length);
+                    errorBody = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+            String details = String.format("HTTP Error %d. Body: %s", responseCode, errorBody);
             log.error("HttpURLConnection Error: {}", details);
-            return ApiResponse.fail(responseCode, details);
+            return ApiResponse.failWithRetryAfter(responseCode, details,
+                    RetryEngine.parseRetryAfter(connection.getHeaderField("Retry-After")));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * JSON 배열 응답을 요소 단위로 하나씩 파싱해서 돌려주는 Iterator입니다.
+ * 전체 배열을 메모리에 올리지 않으므로 응답 크기와 관계없이 메모리 사용량이 일정합니다.
+ * 응답 스트림(커넥션)을 붙잡고 있으므로 사용 후 반드시 close() 해야 합니다.
+ */
+public class JsonElementIterator<T> implements Iterator<T>, Closeable {
+
+    private final MappingIterator<T> delegate;
+    // 스트림을 닫은 뒤 실행할 커넥션 정리 로직 (없으면 null)
+    private final Runnable onClose;
+    private boolean closed;
+
+    JsonElementIterator(MappingIterator<T> delegate, Runnable onClose) {
+        this.delegate = delegate;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !closed && delegate.hasNext();
+    }
+
+    @Override
+    public T next() {
+        return delegate.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            delegate.close(); // 파서와 응답 스트림을 닫음
+        } finally {
+            if (onClose != null) {
+                onClose.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 응답 본문을 String으로 만들지 않고 InputStream/byte[]에서 바로 Jackson 파서로 역직렬화하는 디코더입니다.
+ * 대상 타입별 ObjectReader를 캐시하여 매 호출마다 타입 정보를 다시 찾지 않습니다.
+ * (기존: byte → String → char 파싱으로 본문이 힙에 2~3번 복사됨)
+ */
+public class JsonStreamDecoder {
+
+    // 응답에 DTO에 없는 필드가 있어도 실패하지 않도록 설정 (기존 Gson 파싱과 동일한 동작)
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    /**
+     * 대상 타입의 ObjectReader를 반환합니다. (최초 1회 생성 후 캐시)
+     */
+    public static ObjectReader readerFor(Class<?> type) {
+        return READERS.computeIfAbsent(type, OBJECT_MAPPER::readerFor);
+    }
+
+    /**
+     * InputStream을 끝까지 스트리밍 파싱합니다. 본문이 비어 있으면 null을 반환합니다.
+     * 스트림은 호출자가 닫아야 합니다.
+     */
+    public static <T> T decode(InputStream body, Class<T> type) throws IOException {
+        ObjectReader reader = readerFor(type);
+        try (JsonParser parser = reader.createParser(body)) {
+            return readOrNull(reader, parser);
+        }
+    }
+
+    /**
+     * byte[]를 바로 파싱합니다. (비동기 경로처럼 블로킹 스트림 읽기를 할 수 없는 경우 사용)
+     * 본문이 비어 있으면 null을 반환합니다.
+     */
+    public static <T> T decode(byte[] body, Class<T> type) throws IOException {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        ObjectReader reader = readerFor(type);
+        try (JsonParser parser = reader.createParser(body)) {
+            return readOrNull(reader, parser);
+        }
+    }
+
+    /**
+     * 루트가 JSON 배열인 InputStream을 요소 단위로 읽는 Iterator를 만듭니다.
+     * 요소는 next() 호출 시점에 하나씩 파싱되며, 반환된 Iterator를 닫으면 스트림도 닫힙니다.
+     * @param onClose 스트림을 닫은 뒤 실행할 커넥션 정리 로직 (없으면 null)
+     */
+    public static <T> JsonElementIterator<T> iterate(InputStream body, Class<T> elementType, Runnable onClose) throws IOException {
+        // 루트가 배열이면 MappingIterator가 배열을 풀어서 요소 단위로 반환합니다.
+        MappingIterator<T> iterator = readerFor(elementType).readValues(body);
+        return new JsonElementIterator<>(iterator, onClose);
+    }
+
+    /**
+     * 값을 같은 설정의 ObjectMapper로 JSON 바이트로 만듭니다. (ResponseCache가 변경 가능한 data를 보관할 때 사용)
+     */
+    static byte[] encode(Object value) throws IOException {
+        return OBJECT_MAPPER.writeValueAsBytes(value);
+    }
+
+    private static <T> T readOrNull(ObjectReader reader, JsonParser parser) throws IOException {
+        // 첫 토큰이 없으면 빈 본문 (기존 구현의 "빈 문자열이면 data=null" 동작 유지)
+        JsonToken first = parser.nextToken();
+        if (first == null) {
+            return null;
+        }
+        return reader.readValue(parser);
+    }
+}
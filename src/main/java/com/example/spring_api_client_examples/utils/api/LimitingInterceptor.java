@@ -0,0 +1,73 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * RestTemplate 요청을 보내기 전에 호스트의 서킷과 동시 요청 허가를 확인하는 인터셉터입니다.
+ * 서킷이 열려 있거나 동시 요청 제한에 걸리면 보내지 않습니다.
+ * (CircuitOpenException, LoadShedException은 ResourceAccessException으로 감싸져 전달됨)
+ * 허가는 RestTemplate이 응답을 닫을 때(본문 변환 후, 실패해도) 반납하고, 전송 중 예외가 나면 바로 반납합니다.
+ */
+class LimitingInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String url = request.getURI().toString();
+        CircuitBreaker.acquire(url);
+        AdaptiveLimiter.Permit permit = AdaptiveLimiter.acquire(url);
+        try {
+            return new PermitReleasingResponse(execution.execute(request, body), permit);
+        } catch (IOException | RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final AdaptiveLimiter.Permit permit;
+
+        PermitReleasingResponse(ClientHttpResponse delegate, AdaptiveLimiter.Permit permit) {
+            this.delegate = delegate;
+            this.permit = permit;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                permit.release();
+            }
+        }
+    }
+}
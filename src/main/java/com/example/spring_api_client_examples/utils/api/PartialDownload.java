@@ -0,0 +1,290 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 이어받기(resume)를 위한 다운로드 진행 상태입니다.
+ * URL별로 '.part' 파일과 사이드카('.part.meta', Properties 형식)를 두고,
+ * 사이드카에 URL, 검증자(ETag/Last-Modified), 구간별로 디스크에 쓴 바이트 수를 기록합니다.
+ * 다음 시도는 사이드카를 읽어 'Range: bytes=N-'와 If-Range로 남은 부분만 요청하고, 완료되면 최종 경로로 원자적으로 이동합니다.
+ */
+@Slf4j
+class PartialDownload {
+
+    /** 파일의 한 구간 [start, end]과 지금까지 디스크에 쓴 바이트 수. end가 -1이면 끝을 모름(전체 크기 미상) */
+    @Getter
+    static final class Segment {
+        private final long start;
+        private final long end;
+        private final AtomicLong written;
+
+        Segment(long start, long end, long written) {
+            this.start = start;
+            this.end = end;
+            this.written = new AtomicLong(written);
+        }
+
+        /** 다음에 요청할 위치 */
+        long nextOffset() {
+            return start + written.get();
+        }
+
+        boolean isComplete() {
+            return end >= 0 && nextOffset() > end;
+        }
+    }
+
+    private final String url;
+    private final Path partFile;
+    private final Path sidecarFile;
+    @Getter
+    private final long totalSize;
+    private final String etag;
+    private final String lastModified;
+    private final String contentType;
+    private final String contentDisposition;
+    @Getter
+    private final List<Segment> segments;
+
+    // 마지막 사이드카 저장 이후 쓴 바이트 수 (체크포인트 주기 판단용)
+    private final AtomicLong unsavedBytes = new AtomicLong();
+
+    private PartialDownload(String url, Path dir, long totalSize, String etag, String lastModified,
+                            String contentType, String contentDisposition, List<Segment> segments) {
+        String key = hash(url);
+        this.url = url;
+        this.partFile = dir.resolve(key + ".part");
+        this.sidecarFile = dir.resolve(key + ".part.meta");
+        this.totalSize = totalSize;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.contentType = contentType;
+        this.contentDisposition = contentDisposition;
+        this.segments = segments;
+    }
+
+    // =========================================================================
+    // 1. 생성 / 불러오기
+    // =========================================================================
+    /**
+     * 새 다운로드 상태를 만듭니다. 이전 시도의 파일이 남아 있다면 지웁니다.
+     * @param headers 프로브 응답 헤더 (검증자와 파일 메타데이터용 헤더를 보관)
+     * @param ranges 구간 목록 [start, end]
+     */
+    static PartialDownload create(Path dir, String url, HttpHeaders headers, long totalSize, List<long[]> ranges) {
+        List<Segment> segments = new ArrayList<>(ranges.size());
+        for (long[] range : ranges) {
+            segments.add(new Segment(range[0], range[1], 0));
+        }
+        PartialDownload state = new PartialDownload(url, dir, totalSize, headers.getETag(),
+                headers.getFirst(HttpHeaders.LAST_MODIFIED), headers.getFirst(HttpHeaders.CONTENT_TYPE),
+                headers.getFirst(HttpHeaders.CONTENT_DISPOSITION), segments);
+        state.discard();
+        return state;
+    }
+
+    /**
+     * 이전 시도의 상태를 불러옵니다. 사이드카나 .part 파일이 없거나, 검증자가 없어 같은 버전임을 확인할 수 없으면 null입니다.
+     */
+    static PartialDownload load(Path dir, String url) {
+        String key = hash(url);
+        Path sidecar = dir.resolve(key + ".part.meta");
+        Path part = dir.resolve(key + ".part");
+        if (!Files.exists(sidecar)) {
+            return null;
+        }
+        try {
+            Properties props = new Properties();
+            try (Reader reader = Files.newBufferedReader(sidecar, StandardCharsets.UTF_8)) {
+                props.load(reader);
+            }
+            int segmentCount = Integer.parseInt(props.getProperty("segmentCount", "0"));
+            List<Segment> segments = new ArrayList<>(segmentCount);
+            for (int i = 0; i < segmentCount; i++) {
+                String[] values = props.getProperty("segment." + i).split(",");
+                segments.add(new Segment(Long.parseLong(values[0]), Long.parseLong(values[1]), Long.parseLong(values[2])));
+            }
+            PartialDownload state = new PartialDownload(url, dir, Long.parseLong(props.getProperty("totalSize", "-1")),
+                    props.getProperty("etag"), props.getProperty("lastModified"), props.getProperty("contentType"),
+                    props.getProperty("contentDisposition"), segments);
+
+            if (!url.equals(props.getProperty("url")) || state.validator() == null || !Files.exists(part)) {
+                state.discard();
+                return null;
+            }
+            // 끝을 모르는 단일 구간은 미리 크기를 잡지 않으므로 실제 파일 크기보다 많이 쓴 것으로 기록될 수 없음
+            if (segments.size() == 1 && segments.get(0).getEnd() < 0) {
+                Segment only = segments.get(0);
+                only.getWritten().set(Math.min(only.getWritten().get(), Files.size(part)));
+            }
+            return state;
+        } catch (IOException | RuntimeException e) {
+            log.warn("이어받기 상태를 읽을 수 없어 처음부터 다시 받습니다: {} ({})", url, e.getMessage());
+            deleteQuietly(sidecar);
+            deleteQuietly(part);
+            return null;
+        }
+    }
+
+    // =========================================================================
+    // 2. 진행 상태
+    // =========================================================================
+    /** If-Range에 쓸 검증자. If-Range에는 강한 ETag만 쓸 수 있으므로, 약한 ETag(W/)면 Last-Modified를 사용합니다. */
+    String validator() {
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return lastModified;
+    }
+
+    List<Segment> incompleteSegments() {
+        return segments.stream().filter(segment -> !segment.isComplete()).toList();
+    }
+
+    long bytesWritten() {
+        return segments.stream().mapToLong(segment -> segment.getWritten().get()).sum();
+    }
+
+    /**
+     * 구간에 length 바이트를 썼다고 기록합니다.
+     * @return 마지막 사이드카 저장 이후 쓴 바이트 수
+     */
+    long advance(Segment segment, int length) {
+        segment.getWritten().addAndGet(length);
+        return unsavedBytes.addAndGet(length);
+    }
+
+    /** 처음 받을 때의 응답 헤더 (FileMetaDataExtractor용 Content-Type / Content-Disposition과 검증자) */
+    HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) {
+            headers.set(HttpHeaders.ETAG, etag);
+        }
+        if (lastModified != null) {
+            headers.set(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+        if (contentType != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+        }
+        if (contentDisposition != null) {
+            headers.set(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+        }
+        return headers;
+    }
+
+    // =========================================================================
+    // 3. 파일 처리
+    // =========================================================================
+    /**
+     * .part 파일을 열고, 전체 크기를 알면 미리 그 크기로 잡아 둡니다. (구간별 위치 지정 쓰기용)
+     */
+    AsynchronousFileChannel openChannel() throws IOException {
+        if (totalSize > 0) {
+            try (RandomAccessFile file = new RandomAccessFile(partFile.toFile(), "rw")) {
+                if (file.length() != totalSize) {
+                    file.setLength(totalSize);
+                }
+            }
+        }
+        return AsynchronousFileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * 현재 진행 상태를 사이드카에 저장합니다. 임시 파일에 쓴 뒤 교체하므로 저장 도중 중단되어도 이전 상태가 남습니다.
+     */
+    synchronized void save() {
+        unsavedBytes.set(0);
+        Properties props = new Properties();
+        props.setProperty("url", url);
+        props.setProperty("totalSize", String.valueOf(totalSize));
+        setIfPresent(props, "etag", etag);
+        setIfPresent(props, "lastModified", lastModified);
+        setIfPresent(props, "contentType", contentType);
+        setIfPresent(props, "contentDisposition", contentDisposition);
+        props.setProperty("segmentCount", String.valueOf(segments.size()));
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            props.setProperty("segment." + i, segment.getStart() + "," + segment.getEnd() + "," + segment.getWritten().get());
+        }
+
+        Path temp = sidecarFile.resolveSibling(sidecarFile.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                props.store(writer, "partial download");
+            }
+            move(temp, sidecarFile);
+        } catch (IOException e) {
+            log.warn("이어받기 상태 저장 실패: {} ({})", sidecarFile, e.getMessage());
+        }
+    }
+
+    /**
+     * 완성된 .part 파일을 최종 경로로 원자적으로 이동하고 사이드카를 지웁니다.
+     */
+    void moveTo(Path target) throws IOException {
+        move(partFile, target);
+        deleteQuietly(sidecarFile);
+    }
+
+    /** .part 파일과 사이드카를 모두 지웁니다. (처음부터 다시 받아야 할 때) */
+    void discard() {
+        deleteQuietly(partFile);
+        deleteQuietly(sidecarFile);
+    }
+
+    // =========================================================================
+    // Private
+    // =========================================================================
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void setIfPresent(Properties props, String key, String value) {
+        if (value != null) {
+            props.setProperty(key, value);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("파일 삭제 실패: {}", path, e);
+        }
+    }
+
+    // URL을 파일명으로 쓸 수 있도록 SHA-256 해시로 변환
+    private static String hash(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다.", e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 동일한 GET(같은 최종 URL + 응답 타입)이 동시에 여러 번 들어오면 업스트림 호출을 한 번만 수행하고
+ * 나머지 호출자는 진행 중인 결과를 함께 받도록 묶어 주는 single-flight 레이어입니다.
+ * 호출이 끝나면 키가 제거되므로 결과를 보관하지는 않습니다. (보관은 ResponseCache 담당)
+ * 공유된 data 객체는 여러 호출자가 함께 보므로 읽기 전용으로 다뤄야 합니다.
+ */
+@Slf4j
+public class RequestCoalescer {
+
+    // 동기/CompletableFuture 호출용 진행 중 결과
+    private static final Map<String, CompletableFuture<ApiResponse<?>>> IN_FLIGHT = new ConcurrentHashMap<>();
+    // WebClient(Mono) 호출용 진행 중 결과
+    private static final Map<String, Mono<ApiResponse<?>>> IN_FLIGHT_MONO = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = true;
+
+    private static final AtomicLong LEADERS = new AtomicLong();
+    private static final AtomicLong WAITERS = new AtomicLong();
+
+    public static void configure(boolean coalescingEnabled) {
+        enabled = coalescingEnabled;
+        log.info("요청 병합(single-flight) 설정 적용: enabled={}", coalescingEnabled);
+    }
+
+    /** 실제로 업스트림 호출을 수행한 수 */
+    public static long getLeaderCount() {
+        return LEADERS.get();
+    }
+
+    /** 진행 중인 호출에 합류하여 업스트림 호출을 생략한 수 */
+    public static long getCoalescedCount() {
+        return WAITERS.get();
+    }
+
+    /** 병합 키 (GET 최종 URL + 응답 타입) */
+    public static String key(String url, Class<?> type) {
+        return url + '#' + type.getName();
+    }
+
+    // =========================================================================
+    // 1. 동기 호출: 첫 호출자가 현재 스레드에서 실행하고, 나머지는 그 결과(CompletableFuture)를 기다림
+    // =========================================================================
+    public static <T> ApiResponse<T> join(String key, Supplier<ApiResponse<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        CompletableFuture<ApiResponse<?>> mine = new CompletableFuture<>();
+        CompletableFuture<ApiResponse<?>> existing = IN_FLIGHT.putIfAbsent(key, mine);
+        if (existing != null) {
+            WAITERS.incrementAndGet();
+            return await(existing);
+        }
+
+        LEADERS.incrementAndGet();
+        try {
+            ApiResponse<T> response = call.get();
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            IN_FLIGHT.remove(key, mine);
+        }
+    }
+
+    // =========================================================================
+    // 2. 비동기 호출 (HttpClient sendAsync)
+    // =========================================================================
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<ApiResponse<T>> joinAsync(String key, Supplier<CompletableFuture<ApiResponse<T>>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        CompletableFuture<ApiResponse<?>> mine = new CompletableFuture<>();
+        CompletableFuture<ApiResponse<?>> existing = IN_FLIGHT.putIfAbsent(key, mine);
+        if (existing != null) {
+            WAITERS.incrementAndGet();
+            return existing.thenApply(response -> (ApiResponse<T>) response);
+        }
+
+        LEADERS.incrementAndGet();
+        CompletableFuture<ApiResponse<T>> upstream;
+        try {
+            upstream = call.get();
+        } catch (RuntimeException e) {
+            IN_FLIGHT.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        upstream.whenComplete((response, error) -> {
+            // 완료 전에 키를 지워야 늦게 도착한 호출자가 끝난 future에 합류하지 않고 새 호출을 시작합니다.
+            IN_FLIGHT.remove(key, mine);
+            if (error != null) {
+                mine.completeExceptionally(error);
+            } else {
+                mine.complete(response);
+            }
+        });
+        return upstream;
+    }
+
+    // =========================================================================
+    // 3. 리액티브 호출 (WebClient)
+    // =========================================================================
+    @SuppressWarnings("unchecked")
+    public static <T> Mono<ApiResponse<T>> joinMono(String key, Supplier<Mono<ApiResponse<T>>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            boolean[] leader = {false};
+            Mono<ApiResponse<?>> shared = IN_FLIGHT_MONO.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return createShared(k, call);
+            });
+            if (leader[0]) {
+                LEADERS.incrementAndGet();
+            } else {
+                WAITERS.incrementAndGet();
+            }
+            return shared.map(response -> (ApiResponse<T>) response);
+        });
+    }
+
+    // 업스트림 Mono를 한 번만 구독하고 결과를 모든 구독자에게 재생합니다. 종료 시 키를 제거합니다.
+    // (개별 구독자가 취소해도 업스트림 호출은 끝까지 진행되어 다른 대기자에게 전달됩니다.)
+    @SuppressWarnings("unchecked")
+    private static <T> Mono<ApiResponse<?>> createShared(String key, Supplier<Mono<ApiResponse<T>>> call) {
+        Mono<ApiResponse<?>>[] holder = new Mono[1];
+        holder[0] = call.get()
+                .<ApiResponse<?>>map(response -> response)
+                .doFinally(signal -> IN_FLIGHT_MONO.remove(key, holder[0]))
+                .cache();
+        return holder[0];
+    }
+
+    private static <T> ApiResponse<T> await(CompletableFuture<ApiResponse<?>> future) {
+        try {
+            @SuppressWarnings("unchecked")
+            ApiResponse<T> response = (ApiResponse<T>) future.join();
+            return response;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+}
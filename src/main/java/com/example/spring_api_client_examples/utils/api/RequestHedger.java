@@ -0,0 +1,328 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 멱등 요청(GET, PUT, DELETE)의 꼬리 지연(tail latency)을 줄이기 위한 요청 헤징입니다. (기본 비활성, opt-in)
+ * 첫 요청이 경로별 대기 시간 안에 끝나지 않으면 같은 요청을 한 번 더 보내고, 먼저 끝난 쪽을 쓰며 나머지는 취소합니다.
+ * (헤지 요청은 성공했을 때만 이기므로 헤지 요청이 차단되거나 실패해도 첫 요청의 결과를 그대로 받음)
+ * 대기 시간은 경로 접두사별 고정값(routeDelays)이 있으면 그것을, 없으면 관측한 응답 시간의 백분위(p95)를 사용합니다.
+ * 헤지 예산(budgetPercent)은 호스트별로 요청 100건당 보낼 수 있는 추가 요청 수로, 업스트림이 느려졌을 때 부하가 배로 늘지 않게 막습니다.
+ * (한 호스트가 느려져도 다른 호스트의 예산을 끌어다 쓰지 않음)
+ */
+@Slf4j
+public class RequestHedger {
+
+    /** Reactor 경로에서 어느 쪽이 이겼는지 전달하는 값 */
+    private static final class Attempt<T> {
+        private final T value;
+        private final boolean hedged;
+
+        private Attempt(T value, boolean hedged) {
+            this.value = value;
+            this.hedged = hedged;
+        }
+    }
+
+    /** 경로 한 곳의 최근 응답 시간. 모든 필드는 인스턴스 모니터로 보호 */
+    private static final class LatencyWindow {
+        private static final int SIZE = 128;
+        // 백분위는 이 수만큼 새로 쌓일 때마다 다시 계산
+        private static final int RECOMPUTE_EVERY = 16;
+
+        private final long[] samples = new long[SIZE];
+        private int next;
+        private int count;
+        private int sinceRecompute;
+        private long percentileNanos = -1;
+
+        private synchronized void add(long nanos, double percentile) {
+            samples[next] = nanos;
+            next = (next + 1) % SIZE;
+            if (count < SIZE) {
+                count++;
+            }
+            if (++sinceRecompute >= RECOMPUTE_EVERY || percentileNanos < 0) {
+                sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                percentileNanos = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+            }
+        }
+
+        /** 표본이 minSamples보다 적으면 -1 */
+        private synchronized long percentile(int minSamples) {
+            return count >= minSamples ? percentileNanos : -1;
+        }
+    }
+
+    /** 호스트 한 곳의 헤지 예산: 요청마다 budgetPercent/100씩 쌓이고 헤지 한 번에 1씩 씀. 인스턴스 모니터로 보호 */
+    private static final class HedgeBudget {
+        private double tokens;
+
+        private synchronized void deposit(double amount, double capacity) {
+            tokens = Math.min(capacity, tokens + amount);
+        }
+
+        private synchronized boolean tryWithdraw() {
+            if (tokens < 1.0) {
+                return false;
+            }
+            tokens -= 1.0;
+            return true;
+        }
+    }
+
+    // 경로별 응답 시간 창의 최대 개수 (넘으면 호스트 단위로 기록하여 메모리를 제한)
+    private static final int MAX_ROUTES = 256;
+    private static final Map<String, LatencyWindow> LATENCIES = new ConcurrentHashMap<>();
+    // 호스트별 헤지 예산 (호스트가 MAX_ROUTES개를 넘으면 나머지는 OVERFLOW_BUDGET을 함께 씀)
+    private static final Map<String, HedgeBudget> BUDGETS = new ConcurrentHashMap<>();
+    private static final HedgeBudget OVERFLOW_BUDGET = new HedgeBudget();
+
+    // 헤징 설정 (ApiClientConfig에서 application.properties 값으로 덮어씀)
+    private static volatile ApiClientProperties.Hedging settings = new ApiClientProperties.Hedging();
+    private static volatile Set<String> methods = Set.of();
+
+    public static void configure(ApiClientProperties.Hedging newSettings) {
+        settings = newSettings;
+        methods = newSettings.getMethods().stream()
+                .map(String::toUpperCase)
+                .collect(Collectors.toUnmodifiableSet());
+        LATENCIES.clear();
+        BUDGETS.clear();
+        synchronized (OVERFLOW_BUDGET) {
+            OVERFLOW_BUDGET.tokens = 0;
+        }
+        log.info("요청 헤징 설정 적용: enabled={}, methods={}, delay={}, routeDelays={}, percentile={}, budgetPercent={}",
+                newSettings.isEnabled(), methods, newSettings.getDelay(), newSettings.getRouteDelays(),
+                newSettings.getPercentile(), newSettings.getBudgetPercent());
+    }
+
+    /** 헤징 대상 메서드인지 (비활성이면 항상 false) */
+    public static boolean isHedgeable(String method) {
+        return settings.isEnabled() && methods.contains(method);
+    }
+
+    // =========================================================================
+    // 1. Reactor (WebClientUtil)
+    // =========================================================================
+    /**
+     * attempt를 구독하고, 대기 시간 안에 끝나지 않으면 한 번 더 구독합니다. 먼저 끝난 쪽이 이기고 다른 쪽은 취소됩니다.
+     * 단, 헤지 요청은 성공(2xx)했을 때만 이기며, 차단(CIRCUIT_OPEN, LOAD_SHED), 5xx, 연결 오류 응답은 버리고 첫 요청을 기다립니다.
+     * 서킷이 CLOSED가 아니면 HALF_OPEN 시험 호출 허가를 쓰지 않도록 헤지 요청을 보내지 않습니다.
+     * attempt는 구독할 때마다 요청을 새로 보내는 cold Mono여야 합니다.
+     * @param url 경로별 대기 시간과 응답 시간 기록에 쓸 전체 URL (쿼리는 무시)
+     */
+    public static <T> Mono<ApiResponse<T>> hedge(String client, String method, String url, Mono<ApiResponse<T>> attempt) {
+        if (!isHedgeable(method)) {
+            return attempt;
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            String route = route(url);
+            HedgeBudget budget = budget(url);
+            deposit(budget);
+            Mono<Attempt<ApiResponse<T>>> primary = attempt.map(value -> new Attempt<>(value, false));
+            Mono<Attempt<ApiResponse<T>>> hedge = Mono.delay(delayFor(route, url))
+                    .flatMap(tick -> {
+                        if (!mayFire(client, url, budget)) {
+                            return Mono.<Attempt<ApiResponse<T>>>never();
+                        }
+                        // 성공하지 못한 헤지 요청은 신호를 내지 않아 첫 요청의 결과를 기다림
+                        return attempt.flatMap(value -> {
+                                    if (isWin(value)) {
+                                        return Mono.just(new Attempt<>(value, true));
+                                    }
+                                    ClientMetrics.hedge(client, url, "dropped");
+                                    return Mono.<Attempt<ApiResponse<T>>>never();
+                                })
+                                .onErrorResume(e -> Mono.never());
+                    });
+            return Mono.firstWithSignal(primary, hedge)
+                    .map(winner -> {
+                        recordLatency(route, System.nanoTime() - start);
+                        if (winner.hedged) {
+                            ClientMetrics.hedge(client, url, "won");
+                        }
+                        return winner.value;
+                    });
+        });
+    }
+
+    // =========================================================================
+    // 2. CompletableFuture (HttpClientUtil)
+    // =========================================================================
+    /**
+     * attempt로 요청을 보내고, 대기 시간 안에 끝나지 않으면 한 번 더 보냅니다. 먼저 끝난 쪽의 값으로 완료하고 다른 쪽은 cancel합니다.
+     * Reactor 경로와 같이 헤지 요청은 성공(2xx)했을 때만 이기고, 서킷이 CLOSED가 아니면 보내지 않습니다.
+     * attempt가 돌려준 future는 취소하면 해당 요청을 중단해야 합니다. (HttpClientUtil은 허가 대기와 sendAsync 교환을 취소)
+     */
+    public static <T> CompletableFuture<ApiResponse<T>> hedge(String client, String method, String url,
+                                                              Supplier<CompletableFuture<ApiResponse<T>>> attempt) {
+        if (!isHedgeable(method)) {
+            return attempt.get();
+        }
+        long start = System.nanoTime();
+        String route = route(url);
+        HedgeBudget budget = budget(url);
+        deposit(budget);
+        CompletableFuture<ApiResponse<T>> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<ApiResponse<T>>> hedgeRef = new AtomicReference<>();
+
+        CompletableFuture<ApiResponse<T>> primary = attempt.get();
+        primary.whenComplete((value, error) -> settle(result, value, error, hedgeRef.get(), false,
+                client, url, route, start));
+
+        long delayNanos = delayFor(route, url).toNanos();
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone() || !mayFire(client, url, budget)) {
+                return;
+            }
+            CompletableFuture<ApiResponse<T>> hedge = attempt.get();
+            hedgeRef.set(hedge);
+            hedge.whenComplete((value, error) -> settle(result, value, error, primary, true,
+                    client, url, route, start));
+            if (result.isDone()) {
+                // 보내는 사이에 첫 요청이 끝난 경우
+                hedge.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // =========================================================================
+    // Private
+    // =========================================================================
+    // 한 시도가 끝났을 때: 첫 요청은 결과와 관계없이, 헤지 요청은 성공했을 때만 결과로 쓰고 다른 시도를 취소
+    private static <T> void settle(CompletableFuture<ApiResponse<T>> result, ApiResponse<T> value, Throwable error,
+                                   CompletableFuture<ApiResponse<T>> other, boolean hedged,
+                                   String client, String url, String route, long start) {
+        if (hedged && (error != null || !isWin(value))) {
+            // 첫 요청이 이겨서 취소된 헤지 요청은 세지 않음
+            if (!(error instanceof CancellationException)) {
+                ClientMetrics.hedge(client, url, "dropped");
+            }
+            return;
+        }
+        boolean completed = error == null ? result.complete(value) : result.completeExceptionally(error);
+        if (!completed) {
+            return;
+        }
+        if (error == null) {
+            recordLatency(route, System.nanoTime() - start);
+            if (hedged) {
+                ClientMetrics.hedge(client, url, "won");
+            }
+        }
+        if (other != null) {
+            other.cancel(true);
+        }
+    }
+
+    // 헤지 요청을 보내도 되는지: 서킷이 CLOSED이고(HALF_OPEN 시험 호출 허가를 쓰지 않도록) 예산이 남아 있어야 함
+    private static boolean mayFire(String client, String url, HedgeBudget budget) {
+        if (!CircuitBreaker.isClosed(url)) {
+            ClientMetrics.hedge(client, url, "circuit_not_closed");
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            ClientMetrics.hedge(client, url, "budget_exhausted");
+            return false;
+        }
+        ClientMetrics.hedge(client, url, "fired");
+        return true;
+    }
+
+    // 헤지 요청이 이길 수 있는 응답: 성공(2xx)만
+    private static boolean isWin(ApiResponse<?> response) {
+        return response.getHttpStatusCode() >= 200 && response.getHttpStatusCode() < 300;
+    }
+
+    // 경로 접두사별 고정 대기 시간 > 관측 백분위 > 기본 대기 시간 순. 너무 짧으면 minDelay로 올림
+    private static Duration delayFor(String route, String url) {
+        ApiClientProperties.Hedging current = settings;
+        String path = path(url);
+        Duration fixed = null;
+        int matched = -1;
+        for (Map.Entry<String, Duration> entry : current.getRouteDelays().entrySet()) {
+            String prefix = entry.getKey();
+            if (path != null && path.startsWith(prefix) && prefix.length() > matched) {
+                fixed = entry.getValue();
+                matched = prefix.length();
+            }
+        }
+        if (fixed != null) {
+            return fixed;
+        }
+        LatencyWindow window = LATENCIES.get(route);
+        long observed = window != null ? window.percentile(current.getMinSamples()) : -1;
+        Duration delay = observed > 0 ? Duration.ofNanos(observed) : current.getDelay();
+        return delay.compareTo(current.getMinDelay()) < 0 ? current.getMinDelay() : delay;
+    }
+
+    private static void recordLatency(String route, long nanos) {
+        LatencyWindow window = LATENCIES.get(route);
+        if (window == null) {
+            if (LATENCIES.size() >= MAX_ROUTES) {
+                return;
+            }
+            window = LATENCIES.computeIfAbsent(route, key -> new LatencyWindow());
+        }
+        window.add(nanos, settings.getPercentile());
+    }
+
+    private static void deposit(HedgeBudget budget) {
+        ApiClientProperties.Hedging current = settings;
+        double perRequest = current.getBudgetPercent() / 100.0;
+        // 예산이 한꺼번에 몰려 쓰이지 않도록 요청 100건 동안 쌓이는 양까지만 모아 둠
+        budget.deposit(perRequest, Math.max(1.0, perRequest * 100));
+    }
+
+    private static HedgeBudget budget(String url) {
+        String host = UrlBuilder.hostKey(url);
+        HedgeBudget budget = BUDGETS.get(host);
+        if (budget == null) {
+            if (BUDGETS.size() >= MAX_ROUTES) {
+                return OVERFLOW_BUDGET;
+            }
+            budget = BUDGETS.computeIfAbsent(host, key -> new HedgeBudget());
+        }
+        return budget;
+    }
+
+    // 응답 시간 창의 키: 호스트 + 경로 (쿼리 제외). 경로 창이 MAX_ROUTES개를 넘으면 호스트 단위
+    private static String route(String url) {
+        try {
+            URI uri = URI.create(url);
+            String host = UrlBuilder.hostKey(url);
+            String key = host + (uri.getPath() != null ? uri.getPath() : "");
+            return LATENCIES.containsKey(key) || LATENCIES.size() < MAX_ROUTES ? key : host;
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+
+    private static String path(String url) {
+        try {
+            return URI.create(url).getPath();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 네 가지 클라이언트 유틸리티가 공유하는 GET 응답 캐시입니다. (키: 최종 URL + 응답 타입)
+ *
+ * <ul>
+ *   <li>신선(fresh): TTL 이내면 업스트림 호출 없이 캐시 값을 반환</li>
+ *   <li>stale-while-revalidate: TTL이 지났지만 SWR 구간 이내면 캐시 값을 즉시 반환하고 백그라운드에서 재검증</li>
+ *   <li>그 이후: 보관 중인 ETag/Last-Modified로 조건부 요청을 보내고, 304면 본문 전송/역직렬화 없이 캐시 값을 갱신</li>
+ * </ul>
+ * 동시에 발생한 miss/조건부 요청은 RequestCoalescer로 병합됩니다. 엔트리 수는 Caffeine(W-TinyLFU)으로 제한됩니다.
+ * 변경 가능한 data(DTO, 배열, 컬렉션 등)는 JSON 바이트로 보관하고 적중할 때마다 새 객체로 만들어 돌려주므로,
+ * 호출자가 받은 data를 고쳐도 캐시나 다른 호출자(적중, stale 적중, 병합된 miss)의 값은 바뀌지 않습니다.
+ * (String, 숫자, enum 같은 불변 값은 그대로 공유)
+ */
+@Slf4j
+public class ResponseCache {
+
+    /** 동기 유틸리티용 조건부 GET 호출 (검증자가 없으면 null) */
+    @FunctionalInterface
+    interface Fetcher<T> {
+        ConditionalResponse<T> fetch(String etag, String lastModified);
+    }
+
+    /** WebClient용 조건부 GET 호출 */
+    @FunctionalInterface
+    interface ReactiveFetcher<T> {
+        Mono<ConditionalResponse<T>> fetch(String etag, String lastModified);
+    }
+
+    private static volatile ApiClientProperties.ResponseCache settings = new ApiClientProperties.ResponseCache();
+    private static volatile Cache<String, Entry> cache = buildCache(settings);
+    private static volatile ExecutorService refreshExecutor;
+    // 같은 키의 백그라운드 재검증이 중복 실행되지 않도록 진행 중인 키를 기록
+    private static final Set<String> REFRESHING = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong STALE_HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong NOT_MODIFIED = new AtomicLong();
+
+    // 복사하지 않고 공유해도 되는 불변 data 타입 (enum 포함)
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(String.class, Boolean.class, Character.class,
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+            BigInteger.class, BigDecimal.class);
+
+    // =========================================================================
+    // 0. 설정 및 통계
+    // =========================================================================
+    /**
+     * 캐시 설정을 적용합니다. 기존 엔트리는 모두 버려집니다.
+     */
+    public static synchronized void configure(ApiClientProperties.ResponseCache newSettings) {
+        settings = newSettings;
+        cache = buildCache(newSettings);
+        ExecutorService previous = refreshExecutor;
+        refreshExecutor = null;
+        if (previous != null) {
+            previous.shutdown();
+        }
+        log.info("응답 캐시 설정 적용: enabled={}, maximumSize={}, defaultTtl={}, staleWhileRevalidate={}, routeTtls={}",
+                newSettings.isEnabled(), newSettings.getMaximumSize(), newSettings.getDefaultTtl(),
+                newSettings.getStaleWhileRevalidate(), newSettings.getRouteTtls());
+    }
+
+    /** 애플리케이션 종료 시 백그라운드 재검증 스레드를 정리합니다. */
+    public static synchronized void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+            refreshExecutor = null;
+        }
+    }
+
+    public static void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /** TTL 이내 캐시 적중 수 */
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    /** stale-while-revalidate 구간에서 캐시 값을 반환한 수 */
+    public static long getStaleHitCount() {
+        return STALE_HITS.get();
+    }
+
+    /** 업스트림을 호출해야 했던 수 (조건부 요청 포함) */
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    /** 조건부 요청이 304로 끝나 본문 없이 재검증된 수 */
+    public static long getNotModifiedCount() {
+        return NOT_MODIFIED.get();
+    }
+
+    /** 크기 제한으로 제거된 엔트리 수 */
+    public static long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public static long getSize() {
+        return cache.estimatedSize();
+    }
+
+    // =========================================================================
+    // 1. 동기 조회
+    // =========================================================================
+    static <T> ApiResponse<T> get(String url, Class<T> type, Fetcher<T> fetcher) {
+        String key = RequestCoalescer.key(url, type);
+        if (!settings.isEnabled()) {
+            return detach(RequestCoalescer.join(key, () -> fetcher.fetch(null, null).getResponse()), type);
+        }
+        Entry cached = cache.getIfPresent(key);
+        long now = System.nanoTime();
+
+        if (cached != null && cached.isFresh(now)) {
+            HITS.incrementAndGet();
+            return cached.toResponse(type);
+        }
+        if (cached != null && cached.isStaleUsable(now)) {
+            STALE_HITS.incrementAndGet();
+            refreshInBackground(key, () -> store(key, url, type, cached, fetcher.fetch(cached.etag, cached.lastModified)));
+            return cached.toResponse(type);
+        }
+        MISSES.incrementAndGet();
+        // 같은 키로 동시에 들어온 miss는 업스트림 호출 한 번으로 병합 (병합된 호출자마다 data를 따로 받음)
+        return detach(RequestCoalescer.join(key, () -> {
+            ConditionalResponse<T> result = cached != null
+                    ? fetcher.fetch(cached.etag, cached.lastModified)
+                    : fetcher.fetch(null, null);
+            return store(key, url, type, cached, result);
+        }), type);
+    }
+
+    // =========================================================================
+    // 2. 리액티브 조회 (WebClient)
+    // =========================================================================
+    static <T> Mono<ApiResponse<T>> getMono(String url, Class<T> type, ReactiveFetcher<T> fetcher) {
+        return Mono.defer(() -> {
+            String key = RequestCoalescer.key(url, type);
+            if (!settings.isEnabled()) {
+                return RequestCoalescer.joinMono(key, () -> fetcher.fetch(null, null).map(ConditionalResponse::getResponse))
+                        .map(response -> detach(response, type));
+            }
+            Entry cached = cache.getIfPresent(key);
+            long now = System.nanoTime();
+
+            if (cached != null && cached.isFresh(now)) {
+                HITS.incrementAndGet();
+                return Mono.just(cached.toResponse(type));
+            }
+            if (cached != null && cached.isStaleUsable(now)) {
+                STALE_HITS.incrementAndGet();
+                if (REFRESHING.add(key)) {
+                    fetcher.fetch(cached.etag, cached.lastModified)
+                            .doFinally(signal -> REFRESHING.remove(key))
+                            .subscribe(result -> store(key, url, type, cached, result),
+                                    e -> log.warn("응답 캐시 백그라운드 재검증 실패: {} ({})", url, e.getMessage()));
+                }
+                return Mono.just(cached.toResponse(type));
+            }
+            MISSES.incrementAndGet();
+            // 같은 키로 동시에 들어온 miss는 업스트림 호출 한 번으로 병합 (병합된 호출자마다 data를 따로 받음)
+            return RequestCoalescer.joinMono(key, () -> {
+                Mono<ConditionalResponse<T>> call = cached != null
+                        ? fetcher.fetch(cached.etag, cached.lastModified)
+                        : fetcher.fetch(null, null);
+                return call.map(result -> store(key, url, type, cached, result));
+            }).map(response -> detach(response, type));
+        });
+    }
+
+    // =========================================================================
+    // Private 헬퍼
+    // =========================================================================
+    /**
+     * 조건부 요청 결과를 캐시에 반영하고 호출자에게 돌려줄 응답을 반환합니다.
+     * 304면 기존 엔트리의 TTL만 갱신하고, 2xx 본문이면 새 엔트리로 교체합니다. 실패 응답은 캐시하지 않습니다.
+     */
+    private static <T> ApiResponse<T> store(String key, String url, Class<T> type, Entry previous,
+                                            ConditionalResponse<T> result) {
+        if (result.isNotModified()) {
+            if (previous == null) {
+                // 검증자를 보내지 않았는데 304가 온 비정상 응답
+                return result.getResponse();
+            }
+            NOT_MODIFIED.incrementAndGet();
+            Entry renewed = previous.renew(ttlFor(url),
+                    result.getEtag() != null ? result.getEtag() : previous.etag,
+                    result.getLastModified() != null ? result.getLastModified() : previous.lastModified);
+            cache.put(key, renewed);
+            return renewed.toResponse(type);
+        }
+
+        ApiResponse<T> response = result.getResponse();
+        int status = response.getHttpStatusCode();
+        if (status >= 200 && status < 300 && response.getData() != null) {
+            Object data = response.getData();
+            try {
+                byte[] json = isImmutable(data) ? null : JsonStreamDecoder.encode(data);
+                cache.put(key, new Entry(status, json == null ? data : null, json,
+                        result.getEtag(), result.getLastModified(), ttlFor(url)));
+            } catch (IOException e) {
+                log.warn("응답 캐시 저장 실패(직렬화 불가): {} ({})", url, e.getMessage());
+            }
+        }
+        return response;
+    }
+
+    // 병합된 호출의 공유 응답에서 호출자 한 명 몫의 data를 따로 만듦 (불변 값, 실패 응답, data가 없으면 그대로)
+    private static <T> ApiResponse<T> detach(ApiResponse<T> response, Class<T> type) {
+        T data = response.getData();
+        int status = response.getHttpStatusCode();
+        if (data == null || isImmutable(data) || status < 200 || status >= 300) {
+            return response;
+        }
+        try {
+            return ApiResponse.success(status, JsonStreamDecoder.decode(JsonStreamDecoder.encode(data), type));
+        } catch (IOException e) {
+            throw new UncheckedIOException("응답 data 복사 실패", e);
+        }
+    }
+
+    private static boolean isImmutable(Object data) {
+        return IMMUTABLE_TYPES.contains(data.getClass()) || data instanceof Enum<?>;
+    }
+
+    private static void refreshInBackground(String key, Runnable refresh) {
+        if (!REFRESHING.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor().execute(() -> {
+                try {
+                    refresh.run();
+                } catch (RuntimeException e) {
+                    log.warn("응답 캐시 백그라운드 재검증 실패: {} ({})", key, e.getMessage());
+                } finally {
+                    REFRESHING.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 종료 중 등으로 실행을 거부당한 경우
+            REFRESHING.remove(key);
+        }
+    }
+
+    private static synchronized ExecutorService refreshExecutor() {
+        if (refreshExecutor == null) {
+            AtomicInteger sequence = new AtomicInteger();
+            refreshExecutor = Executors.newFixedThreadPool(Math.max(1, settings.getRefreshThreads()), runnable -> {
+                Thread thread = new Thread(runnable, "response-cache-refresh-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return refreshExecutor;
+    }
+
+    // 경로 접두사가 가장 길게 일치하는 TTL, 없으면 기본 TTL
+    private static Duration ttlFor(String url) {
+        ApiClientProperties.ResponseCache current = settings;
+        String path;
+        try {
+            path = URI.create(url).getPath();
+        } catch (IllegalArgumentException e) {
+            return current.getDefaultTtl();
+        }
+        Duration ttl = current.getDefaultTtl();
+        int matched = -1;
+        for (Map.Entry<String, Duration> route : current.getRouteTtls().entrySet()) {
+            String prefix = route.getKey();
+            if (path != null && path.startsWith(prefix) && prefix.length() > matched) {
+                ttl = route.getValue();
+                matched = prefix.length();
+            }
+        }
+        return ttl;
+    }
+
+    private static Cache<String, Entry> buildCache(ApiClientProperties.ResponseCache current) {
+        return Caffeine.newBuilder()
+                .maximumSize(current.getMaximumSize())
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry value, long currentTime) {
+                        return value.retainNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+                        return value.retainNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    // 캐시 엔트리: data(불변 값) 또는 JSON 바이트(변경 가능한 값)와 검증자, 신선/stale 만료 시각(nanoTime 기준)
+    private static final class Entry {
+        private final int status;
+        private final Object data;
+        private final byte[] json;
+        private final String etag;
+        private final String lastModified;
+        private final long freshUntil;
+        private final long staleUntil;
+        private final long retainNanos;
+
+        private Entry(int status, Object data, byte[] json, String etag, String lastModified, Duration ttl) {
+            ApiClientProperties.ResponseCache current = settings;
+            long now = System.nanoTime();
+            this.status = status;
+            this.data = data;
+            this.json = json;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.freshUntil = now + ttl.toNanos();
+            this.staleUntil = freshUntil + current.getStaleWhileRevalidate().toNanos();
+            // 검증자가 없으면 조건부 요청을 보낼 수 없으므로 SWR 구간까지만 보관
+            boolean revalidatable = etag != null || lastModified != null;
+            this.retainNanos = ttl.toNanos() + current.getStaleWhileRevalidate().toNanos()
+                    + (revalidatable ? current.getRevalidationRetention().toNanos() : 0);
+        }
+
+        private Entry renew(Duration ttl, String newEtag, String newLastModified) {
+            return new Entry(status, data, json, newEtag, newLastModified, ttl);
+        }
+
+        private boolean isFresh(long now) {
+            return now - freshUntil < 0;
+        }
+
+        private boolean isStaleUsable(long now) {
+            return now - staleUntil < 0;
+        }
+
+        // 변경 가능한 data는 호출자마다 JSON 바이트에서 새로 만듦 (엔트리 키에 응답 타입이 들어 있으므로 type은 저장할 때와 같음)
+        @SuppressWarnings("unchecked")
+        private <T> ApiResponse<T> toResponse(Class<T> type) {
+            if (json == null) {
+                return ApiResponse.success(status, (T) data);
+            }
+            try {
+                return ApiResponse.success(status, JsonStreamDecoder.decode(json, type));
+            } catch (IOException e) {
+                throw new UncheckedIOException("캐시된 응답 복원 실패: " + type.getName(), e);
+            }
+        }
+    }
+}
@@ -1,26 +1,165 @@
 package com.example.spring_api_client_examples.utils.api;
 
+import com.example.spring_api_client_examples.config.ApiClientProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpStatusCodeException; // 공통 부모 예외 임포트
+import reactor.netty.resources.ConnectionProvider;
 
+import java.io.IOException;
 import java.util.Map;
 
 @Slf4j
 public class RestTemplateUtil {
-    private static final RestTemplate REST_TEMPLATE;
+    private static final String CLIENT = ClientMetrics.REST_TEMPLATE;
+    private static volatile RestTemplate restTemplate;
+    // 현재 팩토리가 소유한 리소스 (교체/종료 시 정리)
+    private static volatile PoolingHttpClientConnectionManager apacheConnectionManager;
+    private static volatile CloseableHttpClient apacheHttpClient;
+    private static volatile ConnectionProvider reactorConnectionProvider;
+
     static {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(5000);
-        factory.setReadTimeout(5000);
-        REST_TEMPLATE = new RestTemplate(factory);
+        configure(new ApiClientProperties.RestTemplate());
+    }
+
+    // =========================================================================
+    // 0. 요청 팩토리 설정 및 풀 통계
+    // =========================================================================
+    /**
+     * 설정에 맞는 ClientHttpRequestFactory로 RestTemplate을 다시 만듭니다. 이전 팩토리의 커넥션 풀은 정리됩니다.
+     */
+    public static synchronized void configure(ApiClientProperties.RestTemplate settings) {
+        PoolingHttpClientConnectionManager oldApacheManager = apacheConnectionManager;
+        CloseableHttpClient oldApacheClient = apacheHttpClient;
+        ConnectionProvider oldReactorProvider = reactorConnectionProvider;
+        apacheConnectionManager = null;
+        apacheHttpClient = null;
+        reactorConnectionProvider = null;
+
+        RestTemplate template = new RestTemplate(createRequestFactory(settings));
+        // 호스트의 서킷이 열려 있거나 동시 요청 제한에 걸리면 보내지 않음 (허가는 응답을 닫을 때 반납)
+        template.getInterceptors().add(new LimitingInterceptor());
+        // 요청/응답 본문 바이트 수 집계 (팩토리 종류와 무관하게 동작)
+        template.getInterceptors().add(new ByteCountingInterceptor(CLIENT));
+        restTemplate = template;
+        log.info("RestTemplate 요청 팩토리 적용: {}", settings.getFactory());
+
+        closeQuietly(oldApacheClient, oldApacheManager, oldReactorProvider);
+    }
+
+    /** 애플리케이션 종료 시 커넥션 풀을 정리합니다. */
+    public static synchronized void shutdown() {
+        closeQuietly(apacheHttpClient, apacheConnectionManager, reactorConnectionProvider);
+        apacheConnectionManager = null;
+        apacheHttpClient = null;
+        reactorConnectionProvider = null;
+    }
+
+    /**
+     * APACHE 팩토리 사용 시 커넥션 풀 통계(leased/available/pending/max)를 반환합니다.
+     * 다른 팩토리를 사용 중이면 null을 반환합니다. (REACTOR는 Micrometer 게이지로 노출됨)
+     */
+    public static PoolStats getPoolStats() {
+        PoolingHttpClientConnectionManager manager = apacheConnectionManager;
+        return manager != null ? manager.getTotalStats() : null;
+    }
+
+    private static ClientHttpRequestFactory createRequestFactory(ApiClientProperties.RestTemplate settings) {
+        switch (settings.getFactory()) {
+            case APACHE: {
+                PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(settings.getMaxConnTotal())
+                        .setMaxConnPerRoute(settings.getMaxConnPerRoute())
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofMilliseconds(settings.getConnectTimeout().toMillis()))
+                                .setSocketTimeout(Timeout.ofMilliseconds(settings.getReadTimeout().toMillis()))
+                                .setTimeToLive(TimeValue.ofMilliseconds(settings.getConnectionTtl().toMillis()))
+                                .setValidateAfterInactivity(TimeValue.ofMilliseconds(settings.getValidateAfterInactivity().toMillis()))
+                                .build())
+                        .build();
+                // evictExpiredConnections/evictIdleConnections: 백그라운드 제거(eviction) 스레드 시작
+                CloseableHttpClient httpClient = HttpClients.custom()
+                        .setConnectionManager(manager)
+                        .evictExpiredConnections()
+                        .evictIdleConnections(TimeValue.ofMilliseconds(settings.getEvictIdleTime().toMillis()))
+                        .build();
+                apacheConnectionManager = manager;
+                apacheHttpClient = httpClient;
+
+                HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+                factory.setConnectionRequestTimeout((int) settings.getConnectionRequestTimeout().toMillis());
+                return factory;
+            }
+            case JDK: {
+                // JDK HttpClient는 자체 커넥션 풀을 사용하며 라우트별 제한은 지원하지 않습니다.
+                java.net.http.HttpClient httpClient = java.net.http.HttpClient.newBuilder()
+                        .connectTimeout(settings.getConnectTimeout())
+                        .build();
+                JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+                factory.setReadTimeout(settings.getReadTimeout());
+                return factory;
+            }
+            case REACTOR: {
+                ConnectionProvider provider = ConnectionProvider.builder("resttemplate-pool")
+                        .maxConnections(settings.getMaxConnPerRoute())
+                        .maxLifeTime(settings.getConnectionTtl())
+                        .maxIdleTime(settings.getEvictIdleTime())
+                        .evictInBackground(settings.getEvictIdleTime())
+                        .metrics(true)
+                        .build();
+                reactorConnectionProvider = provider;
+
+                ReactorClientHttpRequestFactory factory = new ReactorClientHttpRequestFactory(
+                        reactor.netty.http.client.HttpClient.create(provider));
+                factory.setConnectTimeout(settings.getConnectTimeout());
+                factory.setReadTimeout(settings.getReadTimeout());
+                return factory;
+            }
+            case SIMPLE:
+            default: {
+                SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+                factory.setConnectTimeout((int) settings.getConnectTimeout().toMillis());
+                factory.setReadTimeout((int) settings.getReadTimeout().toMillis());
+                return factory;
+            }
+        }
+    }
+
+    private static void closeQuietly(CloseableHttpClient httpClient, PoolingHttpClientConnectionManager manager,
+                                     ConnectionProvider provider) {
+        try {
+            if (httpClient != null) {
+                httpClient.close(); // 커넥션 매니저와 eviction 스레드도 함께 종료됨
+            } else if (manager != null) {
+                manager.close();
+            }
+        } catch (IOException e) {
+            log.warn("Apache HttpClient 종료 중 오류: {}", e.getMessage());
+        }
+        if (provider != null) {
+            provider.dispose();
+        }
     }
 
     // =========================================================================
@@ -29,39 +168,93 @@ public class RestTemplateUtil {
     public static <T> ApiResponse<T> get(String baseUrl, Map<String, Object> params, Class<T> responseType){
         String finalUrl = UrlBuilder.buildUrlWithParams(baseUrl, params);
         log.info("---- RestTemplate GET 호출 URL: {} -----", finalUrl);
+        return RetryEngine.execute(CLIENT, "GET", finalUrl, () -> {
+            long start = System.nanoTime();
 
-        try {
-            ResponseEntity<T> responseEntity = REST_TEMPLATE.getForEntity(finalUrl, responseType);
-            return handleResponse(responseEntity);
-        }catch (HttpClientErrorException e){
-            return handleHttpError(e, responseType);
-        }catch (HttpServerErrorException e){
-            return handleHttpError(e, responseType);
-        }catch (ResourceAccessException e) {
-            return ApiResponse.fail(503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage());
-        } catch (Exception e) {
-            return ApiResponse.fail(500, "Unexpected error: " + e.getMessage());
-        }
+            try {
+                ResponseEntity<T> responseEntity = restTemplate.getForEntity(finalUrl, responseType);
+                return record("GET", finalUrl, start, handleResponse(responseEntity));
+            }catch (HttpClientErrorException e){
+                return record("GET", finalUrl, start, handleHttpError(e, responseType));
+            }catch (HttpServerErrorException e){
+                return record("GET", finalUrl, start, handleHttpError(e, responseType));
+            }catch (ResourceAccessException e) {
+                return recordFailure("GET", finalUrl, start,
+                        CircuitBreaker.failure(e, 503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage()));
+            } catch (Exception e) {
+                return handleUnexpectedError("GET", finalUrl, start, e);
+            }
+        });
     }
 
 
 
+    /**
+     * 공유 응답 캐시(ResponseCache)를 거치는 GET. 캐시가 만료되면 ETag/Last-Modified로 조건부 요청을 보냅니다.
+     * 반환된 data는 호출자마다 따로 만든 객체이므로 고쳐도 캐시나 다른 호출자에 영향이 없습니다.
+     */
+    public static <T> ApiResponse<T> getCached(String baseUrl, Map<String, Object> params, Class<T> responseType) {
+        String finalUrl = UrlBuilder.buildUrlWithParams(baseUrl, params);
+        return ResponseCache.get(finalUrl, responseType, (etag, lastModified) -> {
+            log.info("---- RestTemplate GET(cache miss) 호출 URL: {} -----", finalUrl);
+            return conditionalGet(finalUrl, responseType, etag, lastModified);
+        });
+    }
+
+    // 검증자(etag/lastModified)가 있으면 조건부 요청을 보내고, 304면 본문 없이 notModified를 반환합니다.
+    static <T> ConditionalResponse<T> conditionalGet(String fullUrl, Class<T> responseType, String etag, String lastModified) {
+        return RetryEngine.execute(CLIENT, "GET", fullUrl, () -> {
+            long start = System.nanoTime();
+            HttpHeaders headers = new HttpHeaders();
+            if (etag != null) {
+                headers.setIfNoneMatch(etag);
+            }
+            if (lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+
+            try {
+                ResponseEntity<T> responseEntity = restTemplate.exchange(
+                        fullUrl, HttpMethod.GET, new HttpEntity<>(headers), responseType);
+                String newEtag = responseEntity.getHeaders().getETag();
+                String newLastModified = responseEntity.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+                if (responseEntity.getStatusCode().value() == 304) {
+                    ConditionalResponse<T> notModified = ConditionalResponse.notModified(newEtag, newLastModified);
+                    record("GET", fullUrl, start, notModified.getResponse());
+                    return notModified;
+                }
+                return ConditionalResponse.of(record("GET", fullUrl, start, handleResponse(responseEntity)), newEtag, newLastModified);
+            }catch (HttpClientErrorException | HttpServerErrorException e){
+                return ConditionalResponse.of(record("GET", fullUrl, start, handleHttpError(e, responseType)), null, null);
+            }catch (ResourceAccessException e) {
+                return ConditionalResponse.of(recordFailure("GET", fullUrl, start,
+                        CircuitBreaker.failure(e, 503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage())), null, null);
+            } catch (Exception e) {
+                return ConditionalResponse.of(handleUnexpectedError("GET", fullUrl, start, e), null, null);
+            }
+        }, ConditionalResponse::getResponse);
+    }
+
     // =========================================================================
     // 2. POST (데이터 생성)
     // =========================================================================
     public static <T> ApiResponse<T> post(String fullUrl, Object requestBody, Class<T> responseType) {
         log.info("---- RestTemplate POST 호출 URL: {} -----", fullUrl);
+        return RetryEngine.execute(CLIENT, "POST", fullUrl, () -> {
+            long start = System.nanoTime();
 
-        try {
-            ResponseEntity<T> responseEntity = REST_TEMPLATE.postForEntity(fullUrl, requestBody, responseType);
-            return handleResponse(responseEntity);
-        }catch (HttpClientErrorException | HttpServerErrorException e){
-            return handleHttpError(e, responseType);
-        }catch (ResourceAccessException e) {
-            return ApiResponse.fail(503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage());
-        } catch (Exception e) {
-            return ApiResponse.fail(500, "Unexpected error: " + e.getMessage());
-        }
+            try {
+                ResponseEntity<T> responseEntity = restTemplate.postForEntity(fullUrl, requestBody, responseType);
+                return record("POST", fullUrl, start, handleResponse(responseEntity));
+            }catch (HttpClientErrorException | HttpServerErrorException e){
+                return record("POST", fullUrl, start, handleHttpError(e, responseType));
+            }catch (ResourceAccessException e) {
+                return recordFailure("POST", fullUrl, start,
+                        CircuitBreaker.failure(e, 503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage()));
+            } catch (Exception e) {
+                return handleUnexpectedError("POST", fullUrl, start, e);
+            }
+        });
     }
 
     // =========================================================================
@@ -69,20 +262,24 @@ public class RestTemplateUtil {
     // =========================================================================
     public static <T> ApiResponse<T> put(String fullUrl, Object requestBody, Class<T> responseType) {
         log.info("---- RestTemplate PUT 호출 URL: {} -----", fullUrl);
+        return RetryEngine.execute(CLIENT, "PUT", fullUrl, () -> {
+            long start = System.nanoTime();
 
-        try {
-            HttpEntity<Object> requestEntity = new HttpEntity<>(requestBody);
-            ResponseEntity<T> responseEntity = REST_TEMPLATE.exchange(
-                    fullUrl, HttpMethod.PUT, requestEntity, responseType);
-
-            return handleResponse(responseEntity);
-        }catch (HttpClientErrorException | HttpServerErrorException e){
-            return handleHttpError(e, responseType);
-        }catch (ResourceAccessException e) {
-            return ApiResponse.fail(503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage());
-        } catch (Exception e) {
-            return ApiResponse.fail(500, "Unexpected error: " + e.getMessage());
-        }
+            try {
+                HttpEntity<Object> requestEntity = new HttpEntity<>(requestBody);
+                ResponseEntity<T> responseEntity = restTemplate.exchange(
+                        fullUrl, HttpMethod.PUT, requestEntity, responseType);
+
+                return record("PUT", fullUrl, start, handleResponse(responseEntity));
+            }catch (HttpClientErrorException | HttpServerErrorException e){
+                return record("PUT", fullUrl, start, handleHttpError(e, responseType));
+            }catch (ResourceAccessException e) {
+                return recordFailure("PUT", fullUrl, start,
+                        CircuitBreaker.failure(e, 503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage()));
+            } catch (Exception e) {
+                return handleUnexpectedError("PUT", fullUrl, start, e);
+            }
+        });
     }
 
     // =========================================================================
@@ -90,20 +287,24 @@ public class RestTemplateUtil {
     // =========================================================================
     public static <T> ApiResponse<T> patch(String fullUrl, Object requestBody, Class<T> responseType) {
         log.info("---- RestTemplate PATCH 호출 URL: {} -----", fullUrl);
+        return RetryEngine.execute(CLIENT, "PATCH", fullUrl, () -> {
+            long start = System.nanoTime();
 
-        try {
-            HttpEntity<Object> requestEntity = new HttpEntity<>(requestBody);
-            ResponseEntity<T> responseEntity = REST_TEMPLATE.exchange(
-                    fullUrl, HttpMethod.PATCH, requestEntity, responseType);
-
-            return handleResponse(responseEntity);
-        }catch (HttpClientErrorException | HttpServerErrorException e){
-            return handleHttpError(e, responseType);
-        }catch (ResourceAccessException e) {
-            return ApiResponse.fail(503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage());
-        } catch (Exception e) {
-            return ApiResponse.fail(500, "Unexpected error: " + e.getMessage());
-        }
+            try {
+                HttpEntity<Object> requestEntity = new HttpEntity<>(requestBody);
+                ResponseEntity<T> responseEntity = restTemplate.exchange(
+                        fullUrl, HttpMethod.PATCH, requestEntity, responseType);
+
+                return record("PATCH", fullUrl, start, handleResponse(responseEntity));
+            }catch (HttpClientErrorException | HttpServerErrorException e){
+                return record("PATCH", fullUrl, start, handleHttpError(e, responseType));
+            }catch (ResourceAccessException e) {
+                return recordFailure("PATCH", fullUrl, start,
+                        CircuitBreaker.failure(e, 503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage()));
+            } catch (Exception e) {
+                return handleUnexpectedError("PATCH", fullUrl, start, e);
+            }
+        });
     }
 
     // =========================================================================
@@ -111,18 +312,22 @@ public class RestTemplateUtil {
     // =========================================================================
     public static ApiResponse<Void> delete(String fullUrl) {
         log.info("---- RestTemplate DELETE 호출 URL: {} -----", fullUrl);
+        return RetryEngine.execute(CLIENT, "DELETE", fullUrl, () -> {
+            long start = System.nanoTime();
 
-        try {
-            REST_TEMPLATE.delete(fullUrl);
-            return ApiResponse.success(204, null); // 204 No Content
-        }catch (HttpClientErrorException | HttpServerErrorException e){
-            // T가 Void이므로, Void.class를 명시적으로 전달
-            return handleHttpError(e, Void.class);
-        }catch (ResourceAccessException e) {
-            return ApiResponse.fail(503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage());
-        } catch (Exception e) {
-            return ApiResponse.fail(500, "Unexpected error: " + e.getMessage());
-        }
+            try {
+                restTemplate.delete(fullUrl);
+                return record("DELETE", fullUrl, start, ApiResponse.success(204, null)); // 204 No Content
+            }catch (HttpClientErrorException | HttpServerErrorException e){
+                // T가 Void이므로, Void.class를 명시적으로 전달
+                return record("DELETE", fullUrl, start, handleHttpError(e, Void.class));
+            }catch (ResourceAccessException e) {
+                return recordFailure("DELETE", fullUrl, start,
+                        CircuitBreaker.failure(e, 503, "Resource Access Error (Timeout/Connection Refused): " + e.getMessage()));
+            } catch (Exception e) {
+                return handleUnexpectedError("DELETE", fullUrl, start, e);
+            }
+        });
     }
 
     // =========================================================================
@@ -144,6 +349,24 @@ public class RestTemplateUtil {
         }
     }
 
+    // 예상하지 못한 예외 처리: 응답 본문 변환(HttpMessageConverter) 실패는 파싱 실패로 집계
+    private static <T> ApiResponse<T> handleUnexpectedError(String method, String url, long start, Exception e) {
+        if (e.getCause() instanceof HttpMessageNotReadableException) {
+            log.error("RestTemplate JSON Parsing Error: {}", e.getMessage());
+            ClientMetrics.parseFailure(CLIENT, url);
+            return record(method, url, start, ApiResponse.fail(500, "JSON Parsing Error: " + e.getMessage()));
+        }
+        return recordFailure(method, url, start, ApiResponse.fail(500, "Unexpected error: " + e.getMessage()));
+    }
+
+    private static <T> ApiResponse<T> record(String method, String url, long start, ApiResponse<T> response) {
+        return ClientMetrics.record(CLIENT, method, url, start, response);
+    }
+
+    private static <T> ApiResponse<T> recordFailure(String method, String url, long start, ApiResponse<T> response) {
+        return ClientMetrics.recordFailure(CLIENT, method, url, start, response);
+    }
+
     // HttpStatusCodeException (4xx 또는 5xx)을 ApiResponse.fail로 변환하는 공통 로직
     // [최종 수정]: T 타입을 명시적으로 받아 타입 추론 오류 해결
     private static <T> ApiResponse<T> handleHttpError(HttpStatusCodeException e, Class<T> responseType) {
@@ -152,6 +375,8 @@ public class RestTemplateUtil {
         log.error("RestTemplate HTTP Error: {}", details);
 
         // T 타입이 무엇이든 (데이터는 없지만) T 타입의 실패 ApiResponse를 반환
-        return ApiResponse.<T>fail(e.getStatusCode().value(), details);
+        HttpHeaders headers = e.getResponseHeaders();
+        return ApiResponse.<T>failWithRetryAfter(e.getStatusCode().value(), details,
+                RetryEngine.parseRetryAfter(headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,290 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 네 가지 클라이언트 유틸리티가 공유하는 재시도 엔진입니다.
+ * 일시적인 실패(설정한 상태 코드, 또는 응답을 받지 못한 경우 설정한 예외 클래스)만 다시 시도하며,
+ * 대기 시간은 지수 백오프에 full jitter(0 ~ min(maxBackoff, baseBackoff * 2^(n-1)) 사이의 임의 값)를 적용하고
+ * 서버가 Retry-After를 보냈으면 그 시간 이상 기다립니다.
+ * 멱등 메서드만 재시도하므로(기본: POST, PATCH 제외) 같은 요청이 두 번 반영되지 않습니다.
+ * 호스트별 재시도 예산(토큰 버킷)은 요청마다 budgetPercent/100씩, 초당 minRetriesPerSecond씩 쌓이고 재시도 한 번에 1씩 쓰므로
+ * 업스트림 장애 시 재시도가 부하를 몇 배로 키우지 않습니다.
+ * 보내지 않고 차단된 호출(CIRCUIT_OPEN, LOAD_SHED)은 재시도하지 않습니다.
+ */
+@Slf4j
+public class RetryEngine {
+
+    /** 호스트 한 곳의 재시도 예산. 모든 필드는 인스턴스 모니터로 보호 */
+    private static final class RetryBudget {
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        private RetryBudget(double initialTokens) {
+            this.tokens = initialTokens;
+        }
+
+        private synchronized void deposit(double perRequest, double perSecond, double capacity) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + perRequest + (now - lastRefillNanos) * perSecond / 1_000_000_000L);
+            lastRefillNanos = now;
+        }
+
+        private synchronized boolean tryWithdraw() {
+            if (tokens < 1.0) {
+                return false;
+            }
+            tokens -= 1.0;
+            return true;
+        }
+    }
+
+    private static final Map<String, RetryBudget> BUDGETS = new ConcurrentHashMap<>();
+
+    // 재시도 설정 (ApiClientConfig에서 application.properties 값으로 덮어씀)
+    private static volatile ApiClientProperties.Retry settings = new ApiClientProperties.Retry();
+    private static volatile Set<String> methods = toMethods(settings.getMethods());
+    private static volatile List<Class<?>> retryableExceptions = toClasses(settings.getRetryableExceptions());
+
+    public static void configure(ApiClientProperties.Retry newSettings) {
+        methods = toMethods(newSettings.getMethods());
+        retryableExceptions = toClasses(newSettings.getRetryableExceptions());
+        settings = newSettings;
+        BUDGETS.clear();
+        log.info("재시도 설정 적용: enabled={}, maxAttempts={}, methods={}, statuses={}, exceptions={}, backoff={}~{}, budgetPercent={}",
+                newSettings.isEnabled(), newSettings.getMaxAttempts(), methods, newSettings.getRetryableStatuses(),
+                retryableExceptions.stream().map(Class::getSimpleName).toList(),
+                newSettings.getBaseBackoff(), newSettings.getMaxBackoff(), newSettings.getBudgetPercent());
+    }
+
+    // =========================================================================
+    // 1. 동기 (HttpUrlConnectionUtil, RestTemplateUtil, HttpClientUtil)
+    // =========================================================================
+    public static <T> ApiResponse<T> execute(String client, String method, String url, Supplier<ApiResponse<T>> call) {
+        return execute(client, method, url, call, response -> response);
+    }
+
+    /**
+     * call을 실행하고, 결과가 재시도 대상이면 백오프 후 다시 실행합니다. 기다리는 동안 인터럽트되면 마지막 결과를 반환합니다.
+     * @param responseOf 결과에서 재시도 판단에 쓸 ApiResponse를 꺼내는 함수 (ConditionalResponse::getResponse 등)
+     */
+    public static <R> R execute(String client, String method, String url, Supplier<R> call,
+                                Function<R, ApiResponse<?>> responseOf) {
+        if (!settings.isEnabled()) {
+            return call.get();
+        }
+        RetryBudget budget = deposit(url);
+        for (int attempt = 1; ; attempt++) {
+            R result = call.get();
+            long delayNanos = retryDelay(client, method, url, responseOf.apply(result), attempt, budget);
+            if (delayNanos < 0) {
+                return result;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return result;
+            }
+        }
+    }
+
+    // =========================================================================
+    // 2. 비동기 (HttpClientUtil sendAsync)
+    // =========================================================================
+    /**
+     * 비동기 호출용. 백오프는 스레드를 막지 않고 delayedExecutor로 다음 시도를 예약합니다.
+     * call의 future가 예외로 완료되면 재시도하지 않고 그대로 전달합니다. (실패는 ApiResponse로 전달되어야 함)
+     */
+    public static <T> CompletableFuture<ApiResponse<T>> executeAsync(String client, String method, String url,
+                                                                     Supplier<CompletableFuture<ApiResponse<T>>> call) {
+        if (!settings.isEnabled()) {
+            return call.get();
+        }
+        RetryBudget budget = deposit(url);
+        CompletableFuture<ApiResponse<T>> result = new CompletableFuture<>();
+        attemptAsync(client, method, url, call, budget, 1, result);
+        return result;
+    }
+
+    // =========================================================================
+    // 3. Reactor (WebClientUtil)
+    // =========================================================================
+    public static <T> Mono<ApiResponse<T>> execute(String client, String method, String url, Mono<ApiResponse<T>> call) {
+        return execute(client, method, url, call, response -> response);
+    }
+
+    /**
+     * call은 구독할 때마다 요청을 새로 보내는 cold Mono여야 합니다. 백오프는 Mono.delay(parallel 스케줄러)로 기다립니다.
+     */
+    public static <R> Mono<R> execute(String client, String method, String url, Mono<R> call,
+                                      Function<R, ApiResponse<?>> responseOf) {
+        if (!settings.isEnabled()) {
+            return call;
+        }
+        return Mono.defer(() -> attemptMono(client, method, url, call, responseOf, deposit(url), 1));
+    }
+
+    // =========================================================================
+    // 4. Retry-After 헤더
+    // =========================================================================
+    /**
+     * Retry-After 헤더 값(초 단위 정수 또는 HTTP-date)을 지금부터의 대기 시간으로 바꿉니다.
+     * @return 헤더가 없거나 형식이 잘못되었으면 null, 이미 지난 시각이면 Duration.ZERO
+     */
+    public static Duration parseRetryAfter(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        String value = header.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException ignored) {
+            // HTTP-date 형식일 수 있음
+        }
+        try {
+            Duration delay = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // =========================================================================
+    // Private
+    // =========================================================================
+    private static <T> void attemptAsync(String client, String method, String url,
+                                         Supplier<CompletableFuture<ApiResponse<T>>> call, RetryBudget budget,
+                                         int attempt, CompletableFuture<ApiResponse<T>> result) {
+        call.get().whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            long delayNanos = retryDelay(client, method, url, response, attempt, budget);
+            if (delayNanos < 0) {
+                result.complete(response);
+                return;
+            }
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> attemptAsync(client, method, url, call, budget, attempt + 1, result));
+        });
+    }
+
+    private static <R> Mono<R> attemptMono(String client, String method, String url, Mono<R> call,
+                                           Function<R, ApiResponse<?>> responseOf, RetryBudget budget, int attempt) {
+        return call.flatMap(result -> {
+            long delayNanos = retryDelay(client, method, url, responseOf.apply(result), attempt, budget);
+            if (delayNanos < 0) {
+                return Mono.just(result);
+            }
+            return Mono.delay(Duration.ofNanos(delayNanos))
+                    .then(Mono.defer(() -> attemptMono(client, method, url, call, responseOf, budget, attempt + 1)));
+        });
+    }
+
+    /**
+     * attempt번째 시도의 결과를 보고 다음 시도까지 기다릴 시간을 정합니다.
+     * @return 재시도하지 않으면 -1
+     */
+    private static long retryDelay(String client, String method, String url, ApiResponse<?> response, int attempt,
+                                   RetryBudget budget) {
+        ApiClientProperties.Retry current = settings;
+        if (response == null || !methods.contains(method) || CircuitBreaker.isRejected(response)) {
+            return -1;
+        }
+        String reason = retryableReason(response, current);
+        if (reason == null) {
+            return -1;
+        }
+        if (attempt >= current.getMaxAttempts()) {
+            ClientMetrics.retryDenied(client, url, "max_attempts");
+            return -1;
+        }
+        Duration retryAfter = response.getRetryAfter();
+        if (retryAfter != null && retryAfter.compareTo(current.getMaxRetryAfter()) > 0) {
+            // 너무 오래 기다려야 하면 호출자에게 바로 돌려줌
+            ClientMetrics.retryDenied(client, url, "retry_after");
+            return -1;
+        }
+        if (!budget.tryWithdraw()) {
+            ClientMetrics.retryDenied(client, url, "budget");
+            return -1;
+        }
+        // full jitter: 0 ~ min(maxBackoff, baseBackoff * 2^(attempt-1))
+        long ceiling = Math.min(current.getMaxBackoff().toNanos(),
+                current.getBaseBackoff().toNanos() << Math.min(attempt - 1, 30));
+        long delayNanos = ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+        if (retryAfter != null) {
+            delayNanos = Math.max(delayNanos, retryAfter.toNanos());
+        }
+        ClientMetrics.retry(client, url, attempt + 1, reason);
+        log.warn("재시도 {}/{}: {} {} ({}), {}ms 후", attempt + 1, current.getMaxAttempts(), method, url, reason,
+                delayNanos / 1_000_000);
+        return delayNanos;
+    }
+
+    // 재시도 대상이면 사유(상태 코드 또는 예외 이름), 아니면 null
+    private static String retryableReason(ApiResponse<?> response, ApiClientProperties.Retry current) {
+        Throwable cause = response.getCause();
+        if (cause != null) {
+            // 응답을 받지 못한 실패: 상태 코드는 유틸리티가 붙인 값이므로 예외 종류로만 판단
+            for (Throwable e = cause; e != null; e = e.getCause()) {
+                for (Class<?> type : retryableExceptions) {
+                    if (type.isInstance(e)) {
+                        return e.getClass().getSimpleName();
+                    }
+                }
+            }
+            return null;
+        }
+        int status = response.getHttpStatusCode();
+        return current.getRetryableStatuses().contains(status) ? String.valueOf(status) : null;
+    }
+
+    private static RetryBudget deposit(String url) {
+        ApiClientProperties.Retry current = settings;
+        // 처음 보는 호스트도 초당 허용량만큼은 바로 재시도할 수 있도록 채워 둔 채 시작
+        RetryBudget budget = BUDGETS.computeIfAbsent(UrlBuilder.hostKey(url),
+                key -> new RetryBudget(Math.max(1.0, current.getMinRetriesPerSecond())));
+        double perRequest = current.getBudgetPercent() / 100.0;
+        // 요청 100건 동안 쌓이는 양(최소 1)까지만 모아 둠
+        budget.deposit(perRequest, current.getMinRetriesPerSecond(), Math.max(1.0, perRequest * 100));
+        return budget;
+    }
+
+    private static Set<String> toMethods(List<String> names) {
+        return names.stream().map(String::toUpperCase).collect(Collectors.toUnmodifiableSet());
+    }
+
+    // 클래스를 찾을 수 없는 항목은 경고 후 무시
+    private static List<Class<?>> toClasses(List<String> names) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (String name : names) {
+            try {
+                classes.add(Class.forName(name.trim()));
+            } catch (ClassNotFoundException e) {
+                log.warn("재시도 예외 클래스를 찾을 수 없습니다: {}", name);
+            }
+        }
+        return List.copyOf(classes);
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 다운로드 저장 디렉토리의 용량 관리자입니다.
+ * 저장된 파일을 메모리 색인(접근 시각, 접근 횟수)으로 관리하고, 용량(quota)이나 파일 수(maxFiles)를 넘으면
+ * LRU 또는 LFU 순으로 지웁니다. 다운로드를 시작하기 전에는 디스크 여유 공간도 확인합니다.
+ * 하드 링크(내용 주소 저장소의 객체와 저장 파일)는 디스크를 한 번만 차지하므로 같은 내용(해시)을 하나의 단위로 세고 함께 지웁니다.
+ * 색인은 시작할 때 디렉토리를 한 번 훑어(walkFileTree, 파일마다 속성을 한 번만 읽음) 다시 만들고,
+ * 그 뒤로는 다운로드가 알려 주는 크기와 해시로 갱신하므로 파일 속성을 다시 읽지 않습니다.
+ */
+@Slf4j
+class StorageManager {
+
+    /** 디스크 용량이 모자라 다운로드를 받을 수 없을 때 */
+    static final class StorageFullException extends IOException {
+        StorageFullException(String message) {
+            super(message);
+        }
+    }
+
+    /** 같은 내용을 가리키는 경로 묶음 (내용 해시, 해시가 없으면 경로 자체가 키). paths는 lock으로 보호 */
+    private static final class StoredContent {
+        private final Object key;
+        private final long size;
+        private final Set<Path> paths = new HashSet<>();
+        private volatile long lastAccessMillis;
+        private final AtomicLong hits = new AtomicLong();
+
+        private StoredContent(Object key, long size, long lastAccessMillis) {
+            this.key = key;
+            this.size = size;
+            this.lastAccessMillis = lastAccessMillis;
+        }
+    }
+
+    private static final Comparator<StoredContent> LRU =
+            Comparator.comparingLong(content -> content.lastAccessMillis);
+    private static final Comparator<StoredContent> LFU =
+            Comparator.<StoredContent>comparingLong(content -> content.hits.get()).thenComparing(LRU);
+
+    private final Path rootDir;
+    // 내용 주소 객체 디렉토리 (파일명이 곧 해시)
+    private final Path objectsDir;
+    // 색인하지 않는 하위 디렉토리 (받는 중인 .part 파일)
+    private final Path excludedDir;
+
+    private final Object lock = new Object();
+    // 키 → 내용, 경로 → 내용. 변경은 lock 안에서만 하며 byPath 조회(touch)는 lock 없이 가능
+    private final Map<Object, StoredContent> contents = new HashMap<>();
+    private final Map<Path, StoredContent> byPath = new ConcurrentHashMap<>();
+    private volatile long usedBytes;
+    private volatile int fileCount;
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    // 설정 (0이면 제한 없음)
+    private volatile long quotaBytes;
+    private volatile int maxFiles;
+    private volatile long minFreeBytes;
+    private volatile Comparator<StoredContent> evictionOrder = LRU;
+
+    StorageManager(Path rootDir, Path objectsDir, Path excludedDir) {
+        this.rootDir = rootDir;
+        this.objectsDir = objectsDir;
+        this.excludedDir = excludedDir;
+    }
+
+    void configure(ApiClientProperties.Download settings) {
+        quotaBytes = settings.getStorageQuota().toBytes();
+        maxFiles = settings.getStorageMaxFiles();
+        minFreeBytes = settings.getMinFreeSpace().toBytes();
+        evictionOrder = settings.getEvictionPolicy() == ApiClientProperties.EvictionPolicy.LFU ? LFU : LRU;
+    }
+
+    long getUsedBytes() {
+        return usedBytes;
+    }
+
+    int getFileCount() {
+        return fileCount;
+    }
+
+    long getQuotaBytes() {
+        return quotaBytes;
+    }
+
+    long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /** 저장 디렉토리가 있는 파일 시스템의 사용 가능한 공간. 알 수 없으면 -1 */
+    long getUsableSpace() {
+        try {
+            return Files.getFileStore(rootDir).getUsableSpace();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // =========================================================================
+    // 1. 색인 재구성
+    // =========================================================================
+    /**
+     * 저장 디렉토리를 훑어 색인을 다시 만들고, 제한을 넘었으면 바로 정리합니다.
+     * 저장 파일은 루트 바로 아래, 내용 주소 객체는 objects/ 아래에 있으므로 깊이 2까지만 봅니다.
+     * 파일 시스템이 접근 시각을 기록하지 않을 수 있으므로 접근 시각과 수정 시각 중 늦은 쪽을 마지막 접근으로 봅니다.
+     * 저장 파일이 객체의 하드 링크인지는 fileKey(dev, inode)로 알아내어 객체의 해시로 묶습니다.
+     */
+    void rebuild() {
+        if (!Files.isDirectory(rootDir)) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<Path, BasicFileAttributes> scanned = new HashMap<>();
+        Map<Object, String> objectDigests = new HashMap<>();
+        synchronized (lock) {
+            contents.clear();
+            byPath.clear();
+            usedBytes = 0;
+            fileCount = 0;
+            try {
+                Files.walkFileTree(rootDir, EnumSet.noneOf(FileVisitOption.class), 2, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        return dir.equals(excludedDir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile()) {
+                            scanned.put(file, attrs);
+                            if (file.getParent().equals(objectsDir) && attrs.fileKey() != null) {
+                                objectDigests.put(attrs.fileKey(), file.getFileName().toString());
+                            }
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        log.debug("저장 파일 속성 조회 실패: {} ({})", file, e.getMessage());
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                log.warn("저장 디렉토리 색인 실패: {} ({})", rootDir, e.getMessage());
+            }
+            scanned.forEach((file, attrs) -> {
+                String digest = file.getParent().equals(objectsDir)
+                        ? file.getFileName().toString()
+                        : objectDigests.get(attrs.fileKey());
+                long lastAccess = Math.max(attrs.lastAccessTime().toMillis(), attrs.lastModifiedTime().toMillis());
+                add(file, attrs.size(), digest, lastAccess);
+            });
+            evictWhileOverLimit(0, null);
+        }
+        log.info("저장 디렉토리 색인 완료: {}개 파일, {} bytes ({}ms)", fileCount, usedBytes,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // =========================================================================
+    // 2. 등록 / 접근 기록
+    // =========================================================================
+    /**
+     * 새로 저장한 파일을 색인에 넣고, 제한을 넘었으면 다른 파일을 지웁니다. (방금 넣은 파일은 지우지 않음)
+     * 이미 색인된 경로면 접근으로 기록합니다.
+     * @param size 파일 크기 (다운로드하며 센 바이트 수)
+     * @param digest 내용 해시 (내용 주소 저장 모드가 아니면 null)
+     */
+    void register(Path path, long size, String digest) {
+        synchronized (lock) {
+            // 같은 경로를 동시에 등록해도 한 번만 추가되도록 확인과 추가를 같은 잠금 안에서 함
+            if (byPath.containsKey(path)) {
+                touch(path);
+                return;
+            }
+            StoredContent content = add(path, size, digest, System.currentTimeMillis());
+            content.hits.incrementAndGet();
+            evictWhileOverLimit(0, content.key);
+        }
+    }
+
+    /** 저장 파일을 읽거나 재사용할 때 호출합니다. (LRU/LFU 순서 갱신) */
+    void touch(Path path) {
+        StoredContent content = byPath.get(path);
+        if (content != null) {
+            content.lastAccessMillis = System.currentTimeMillis();
+            content.hits.incrementAndGet();
+        }
+    }
+
+    // =========================================================================
+    // 3. 공간 확보
+    // =========================================================================
+    /**
+     * incomingBytes를 받을 자리를 미리 만듭니다. 용량·파일 수 제한과 디스크 여유 공간(minFreeSpace)을
+     * 모두 만족할 때까지 오래된 파일을 지우고, 그래도 모자라면 StorageFullException을 던집니다.
+     * (동시에 시작한 다운로드끼리는 공간을 나눠 예약하지 않으므로, 합계가 넘친 만큼은 다음 register에서 정리됩니다)
+     * @param incomingBytes 받을 크기, 모르면 0
+     */
+    void ensureSpace(long incomingBytes) throws StorageFullException {
+        long quota = quotaBytes;
+        if (quota > 0 && incomingBytes > quota) {
+            throw new StorageFullException("파일 크기(" + incomingBytes + " bytes)가 저장 용량 제한(" + quota + " bytes)보다 큽니다.");
+        }
+        synchronized (lock) {
+            evictWhileOverLimit(incomingBytes, null);
+            long needed = incomingBytes + minFreeBytes;
+            long usable = getUsableSpace();
+            while (usable >= 0 && usable < needed && evictOne(null)) {
+                usable = getUsableSpace();
+            }
+            if (usable >= 0 && usable < needed) {
+                throw new StorageFullException("디스크 여유 공간이 부족합니다: 사용 가능 " + usable + " bytes, 필요 " + needed + " bytes");
+            }
+        }
+    }
+
+    // =========================================================================
+    // Private (lock을 잡은 상태에서만 호출)
+    // =========================================================================
+    private StoredContent add(Path path, long size, String digest, long lastAccessMillis) {
+        // 객체와 그 하드 링크는 같은 해시로 묶음. 해시가 없으면 경로 단위로 셈
+        Object key = digest != null ? digest : path;
+        StoredContent content = contents.get(key);
+        if (content == null) {
+            content = new StoredContent(key, size, lastAccessMillis);
+            contents.put(key, content);
+            usedBytes += content.size;
+        } else {
+            content.lastAccessMillis = Math.max(content.lastAccessMillis, lastAccessMillis);
+        }
+        if (content.paths.add(path)) {
+            fileCount++;
+            byPath.put(path, content);
+        }
+        return content;
+    }
+
+    private void evictWhileOverLimit(long incomingBytes, Object protectedKey) {
+        while (overLimit(incomingBytes) && evictOne(protectedKey)) {
+            // 제한 안으로 들어올 때까지 반복
+        }
+    }
+
+    private boolean overLimit(long incomingBytes) {
+        return (quotaBytes > 0 && usedBytes + incomingBytes > quotaBytes)
+                || (maxFiles > 0 && fileCount > maxFiles);
+    }
+
+    /**
+     * LRU/LFU 순서로 가장 앞선 내용 하나를 (모든 하드 링크와 함께) 지웁니다.
+     * 정리는 제한을 넘었을 때만 일어나므로 별도의 정렬 구조 없이 전체를 한 번 훑어 고릅니다.
+     * @return 지운 것이 있으면 true
+     */
+    private boolean evictOne(Object protectedKey) {
+        StoredContent victim = contents.values().stream()
+                .filter(content -> !content.key.equals(protectedKey))
+                .min(evictionOrder)
+                .orElse(null);
+        if (victim == null) {
+            return false;
+        }
+        for (Path path : victim.paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("저장 파일 삭제 실패: {} ({})", path, e.getMessage());
+            }
+            byPath.remove(path);
+        }
+        contents.remove(victim.key);
+        usedBytes -= victim.size;
+        fileCount -= victim.paths.size();
+        evictions.incrementAndGet();
+        log.info("저장 용량 정리: {} ({} bytes, 접근 {}회) 삭제", victim.paths, victim.size, victim.hits.get());
+        return true;
+    }
+}
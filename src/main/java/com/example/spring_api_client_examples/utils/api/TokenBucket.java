@@ -0,0 +1,38 @@
+package com.example.spring_api_client_examples.utils.api;
+
+/**
+ * 초당 bytesPerSecond 바이트씩 채워지는 토큰 버킷입니다. (대역폭 제한용)
+ * 버킷 크기는 1초 분량이며, 토큰이 모자라도 요청한 만큼 미리 빌려 쓰고(음수) 그만큼 기다릴 시간을 돌려줍니다.
+ * 빌린 만큼 다음 호출자가 더 오래 기다리므로 여러 다운로드가 같은 버킷을 나눠 써도 합계가 제한을 넘지 않습니다.
+ */
+class TokenBucket {
+
+    private final long bytesPerSecond;
+    private final long capacity;
+
+    // lock(this)으로 보호
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.capacity = bytesPerSecond;
+        this.tokens = bytesPerSecond;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * bytes만큼의 토큰을 가져갑니다.
+     * @return 이 바이트를 보내기 전에 기다려야 하는 시간(나노초), 바로 보내도 되면 0
+     */
+    synchronized long reserve(long bytes) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * (double) bytesPerSecond / 1_000_000_000L);
+        lastRefillNanos = now;
+        tokens -= bytes;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) (-tokens * 1_000_000_000L / bytesPerSecond);
+    }
+}
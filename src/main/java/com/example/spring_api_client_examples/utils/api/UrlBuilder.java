@@ -1,6 +1,7 @@
 package com.example.spring_api_client_examples.utils.api;
 
 import java.io.UnsupportedEncodingException;
+import java.net.URI;
 import java.net.URLEncoder;
 import java.util.Map;
 
@@ -44,4 +45,29 @@ public class UrlBuilder {
         return urlBuilder.toString();
     }
 
+    /**
+     * 호스트별 상태(서킷 브레이커, 동시 요청 제한, 재시도 예산, 헤지 예산, 다운로드 동시 실행 수)와 메트릭 host 태그에 쓰는 키입니다.
+     * 같은 호스트라도 포트가 다르면 다른 서비스로 구분하도록 host:port를 사용하며, 기본 포트(http 80, https 443)는 생략합니다.
+     * @param url 전체 URL 또는 Base URL
+     * @return 키, URL에서 호스트를 찾을 수 없으면 "unknown"
+     */
+    static String hostKey(String url) {
+        try {
+            URI uri = URI.create(url);
+            String host = uri.getHost();
+            if (host == null) {
+                return "unknown";
+            }
+            int port = uri.getPort();
+            if (port == -1
+                    || (port == 80 && "http".equalsIgnoreCase(uri.getScheme()))
+                    || (port == 443 && "https".equalsIgnoreCase(uri.getScheme()))) {
+                return host;
+            }
+            return host + ":" + port;
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+
 }
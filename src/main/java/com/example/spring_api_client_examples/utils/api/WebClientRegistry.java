@@ -0,0 +1,203 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.Http2AllocationStrategy;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base URL별로 WebClient 인스턴스를 재사용하기 위한 레지스트리입니다.
+ * 모든 WebClient는 하나의 이름 있는 ConnectionProvider(커넥션 풀)와 공유 LoopResources(이벤트 루프)를 사용하므로,
+ * 호출마다 새 커넥션/TLS 핸드셰이크가 발생하지 않습니다.
+ * 풀 게이지는 'reactor.netty.connection.provider.*' 이름으로 Micrometer에 등록됩니다.
+ * http2.mode가 HTTP_2/H2C이면 요청을 소수의 HTTP/2 커넥션에 스트림으로 다중화하며,
+ * 이때 호스트당 커넥션 수와 커넥션당 동시 스트림 수는 http2.maxConnections/maxConcurrentStreams를 따릅니다.
+ * HTTP/2 커넥션은 별도 풀('{poolName}-h2')을 쓰며, HTTP_2 모드의 http:// 대상(ALPN 협상이 없어 항상 HTTP/1.1)은
+ * 기존 HTTP/1.1 풀(maxConnections)을 그대로 씁니다.
+ */
+@Slf4j
+public class WebClientRegistry {
+
+    private static final Map<String, WebClient> CLIENTS = new ConcurrentHashMap<>();
+    // 공유 리소스 생성/해제용 락 (CLIENTS의 computeIfAbsent 내부에서도 잡히므로 CLIENTS 조작과 분리합니다)
+    private static final Object LOCK = new Object();
+
+    private static volatile ApiClientProperties.WebClientPool settings = new ApiClientProperties.WebClientPool();
+    private static volatile ConnectionProvider connectionProvider;
+    private static volatile ConnectionProvider http2ConnectionProvider;
+    private static volatile LoopResources loopResources;
+
+    /**
+     * 풀 설정을 교체합니다. 기존에 만들어진 클라이언트와 풀은 정리되고, 다음 호출 시 새 설정으로 다시 생성됩니다.
+     */
+    public static void configure(ApiClientProperties.WebClientPool newSettings) {
+        settings = newSettings;
+        shutdown();
+        ApiClientProperties.Http2 http2 = newSettings.getHttp2();
+        log.info("WebClient 풀 설정 적용: name={}, maxConnections={}, pendingAcquireMaxCount={}, protocol={}, h2Streams={}, h2Connections={}, h2Fallback={}",
+                newSettings.getPoolName(), newSettings.getMaxConnections(), newSettings.getPendingAcquireMaxCount(),
+                http2.getMode(), http2.getMaxConcurrentStreams(), http2.getMaxConnections(), http2.getFallback());
+    }
+
+    /**
+     * Base URL에 해당하는 WebClient를 반환합니다. 없으면 한 번만 생성하여 캐시합니다.
+     * @param baseUrl 기본 API URL
+     * @return 공유 커넥션 풀을 사용하는 WebClient
+     */
+    public static WebClient get(String baseUrl) {
+        return CLIENTS.computeIfAbsent(baseUrl, WebClientRegistry::createWebClient);
+    }
+
+    /**
+     * 커넥션 풀과 이벤트 루프를 해제합니다. (애플리케이션 종료 시 호출)
+     */
+    public static void shutdown() {
+        CLIENTS.clear();
+        synchronized (LOCK) {
+            if (connectionProvider != null) {
+                connectionProvider.dispose();
+                connectionProvider = null;
+            }
+            if (http2ConnectionProvider != null) {
+                http2ConnectionProvider.dispose();
+                http2ConnectionProvider = null;
+            }
+            if (loopResources != null) {
+                loopResources.dispose();
+                loopResources = null;
+            }
+        }
+    }
+
+    // =========================================================================
+    // Private: 공유 리소스 생성
+    // =========================================================================
+    private static WebClient createWebClient(String baseUrl) {
+        log.info("WebClient 생성 (공유 풀 사용): {}", baseUrl);
+        HttpClient httpClient = createHttpClient(baseUrl);
+        int maxInMemorySize = (int) settings.getMaxInMemorySize().toBytes();
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(maxInMemorySize))
+                .filter(WebClientRegistry::countResponseBytes)
+                .build();
+    }
+
+    private static HttpClient createHttpClient(String baseUrl) {
+        synchronized (LOCK) {
+            HttpProtocol[] protocols = protocols(settings.getHttp2(), baseUrl);
+            boolean http11Only = protocols.length == 1 && protocols[0] == HttpProtocol.HTTP11;
+            return HttpClient.create(http11Only ? connectionProvider() : http2ConnectionProvider())
+                    .runOn(loopResources())
+                    .protocol(protocols)
+                    .responseTimeout(settings.getResponseTimeout())
+                    // 요청 본문 바이트 수: 전송이 끝난 뒤 확정된 Content-Length 헤더 기준
+                    .doAfterRequest((request, connection) -> ClientMetrics.bytesOut(ClientMetrics.WEB_CLIENT,
+                            request.resourceUrl(), request.requestHeaders().getInt(HttpHeaderNames.CONTENT_LENGTH, 0)));
+        }
+    }
+
+    // 응답 본문 바이트 수: 디코딩 전 DataBuffer 크기를 합산하여 스트림 종료 시 한 번 기록
+    private static Mono<ClientResponse> countResponseBytes(ClientRequest request, ExchangeFunction next) {
+        String url = request.url().toString();
+        return next.exchange(request).map(response -> {
+            AtomicLong received = new AtomicLong();
+            return response.mutate()
+                    .body(body -> body
+                            .doOnNext(buffer -> received.addAndGet(buffer.readableByteCount()))
+                            .doFinally(signal -> ClientMetrics.bytesIn(ClientMetrics.WEB_CLIENT, url, received.get())))
+                    .build();
+        });
+    }
+
+    /**
+     * 설정된 모드와 Base URL에 맞는 프로토콜 목록
+     * - HTTP_2: ALPN으로 h2 협상. fallback=HTTP_1_1이면 서버가 h2를 고르지 않을 때 HTTP/1.1로 진행하고
+     *           (http:// 는 협상 없이 HTTP/1.1만 사용), FAIL이면 h2만 허용하여 협상 실패(또는 http://)를 요청 실패로 처리
+     * - H2C: 평문 prior-knowledge (업그레이드 협상이 없으므로 fallback은 적용되지 않음)
+     */
+    private static HttpProtocol[] protocols(ApiClientProperties.Http2 http2, String baseUrl) {
+        return switch (http2.getMode()) {
+            case HTTP_2 -> {
+                if (http2.getFallback() == ApiClientProperties.Http2Fallback.FAIL) {
+                    yield new HttpProtocol[]{HttpProtocol.H2};
+                }
+                yield baseUrl.regionMatches(true, 0, "https://", 0, 8)
+                        ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11};
+            }
+            case H2C -> new HttpProtocol[]{HttpProtocol.H2C};
+            case HTTP_1_1 -> new HttpProtocol[]{HttpProtocol.HTTP11};
+        };
+    }
+
+    // HTTP/1.1 커넥션 풀 (요청마다 커넥션 하나 점유). LOCK을 잡은 상태에서만 호출합니다.
+    private static ConnectionProvider connectionProvider() {
+        if (connectionProvider == null) {
+            connectionProvider = poolBuilder(settings.getPoolName()).build();
+        }
+        return connectionProvider;
+    }
+
+    // HTTP/2 커넥션 풀: 커넥션당 스트림 수가 차면 http2.maxConnections까지 새 커넥션을 열고, 그 이상은 대기열에서 기다림
+    // https:// 대상이 h2 협상에 실패해 HTTP/1.1로 대체되면 커넥션 하나에 요청 하나뿐이므로,
+    // fallback=HTTP_1_1이면 상한을 HTTP/1.1 풀의 maxConnections 이상으로 두어 대체된 호스트가 4개 커넥션에 묶이지 않게 함
+    // (h2 커넥션은 기존 커넥션의 스트림이 다 찼을 때만 새로 열리므로 보통은 http2.maxConnections 근처에 머묾)
+    // LOCK을 잡은 상태에서만 호출합니다.
+    private static ConnectionProvider http2ConnectionProvider() {
+        if (http2ConnectionProvider == null) {
+            ApiClientProperties.WebClientPool current = settings;
+            ApiClientProperties.Http2 http2 = current.getHttp2();
+            int maxConnections = Math.max(1, http2.getMaxConnections());
+            if (http2.getMode() == ApiClientProperties.HttpProtocolMode.HTTP_2
+                    && http2.getFallback() == ApiClientProperties.Http2Fallback.HTTP_1_1) {
+                maxConnections = Math.max(maxConnections, current.getMaxConnections());
+            }
+            http2ConnectionProvider = poolBuilder(current.getPoolName() + "-h2")
+                    .allocationStrategy(Http2AllocationStrategy.builder()
+                            .maxConcurrentStreams(Math.max(1, http2.getMaxConcurrentStreams()))
+                            .maxConnections(maxConnections)
+                            .build())
+                    .build();
+        }
+        return http2ConnectionProvider;
+    }
+
+    private static ConnectionProvider.Builder poolBuilder(String name) {
+        ApiClientProperties.WebClientPool current = settings;
+        return ConnectionProvider.builder(name)
+                .maxConnections(current.getMaxConnections())
+                .pendingAcquireMaxCount(current.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(current.getPendingAcquireTimeout())
+                .maxIdleTime(current.getMaxIdleTime())
+                .maxLifeTime(current.getMaxLifeTime())
+                .evictInBackground(current.getEvictInBackground())
+                .metrics(current.isMetricsEnabled());
+    }
+
+    // LOCK을 잡은 상태에서만 호출합니다.
+    private static LoopResources loopResources() {
+        if (loopResources == null) {
+            int workers = settings.getLoopWorkerCount() > 0
+                    ? settings.getLoopWorkerCount()
+                    : Runtime.getRuntime().availableProcessors();
+            loopResources = LoopResources.create("api-client-loop", workers, true);
+        }
+        return loopResources;
+    }
+}
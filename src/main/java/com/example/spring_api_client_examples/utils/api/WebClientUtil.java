@@ -2,27 +2,27 @@ package com.example.spring_api_client_examples.utils.api;
 
 import com.example.spring_api_client_examples.dto.FileMetaData;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.ClientResponse; // ClientResponse 임포트
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.netty.http.client.HttpClient;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 public class WebClientUtil {
 
-    // WebClient 인스턴스 생성 헬퍼 메서드 유지
+    private static final String CLIENT = ClientMetrics.WEB_CLIENT;
+
+    // WebClient 인스턴스 조회 헬퍼 메서드 유지
+    // 호출마다 새로 만들지 않고, Base URL별로 공유 커넥션 풀을 쓰는 인스턴스를 WebClientRegistry에서 가져옵니다.
     private static WebClient getWebClient(String baseUrl) {
-        return WebClient.builder()
-                .baseUrl(baseUrl)
-                .clientConnector(new ReactorClientHttpConnector(
-                        HttpClient.create()
-                                .responseTimeout(Duration.ofSeconds(5))
-                )).build();
+        return WebClientRegistry.get(baseUrl);
     }
 
     // =========================================================================
@@ -43,25 +43,45 @@ public class WebClientUtil {
             }
             return clientResponse.bodyToMono(responseType)
                     .map(body -> ApiResponse.success(status.value(), body))
-                    .onErrorResume(e -> Mono.just(ApiResponse.fail(500, "Internal Parsing Error: " + e.getMessage())));
+                    .onErrorResume(e -> {
+                        ClientMetrics.parseFailure(CLIENT, clientResponse.request().getURI().toString());
+                        return Mono.just(ApiResponse.fail(500, "Internal Parsing Error: " + e.getMessage()));
+                    });
 
         } else {
-            // 4xx, 5xx 에러 경로
+            // 4xx, 5xx 에러 경로 (Retry-After는 재시도 대기 시간에 사용)
+            Duration retryAfter = RetryEngine.parseRetryAfter(
+                    clientResponse.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER));
             return clientResponse.bodyToMono(String.class)
                     .defaultIfEmpty("No body available")
                     .map(body -> {
                         String details = String.format("API Error %d. Body: %s", rawStatusCode, body);
                         log.error(details);
-                        return ApiResponse.<T>fail(rawStatusCode, details);
+                        return ApiResponse.<T>failWithRetryAfter(rawStatusCode, details, retryAfter);
                     })
-                    .onErrorResume(e -> Mono.just(ApiResponse.fail(rawStatusCode, "Failed to parse error response.")));
+                    .onErrorResume(e -> Mono.just(ApiResponse.failWithRetryAfter(rawStatusCode, "Failed to parse error response.", retryAfter)));
         }
     }
 
-    // Private: 네트워크 에러 처리 (최종)
+    // Private: 네트워크 에러 처리 (최종). 서킷이 열려 보내지 않은 호출은 CIRCUIT_OPEN으로 구분
     private static <T> Mono<ApiResponse<T>> handleNetworkError(Throwable e) {
         log.error("WebClient Network Error: {}", e.getMessage());
-        return Mono.just(ApiResponse.fail(503, "WebClient Network Failure or Timeout: " + e.getMessage()));
+        return Mono.just(CircuitBreaker.failure(e, 503, "WebClient Network Failure or Timeout: " + e.getMessage()));
+    }
+
+    /**
+     * 구독 시점부터 응답 변환 완료까지의 소요 시간을 기록하고, 네트워크 에러를 ApiResponse.fail로 변환합니다.
+     * 호스트의 서킷이 열려 있으면 요청을 보내지 않고, 동시 요청 제한에 걸리면 허가를 받을 때까지 기다립니다.
+     */
+    private static <T> Mono<ApiResponse<T>> timed(String method, String baseUrl, Mono<ApiResponse<T>> exchange) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return CircuitBreaker.acquireMono(baseUrl)
+                    .then(AdaptiveLimiter.limit(baseUrl, exchange))
+                    .map(response -> ClientMetrics.record(CLIENT, method, baseUrl, start, response))
+                    .onErrorResume(e -> WebClientUtil.<T>handleNetworkError(e)
+                            .map(response -> ClientMetrics.recordFailure(CLIENT, method, baseUrl, start, response)));
+        });
     }
 
     // =========================================================================
@@ -71,8 +91,9 @@ public class WebClientUtil {
         log.info("---- WebClient GET Util 호출 base: {} , Path: {} ----", baseUrl, path);
         WebClient webClient = getWebClient(baseUrl);
 
-        // retrieve()를 사용하지 않고 exchangeToMono로 바로 연결
-        return webClient.get()
+        // retrieve()를 사용하지 않고 exchangeToMono로 바로 연결 (헤징이 켜져 있으면 느릴 때 한 번 더 보냄)
+        // 일시적인 실패(연결 오류, 503 등)는 RetryEngine이 백오프 후 다시 구독하여 재시도
+        return RetryEngine.execute(CLIENT, "GET", baseUrl + path, RequestHedger.hedge(CLIENT, "GET", baseUrl + path, timed("GET", baseUrl, webClient.get()
                 .uri(uriBuilder -> {
                     uriBuilder.path(path);
                     if(params != null){
@@ -80,8 +101,121 @@ public class WebClientUtil {
                     }
                     return uriBuilder.build();
                 })
-                .exchangeToMono(clientResponse -> processClientResponse(clientResponse, responseType))
-                .onErrorResume(WebClientUtil::handleNetworkError);
+                .exchangeToMono(clientResponse -> processClientResponse(clientResponse, responseType)))));
+    }
+
+    /**
+     * 공유 응답 캐시(ResponseCache)를 거치는 GET. 캐시가 만료되면 ETag/Last-Modified로 조건부 요청을 보냅니다.
+     * 다른 유틸리티와 같은 URL/타입이면 캐시 엔트리를 공유합니다. 반환된 data는 호출자마다 따로 만든 객체입니다.
+     */
+    public static <T> Mono<ApiResponse<T>> getCached(String baseUrl, String path, Map<String, Object> params, Class<T> responseType) {
+        String cacheUrl = UrlBuilder.buildUrlWithParams(baseUrl + path, params);
+        return ResponseCache.getMono(cacheUrl, responseType, (etag, lastModified) -> {
+            log.info("---- WebClient GET(cache miss) Util 호출 base: {} , Path: {} ----", baseUrl, path);
+            return conditionalGet(baseUrl, path, params, responseType, etag, lastModified);
+        });
+    }
+
+    // 검증자(etag/lastModified)가 있으면 조건부 요청을 보내고, 304면 본문 없이 notModified를 반환합니다.
+    static <T> Mono<ConditionalResponse<T>> conditionalGet(String baseUrl, String path, Map<String, Object> params,
+                                                          Class<T> responseType, String etag, String lastModified) {
+        WebClient webClient = getWebClient(baseUrl);
+        return RetryEngine.execute(CLIENT, "GET", baseUrl + path, Mono.defer(() -> {
+            long start = System.nanoTime();
+            return CircuitBreaker.acquireMono(baseUrl).then(AdaptiveLimiter.limit(baseUrl, webClient.get()
+                    .uri(uriBuilder -> {
+                        uriBuilder.path(path);
+                        if(params != null){
+                            params.forEach((key, value) -> uriBuilder.queryParam(key, value));
+                        }
+                        return uriBuilder.build();
+                    })
+                    .headers(headers -> {
+                        if (etag != null) {
+                            headers.setIfNoneMatch(etag);
+                        }
+                        if (lastModified != null) {
+                            headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+                        }
+                    })
+                    .exchangeToMono(clientResponse -> {
+                        HttpHeaders headers = clientResponse.headers().asHttpHeaders();
+                        String newEtag = headers.getETag();
+                        String newLastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+                        if (clientResponse.statusCode().value() == 304) {
+                            return clientResponse.releaseBody()
+                                    .thenReturn(ConditionalResponse.<T>notModified(newEtag, newLastModified));
+                        }
+                        return processClientResponse(clientResponse, responseType)
+                                .map(response -> ConditionalResponse.of(response, newEtag, newLastModified));
+                    })))
+                    .map(result -> {
+                        ClientMetrics.record(CLIENT, "GET", baseUrl, start, result.getResponse());
+                        return result;
+                    })
+                    .onErrorResume(e -> WebClientUtil.<T>handleNetworkError(e)
+                            .map(response -> ConditionalResponse.of(
+                                    ClientMetrics.recordFailure(CLIENT, "GET", baseUrl, start, response), null, null)));
+        }), ConditionalResponse::getResponse);
+    }
+
+    // =========================================================================
+    // GET 스트리밍 (JSON 배열을 요소 단위로 디코딩)
+    // =========================================================================
+    /**
+     * JSON 배열 응답을 Post[]처럼 한 번에 만들지 않고, 논블로킹 Jackson 토크나이저로 요소가 완성될 때마다 하나씩 발행합니다.
+     * 구독자의 요청량(backpressure)만큼만 읽으므로 응답 크기와 관계없이 메모리 사용량이 일정합니다.
+     * 실패(4xx/5xx, 네트워크 오류, 서킷 차단, LOAD_SHED)는 Flux 에러 신호로 전달됩니다.
+     * 본문은 구독자가 끝까지 읽으므로 첫 요소(빈 배열이면 완료)까지의 시간을 기록합니다. 요소를 낸 뒤에는 재시도할 수 없어 재시도하지 않습니다.
+     */
+    public static <T> Flux<T> getFlux(String baseUrl, String path, Map<String, Object> params, Class<T> elementType) {
+        log.info("---- WebClient GET(stream) Util 호출 base: {} , Path: {} ----", baseUrl, path);
+        WebClient webClient = getWebClient(baseUrl);
+
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            // 첫 요소, 에러 응답, 네트워크 오류 중 먼저 온 것 하나만 기록
+            AtomicBoolean recorded = new AtomicBoolean();
+            Flux<T> exchange = webClient.get()
+                    .uri(uriBuilder -> {
+                        uriBuilder.path(path);
+                        if(params != null){
+                            params.forEach((key, value) -> uriBuilder.queryParam(key, value));
+                        }
+                        return uriBuilder.build();
+                    })
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchangeToFlux(clientResponse -> {
+                        int rawStatusCode = clientResponse.statusCode().value();
+                        if (clientResponse.statusCode().is2xxSuccessful()) {
+                            return clientResponse.bodyToFlux(elementType).doOnEach(signal -> {
+                                if (recorded.compareAndSet(false, true)) {
+                                    ClientMetrics.record(CLIENT, "GET", baseUrl, start, ApiResponse.success(rawStatusCode, null));
+                                }
+                            });
+                        }
+                        Duration retryAfter = RetryEngine.parseRetryAfter(
+                                clientResponse.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                        return clientResponse.createException()
+                                .doOnNext(e -> {
+                                    if (recorded.compareAndSet(false, true)) {
+                                        ClientMetrics.record(CLIENT, "GET", baseUrl, start,
+                                                ApiResponse.failWithRetryAfter(rawStatusCode, e.getMessage(), retryAfter));
+                                    }
+                                })
+                                .flatMapMany(Flux::error);
+                    });
+            return CircuitBreaker.acquireMono(baseUrl)
+                    .thenMany(AdaptiveLimiter.limit(baseUrl, exchange))
+                    .doOnError(e -> {
+                        // 응답을 받지 못한 경우 (서킷 차단/LOAD_SHED는 recordFailure에서 제외됨)
+                        if (recorded.compareAndSet(false, true)) {
+                            log.error("WebClient Network Error: {}", e.getMessage());
+                            ClientMetrics.recordFailure(CLIENT, "GET", baseUrl, start,
+                                    CircuitBreaker.failure(e, 503, "WebClient Network Failure or Timeout: " + e.getMessage()));
+                        }
+                    });
+        });
     }
 
     // =========================================================================
@@ -92,11 +226,10 @@ public class WebClientUtil {
         WebClient webClient = getWebClient(baseUrl);
 
         // Body를 설정하고 exchangeToMono로 바로 연결
-        return webClient.post()
+        return RetryEngine.execute(CLIENT, "POST", baseUrl + path, timed("POST", baseUrl, webClient.post()
                 .uri(path)
                 .bodyValue(requestBody)
-                .exchangeToMono(clientResponse -> processClientResponse(clientResponse, responseType))
-                .onErrorResume(WebClientUtil::handleNetworkError);
+                .exchangeToMono(clientResponse -> processClientResponse(clientResponse, responseType))));
     }
 
     // =========================================================================
@@ -106,11 +239,10 @@ public class WebClientUtil {
         log.info("---- WebClient PUT Util 호출 base: {} , Path: {} ----", baseUrl, path);
         WebClient webClient = getWebClient(baseUrl);
 
-        return webClient.put()
+        return RetryEngine.execute(CLIENT, "PUT", baseUrl + path, RequestHedger.hedge(CLIENT, "PUT", baseUrl + path, timed("PUT", baseUrl, webClient.put()
                 .uri(path)
                 .bodyValue(requestBody)
-                .exchangeToMono(clientResponse -> processClientResponse(clientResponse, responseType))
-                .onErrorResume(WebClientUtil::handleNetworkError);
+                .exchangeToMono(clientResponse -> processClientResponse(clientResponse, responseType)))));
     }
 
     // =========================================================================
@@ -120,11 +252,10 @@ public class WebClientUtil {
         log.info("---- WebClient PATCH Util 호출 base: {} , Path: {} ----", baseUrl, path);
         WebClient webClient = getWebClient(baseUrl);
 
-        return webClient.patch()
+        return RetryEngine.execute(CLIENT, "PATCH", baseUrl + path, timed("PATCH", baseUrl, webClient.patch()
                 .uri(path)
                 .bodyValue(requestBody)
-                .exchangeToMono(clientResponse -> processClientResponse(clientResponse, responseType))
-                .onErrorResume(WebClientUtil::handleNetworkError);
+                .exchangeToMono(clientResponse -> processClientResponse(clientResponse, responseType))));
     }
 
     // =========================================================================
@@ -134,10 +265,9 @@ public class WebClientUtil {
         log.info("---- WebClient DELETE Util 호출 base: {} , Path: {} ----", baseUrl, path);
         WebClient webClient = getWebClient(baseUrl);
 
-        return webClient.delete()
+        return RetryEngine.execute(CLIENT, "DELETE", baseUrl + path, RequestHedger.hedge(CLIENT, "DELETE", baseUrl + path, timed("DELETE", baseUrl, webClient.delete()
                 .uri(path)
-                .exchangeToMono(clientResponse -> processClientResponse(clientResponse, Void.class))
-                .onErrorResume(WebClientUtil::handleNetworkError);
+                .exchangeToMono(clientResponse -> processClientResponse(clientResponse, Void.class)))));
     }
 // (POST, DELETE 등 다른 CRUD 메소드들은 동일한 패턴을 가지므로 주석은 get 메서드에 집중했습니다.)
     // ...
@@ -153,10 +283,32 @@ public class WebClientUtil {
      * @return 파일 메타데이터 및 최종 저장 경로를 담은 Mono<FileMetaData>
      */
     public static Mono<FileMetaData> downloadFile(String baseUrl, String path) {
-        log.info("---- WebClient DOWNLOAD Util 호출 base: {}, Path: {} ----", baseUrl, path);
-        WebClient webClient = getWebClient(baseUrl); // WebClient 인스턴스 생성
+        return downloadFile(baseUrl, path, DownloadScheduler.Priority.INTERACTIVE);
+    }
+
+    /**
+     * 우선순위를 지정하여 파일을 다운로드합니다. (DownloadScheduler 대기열 / 대역폭 제한에 사용)
+     * @param priority 작은 파일은 INTERACTIVE, 큰 파일은 BULK
+     */
+    public static Mono<FileMetaData> downloadFile(String baseUrl, String path, DownloadScheduler.Priority priority) {
+        log.info("---- WebClient DOWNLOAD Util 호출 base: {}, Path: {}, priority: {} ----", baseUrl, path, priority);
+        WebClient webClient = getWebClient(baseUrl); // 공유 WebClient 인스턴스 조회
 
         // 실제 파일 스트리밍 및 I/O 로직은 FileDownloadUtil의 정적 메소드를 호출하여 처리합니다.
-        return FileDownloadUtil.downloadFile(webClient, path);
+        // 이어받기 상태와 호스트별 동시 다운로드 제한은 전체 URL(base + path) 기준으로 구분합니다.
+        return FileDownloadUtil.downloadFile(webClient, baseUrl + path, path, priority);
+    }
+
+    /**
+     * 파일을 디스크에 저장하지 않고 호출자에게 그대로 중계할 수 있도록 엽니다. (패스스루)
+     * @param baseUrl 파일 서버의 기본 URL
+     * @param path 다운로드할 파일 경로
+     * @param teeToDisk true면 중계하면서 로컬 저장소에도 사본을 저장
+     * @return 업스트림 헤더와 아직 읽지 않은 본문을 담은 Mono<DownloadStream>
+     */
+    public static Mono<DownloadStream> openDownloadStream(String baseUrl, String path, boolean teeToDisk) {
+        log.info("---- WebClient DOWNLOAD STREAM Util 호출 base: {}, Path: {}, tee: {} ----", baseUrl, path, teeToDisk);
+        WebClient webClient = getWebClient(baseUrl);
+        return FileDownloadUtil.openStream(webClient, baseUrl + path, path, teeToDisk);
     }
-}
\ No newline at end of file
+}
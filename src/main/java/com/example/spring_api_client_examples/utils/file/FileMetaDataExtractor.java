@@ -84,6 +84,29 @@ public class FileMetaDataExtractor {
         String extensionWithDot = extension.isEmpty() ? "" : "." + extension;
         String randomFileName = UUID.randomUUID().toString().replace("-","") + extensionWithDot;
 
-        return FileMetaData.builder().originalFileName(originalFileName).extension(extension).savedFileName(randomFileName).build();
+        return FileMetaData.builder()
+                .originalFileName(originalFileName)
+                .extension(extension)
+                .savedFileName(randomFileName)
+                .contentType(contentType != null ? contentType.toString() : null)
+                .build();
+    }
+
+    /**
+     * 본문의 매직 넘버로 판별한 실제 형식으로 Content-Type과 확장자를 고칩니다.
+     * 저장 파일명은 같은 UUID에 확장자만 바꿉니다. (파일을 쓰기 전에 호출해야 함)
+     * @param signature 판별한 형식 (null이면 헤더/URL 기준 값을 그대로 둠)
+     */
+    public static void applySignature(FileMetaData metaData, FileSignature signature){
+        if(signature == null){
+            return;
+        }
+        String savedFileName = metaData.getSavedFileName();
+        int dotIndex = savedFileName.indexOf('.');
+        String baseName = dotIndex >= 0 ? savedFileName.substring(0, dotIndex) : savedFileName;
+
+        metaData.setContentType(signature.getMediaType().toString());
+        metaData.setExtension(signature.getExtension());
+        metaData.setSavedFileName(baseName + "." + signature.getExtension());
     }
 }
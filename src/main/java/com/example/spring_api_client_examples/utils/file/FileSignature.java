@@ -0,0 +1,93 @@
+package com.example.spring_api_client_examples.utils.file;
+
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 파일 앞부분의 매직 넘버(시그니처)로 판별한 실제 파일 형식입니다.
+ * URL에 파일명이 없거나(placehold.co의 /600x400/000000/FFFFFF/jpg 등) 헤더의 Content-Type이 부정확할 때 사용합니다.
+ * 판별에는 앞부분 HEAD_LENGTH 바이트면 충분합니다.
+ */
+public enum FileSignature {
+
+    JPEG(MediaType.IMAGE_JPEG, "jpg", 0, bytes(0xFF, 0xD8, 0xFF)),
+    PNG(MediaType.IMAGE_PNG, "png", 0, bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)),
+    GIF(MediaType.IMAGE_GIF, "gif", 0, ascii("GIF8")),
+    // RIFF 컨테이너 중 WEBP
+    WEBP(MediaType.parseMediaType("image/webp"), "webp", 0, ascii("RIFF"), 8, ascii("WEBP")),
+    PDF(MediaType.APPLICATION_PDF, "pdf", 0, ascii("%PDF-")),
+    // ISO BMFF(ftyp 박스) 중 QuickTime 브랜드는 MP4보다 먼저 확인
+    QUICKTIME(MediaType.parseMediaType("video/quicktime"), "mov", 4, ascii("ftyp"), 8, ascii("qt  ")),
+    MP4(MediaType.parseMediaType("video/mp4"), "mp4", 4, ascii("ftyp")),
+    WEBM(MediaType.parseMediaType("video/webm"), "webm", 0, bytes(0x1A, 0x45, 0xDF, 0xA3)),
+    ZIP(MediaType.parseMediaType("application/zip"), "zip", 0, bytes('P', 'K', 0x03, 0x04)),
+    GZIP(MediaType.parseMediaType("application/gzip"), "gz", 0, bytes(0x1F, 0x8B));
+
+    /** 판별에 필요한 앞부분 바이트 수 */
+    public static final int HEAD_LENGTH = 16;
+
+    @Getter
+    private final MediaType mediaType;
+    @Getter
+    private final String extension;
+    private final int offset;
+    private final byte[] magic;
+    // 두 번째 조건 (없으면 null)
+    private final int secondOffset;
+    private final byte[] secondMagic;
+
+    FileSignature(MediaType mediaType, String extension, int offset, byte[] magic) {
+        this(mediaType, extension, offset, magic, 0, null);
+    }
+
+    FileSignature(MediaType mediaType, String extension, int offset, byte[] magic, int secondOffset, byte[] secondMagic) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+        this.offset = offset;
+        this.magic = magic;
+        this.secondOffset = secondOffset;
+        this.secondMagic = secondMagic;
+    }
+
+    /**
+     * 파일 앞부분으로 형식을 판별합니다.
+     * @param head 파일의 첫 바이트들 (HEAD_LENGTH보다 짧아도 됨)
+     * @param length head 중 유효한 길이
+     * @return 알 수 없으면 null
+     */
+    public static FileSignature detect(byte[] head, int length) {
+        for (FileSignature signature : values()) {
+            if (matches(head, length, signature.offset, signature.magic)
+                    && (signature.secondMagic == null || matches(head, length, signature.secondOffset, signature.secondMagic))) {
+                return signature;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(byte[] head, int length, int offset, byte[] magic) {
+        if (length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (head[offset + i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
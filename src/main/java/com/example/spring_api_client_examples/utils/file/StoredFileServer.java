@@ -0,0 +1,165 @@
+package com.example.spring_api_client_examples.utils.file;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 로컬에 저장된 다운로드 파일을 HTTP 응답으로 제공하는 유틸리티입니다.
+ * ETag / Last-Modified 조건부 요청(304), 단일·다중 Range(206, multipart/byteranges), If-Range를 지원합니다.
+ * Tomcat이 sendfile을 지원하면 전체 파일과 단일 Range는 본문을 힙으로 복사하지 않고 커널이 소켓으로 바로 보냅니다(zero-copy).
+ * 그 외(다중 Range, sendfile 미지원, 작은 파일)는 Spring의 ResourceRegion 변환기로 씁니다.
+ */
+@Slf4j
+public class StoredFileServer {
+
+    // Tomcat sendfile 요청 속성 (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // 이보다 작은 구간은 sendfile 준비 비용이 더 크므로 그냥 씀 (Tomcat DefaultServlet 기본값과 동일)
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    // 내용 주소 저장소의 객체 이름 (SHA-256 16진수)
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private static final ResourceHttpMessageConverter RESOURCE_CONVERTER = new ResourceHttpMessageConverter();
+    private static final ResourceRegionHttpMessageConverter REGION_CONVERTER = new ResourceRegionHttpMessageConverter();
+
+    /**
+     * 파일을 응답으로 씁니다. (컨트롤러에서 HttpServletResponse를 직접 다룰 때 사용)
+     * @param file 제공할 파일 (존재하는 일반 파일이어야 함)
+     */
+    public static void serve(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = etagFor(file, length, lastModified);
+
+        // 1. 조건부 요청: If-None-Match / If-Modified-Since가 맞으면 304, If-Match 불일치면 412
+        //    (GET/HEAD면 ETag, Last-Modified 응답 헤더도 여기서 설정됨)
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        FileSystemResource resource = new FileSystemResource(file);
+
+        // 2. Range 해석 (If-Range가 현재 버전과 다르면 Range를 무시하고 전체 응답)
+        List<ResourceRegion> regions;
+        try {
+            List<HttpRange> ranges = rangeApplies(request, etag, lastModified)
+                    ? HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE))
+                    : List.of();
+            // 파일 범위를 벗어나거나 구간 합이 파일보다 크면 IllegalArgumentException
+            regions = HttpRange.toResourceRegions(ranges, resource);
+        } catch (IllegalArgumentException e) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+
+        // 3. 전체 응답
+        if (regions.isEmpty()) {
+            response.setStatus(HttpStatus.OK.value());
+            if (trySendfile(request, response, file, contentType, 0, length)) {
+                return;
+            }
+            RESOURCE_CONVERTER.write(resource, contentType, new ServletServerHttpResponse(response));
+            return;
+        }
+
+        // 4. 단일 Range
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (regions.size() == 1) {
+            ResourceRegion region = regions.get(0);
+            long start = region.getPosition();
+            long count = region.getCount();
+            if (trySendfile(request, response, file, contentType, start, count)) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + count - 1) + "/" + length);
+                return;
+            }
+            // Content-Range, Content-Length는 변환기가 설정
+            REGION_CONVERTER.write(region, ResourceRegion.class, contentType, new ServletServerHttpResponse(response));
+            return;
+        }
+
+        // 5. 다중 Range: multipart/byteranges
+        REGION_CONVERTER.write(regions, ResolvableType.forClassWithGenerics(List.class, ResourceRegion.class).getType(),
+                contentType, new ServletServerHttpResponse(response));
+    }
+
+    /**
+     * Tomcat sendfile로 [start, start + count) 구간을 보내도록 요청합니다.
+     * 본문은 쓰지 않고 요청 속성만 설정하면, 서블릿이 끝난 뒤 Tomcat이 FileChannel.transferTo로 소켓에 직접 보냅니다.
+     * @return sendfile을 사용했으면 true
+     */
+    private static boolean trySendfile(HttpServletRequest request, HttpServletResponse response, Path file,
+                                       MediaType contentType, long start, long count) throws IOException {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))
+                || count < SENDFILE_MIN_SIZE
+                || "HEAD".equals(request.getMethod())) {
+            return false;
+        }
+        response.setContentType(contentType.toString());
+        response.setContentLengthLong(count);
+        request.setAttribute(SENDFILE_FILENAME_ATTR, file.toRealPath().toString());
+        request.setAttribute(SENDFILE_START_ATTR, start);
+        request.setAttribute(SENDFILE_END_ATTR, start + count); // 끝 위치는 제외(exclusive)
+        log.debug("sendfile 전송: {} [{}, {})", file, start, start + count);
+        return true;
+    }
+
+    /** 내용 주소 객체는 해시 자체를, 그 외 파일은 크기와 수정 시각으로 ETag를 만듭니다. (저장된 파일은 바뀌지 않음) */
+    private static String etagFor(Path file, long length, long lastModified) {
+        String name = file.getFileName().toString();
+        if (CONTENT_HASH.matcher(name).matches()) {
+            return "\"" + name + "\"";
+        }
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    // Range 헤더가 있고, If-Range가 없거나 현재 ETag / Last-Modified와 같을 때만 Range를 적용
+    private static boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        if (request.getHeader(HttpHeaders.RANGE) == null) {
+            return false;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return date / 1000 == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveLimiterTest {
+
+	private static final String HOST = "limiter.test";
+	private static final String URL = "http://" + HOST + "/posts";
+
+	@AfterEach
+	void tearDown() {
+		AdaptiveLimiter.configure(new ApiClientProperties.AdaptiveLimiter());
+	}
+
+	@Test
+	void throttlingHalvesLimitOncePerRound() throws Exception {
+		configure(8, 10, Duration.ofSeconds(1));
+		AdaptiveLimiter.Permit first = AdaptiveLimiter.acquire(URL);
+		AdaptiveLimiter.Permit second = AdaptiveLimiter.acquire(URL);
+		AdaptiveLimiter.acquire(URL);
+		long sentBeforeDecrease = System.nanoTime();
+
+		AdaptiveLimiter.onResult(URL, sentBeforeDecrease, ApiResponse.fail(429, "slow down"));
+		first.release();
+		assertThat(AdaptiveLimiter.getLimit(HOST)).isEqualTo(4);
+
+		// 줄이기 전에 보낸 요청의 429로는 다시 줄이지 않음
+		AdaptiveLimiter.onResult(URL, sentBeforeDecrease, ApiResponse.fail(429, "slow down"));
+		second.release();
+		assertThat(AdaptiveLimiter.getLimit(HOST)).isEqualTo(4);
+
+		// 자리를 절반 이상 쓰는 동안의 성공 응답은 제한을 1씩 늘림
+		AdaptiveLimiter.acquire(URL);
+		AdaptiveLimiter.onResult(URL, System.nanoTime(), ApiResponse.success(200, "ok"));
+		assertThat(AdaptiveLimiter.getLimit(HOST)).isEqualTo(5);
+	}
+
+	@Test
+	void waiterGetsReleasedPermit() throws Exception {
+		configure(1, 10, Duration.ofSeconds(5));
+		AdaptiveLimiter.Permit first = AdaptiveLimiter.acquire(URL);
+
+		CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+			try {
+				AdaptiveLimiter.acquire(URL);
+			} catch (AdaptiveLimiter.LoadShedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		// 대기열에 들어갈 시간을 준 뒤 결과를 기록하고 첫 요청의 자리를 반납
+		Thread.sleep(100);
+		assertThat(waiter).isNotDone();
+		AdaptiveLimiter.onResult(URL, System.nanoTime(), ApiResponse.success(200, "ok"));
+		assertThat(waiter).isNotDone();
+		first.release();
+
+		waiter.get(1, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void permitIsReleasedOnceWithoutRecording() throws Exception {
+		configure(1, 0, Duration.ofSeconds(1));
+		// 결과를 기록하지 못한 채 예외로 끝난 요청도 finally에서 반납하면 자리가 돌아옴
+		try (AdaptiveLimiter.Permit permit = AdaptiveLimiter.acquire(URL)) {
+			assertThat(permit).isNotNull();
+		}
+		AdaptiveLimiter.Permit second = AdaptiveLimiter.acquire(URL);
+
+		// 이미 반납한 허가를 다시 반납해도 다른 요청의 자리는 비지 않음
+		second.release();
+		AdaptiveLimiter.Permit third = AdaptiveLimiter.acquire(URL);
+		second.release();
+		assertThatThrownBy(() -> AdaptiveLimiter.acquire(URL))
+				.isInstanceOf(AdaptiveLimiter.LoadShedException.class)
+				.hasMessageContaining("queue_full");
+		third.release();
+	}
+
+	@Test
+	void shedsWhenQueueIsFullOrDeadlinePasses() throws Exception {
+		configure(1, 0, Duration.ofSeconds(1));
+		AdaptiveLimiter.acquire(URL);
+		assertThatThrownBy(() -> AdaptiveLimiter.acquire(URL))
+				.isInstanceOf(AdaptiveLimiter.LoadShedException.class)
+				.hasMessageContaining("queue_full");
+
+		configure(1, 10, Duration.ofMillis(50));
+		AdaptiveLimiter.acquire(URL);
+		assertThatThrownBy(() -> AdaptiveLimiter.acquire(URL))
+				.isInstanceOf(AdaptiveLimiter.LoadShedException.class)
+				.hasMessageContaining("deadline");
+
+		ApiResponse<Void> response = CircuitBreaker.failure(new AdaptiveLimiter.LoadShedException(HOST, "deadline"), 500, "shed");
+		assertThat(response.getError().getCode()).isEqualTo(AdaptiveLimiter.LOAD_SHED);
+		assertThat(CircuitBreaker.isRejected(response)).isTrue();
+	}
+
+	private static void configure(int initialLimit, int maxQueue, Duration maxWait) {
+		ApiClientProperties.AdaptiveLimiter settings = new ApiClientProperties.AdaptiveLimiter();
+		settings.setInitialLimit(initialLimit);
+		settings.setMaxQueue(maxQueue);
+		settings.setMaxWait(maxWait);
+		AdaptiveLimiter.configure(settings);
+	}
+}
@@ -0,0 +1,73 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.utils.file.FileSignature;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DownloadInspectorTest {
+
+	private static final byte[] PNG_HEAD = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D};
+	private static final byte[] PDF_HEAD = "%PDF-1.7\n".getBytes();
+
+	@Test
+	void countsBytesAndDetectsTypeFromFirstBuffer() {
+		// 헤더는 octet-stream이지만 본문은 PNG
+		DownloadInspector inspector = new DownloadInspector(0, List.of(MediaType.parseMediaType("image/*")),
+				MediaType.APPLICATION_OCTET_STREAM);
+
+		List<DataBuffer> passed = inspector.inspect(Flux.just(buffer(PNG_HEAD), buffer(new byte[100])))
+				.collectList()
+				.block();
+
+		assertThat(passed).hasSize(2);
+		assertThat(inspector.getBytes()).isEqualTo(PNG_HEAD.length + 100);
+		assertThat(inspector.getSignature()).isEqualTo(FileSignature.PNG);
+	}
+
+	@Test
+	void rejectsDisallowedTypeOnFirstBuffer() {
+		// 헤더는 이미지라고 하지만 본문은 PDF
+		DownloadInspector inspector = new DownloadInspector(0, List.of(MediaType.parseMediaType("image/*")),
+				MediaType.IMAGE_PNG);
+
+		assertThatThrownBy(() -> inspector.inspect(Flux.just(buffer(PDF_HEAD), buffer(new byte[100]))).blockLast())
+				.isInstanceOf(DownloadInspector.DownloadRejectedException.class);
+
+		// 두 번째 버퍼는 받지 않음
+		assertThat(inspector.getBytes()).isZero();
+	}
+
+	@Test
+	void abortsWhenBodyExceedsMaxSize() {
+		DownloadInspector inspector = new DownloadInspector(150, List.of(), null);
+
+		List<DataBuffer> passed = new ArrayList<>();
+		assertThatThrownBy(() -> inspector.inspect(Flux.just(buffer(new byte[100]), buffer(new byte[100]), buffer(new byte[100])))
+				.doOnNext(passed::add)
+				.blockLast())
+				.isInstanceOf(DownloadInspector.DownloadRejectedException.class);
+		assertThat(passed).hasSize(1);
+	}
+
+	@Test
+	void rejectsDeclaredLengthBeforeBody() {
+		DownloadInspector inspector = new DownloadInspector(150, List.of(), null);
+
+		assertThatThrownBy(() -> inspector.checkExpectedSize(151))
+				.isInstanceOf(DownloadInspector.DownloadRejectedException.class);
+		inspector.checkExpectedSize(-1); // 크기를 모르면 받는 도중에 확인
+	}
+
+	private static DataBuffer buffer(byte[] bytes) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+	}
+}
@@ -0,0 +1,60 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.dto.Post;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonStreamDecoderTest {
+
+	private static final int POST_COUNT = 10_000;
+
+	@Test
+	void decodesArrayFromStream() throws Exception {
+		byte[] body = postsJson(3);
+
+		Post[] posts = JsonStreamDecoder.decode(new ByteArrayInputStream(body), Post[].class);
+
+		assertThat(posts).hasSize(3);
+		assertThat(posts[2].getId()).isEqualTo(2);
+	}
+
+	@Test
+	void emptyBodyDecodesToNull() throws Exception {
+		assertThat(JsonStreamDecoder.decode(new ByteArrayInputStream(new byte[0]), Post[].class)).isNull();
+		assertThat(JsonStreamDecoder.decode(new byte[0], Post[].class)).isNull();
+	}
+
+	/**
+	 * 기존 경로(byte[] → String → readValue(String))와 같은 결과를 내는지 확인합니다.
+	 * 두 경로의 할당량 비교는 JsonDecodeBenchmark(-prof gc)에서 측정합니다.
+	 */
+	@Test
+	void streamingMatchesStringPath() throws Exception {
+		byte[] body = postsJson(POST_COUNT);
+		ObjectMapper mapper = new ObjectMapper();
+
+		Post[] fromString = mapper.readValue(new String(body, StandardCharsets.UTF_8), Post[].class);
+		Post[] fromStream = JsonStreamDecoder.decode(new ByteArrayInputStream(body), Post[].class);
+
+		assertThat(fromStream).hasSize(POST_COUNT);
+		assertThat(fromStream).usingRecursiveFieldByFieldElementComparator().containsExactly(fromString);
+	}
+
+	private static byte[] postsJson(int count) {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"userId\":1,\"id\":").append(i)
+					.append(",\"title\":\"title ").append(i)
+					.append("\",\"body\":\"body text for post ").append(i).append("\"}");
+		}
+		return sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
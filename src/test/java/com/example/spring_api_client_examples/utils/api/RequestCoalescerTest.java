@@ -0,0 +1,64 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescerTest {
+
+	private static final int CALLERS = 20;
+
+	@Test
+	void concurrentIdenticalCallsShareOneUpstreamCall() throws Exception {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+		try {
+			List<Future<ApiResponse<String>>> results = new ArrayList<>();
+			for (int i = 0; i < CALLERS; i++) {
+				results.add(pool.submit(() -> RequestCoalescer.join("test#coalesce", () -> {
+					upstreamCalls.incrementAndGet();
+					await(release);
+					return ApiResponse.success(200, "shared");
+				})));
+			}
+			// 모든 호출자가 진행 중인 호출에 합류할 시간을 준 뒤 업스트림 응답을 완료
+			Thread.sleep(200);
+			release.countDown();
+
+			for (Future<ApiResponse<String>> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS).getData()).isEqualTo("shared");
+			}
+			assertThat(upstreamCalls.get()).isEqualTo(1);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void keyIsReleasedAfterCompletion() {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+
+		RequestCoalescer.join("test#sequential", () -> ApiResponse.success(200, upstreamCalls.incrementAndGet()));
+		RequestCoalescer.join("test#sequential", () -> ApiResponse.success(200, upstreamCalls.incrementAndGet()));
+
+		assertThat(upstreamCalls.get()).isEqualTo(2);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
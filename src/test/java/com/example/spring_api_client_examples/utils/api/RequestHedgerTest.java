@@ -0,0 +1,96 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestHedgerTest {
+
+	private static final String URL = "http://hedger.test/posts";
+
+	@BeforeEach
+	void setUp() {
+		// 첫 요청이 300ms 걸리는 동안 20ms 뒤에 헤지 요청을 보내도록 설정
+		ApiClientProperties.Hedging settings = new ApiClientProperties.Hedging();
+		settings.setEnabled(true);
+		settings.setDelay(Duration.ofMillis(20));
+		settings.setBudgetPercent(100);
+		RequestHedger.configure(settings);
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestHedger.configure(new ApiClientProperties.Hedging());
+		CircuitBreaker.configure(new ApiClientProperties.CircuitBreaker());
+	}
+
+	@Test
+	void rejectedHedgeReturnsPrimaryResultMono() {
+		AtomicInteger attempts = new AtomicInteger();
+		Mono<ApiResponse<String>> attempt = Mono.defer(() -> attempts.incrementAndGet() == 1
+				? Mono.delay(Duration.ofMillis(300)).thenReturn(ApiResponse.success(200, "primary"))
+				: Mono.just(ApiResponse.<String>fail(503, CircuitBreaker.CIRCUIT_OPEN, "open")));
+
+		ApiResponse<String> response = RequestHedger.hedge("test", "GET", URL, attempt).block(Duration.ofSeconds(5));
+
+		// 바로 차단된 헤지 요청이 첫 요청을 취소하지 않음
+		assertThat(response.getData()).isEqualTo("primary");
+		assertThat(attempts).hasValue(2);
+	}
+
+	@Test
+	void rejectedHedgeReturnsPrimaryResultFuture() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		Supplier<CompletableFuture<ApiResponse<String>>> attempt = () -> attempts.incrementAndGet() == 1
+				? CompletableFuture.supplyAsync(() -> ApiResponse.success(200, "primary"),
+						CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS))
+				: CompletableFuture.completedFuture(ApiResponse.fail(503, AdaptiveLimiter.LOAD_SHED, "shed"));
+
+		ApiResponse<String> response = RequestHedger.hedge("test", "GET", URL, attempt).get(5, TimeUnit.SECONDS);
+
+		assertThat(response.getData()).isEqualTo("primary");
+		assertThat(attempts).hasValue(2);
+	}
+
+	@Test
+	void successfulHedgeWins() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		Supplier<CompletableFuture<ApiResponse<String>>> attempt = () -> attempts.incrementAndGet() == 1
+				? new CompletableFuture<>()
+				: CompletableFuture.completedFuture(ApiResponse.success(200, "hedge"));
+
+		ApiResponse<String> response = RequestHedger.hedge("test", "GET", URL, attempt).get(5, TimeUnit.SECONDS);
+
+		assertThat(response.getData()).isEqualTo("hedge");
+	}
+
+	@Test
+	void doesNotHedgeUnlessCircuitIsClosed() {
+		ApiClientProperties.CircuitBreaker circuit = new ApiClientProperties.CircuitBreaker();
+		circuit.setMinimumCalls(1);
+		CircuitBreaker.configure(circuit);
+		CircuitBreaker.onResult(URL, true, 0);
+
+		AtomicInteger attempts = new AtomicInteger();
+		Mono<ApiResponse<String>> attempt = Mono.defer(() -> {
+			attempts.incrementAndGet();
+			return Mono.delay(Duration.ofMillis(100)).thenReturn(ApiResponse.success(200, "primary"));
+		});
+
+		ApiResponse<String> response = RequestHedger.hedge("test", "GET", URL, attempt).block(Duration.ofSeconds(5));
+
+		// OPEN/HALF_OPEN에서는 시험 호출 허가를 쓰지 않도록 헤지 요청을 보내지 않음
+		assertThat(response.getData()).isEqualTo("primary");
+		assertThat(attempts).hasValue(1);
+	}
+}
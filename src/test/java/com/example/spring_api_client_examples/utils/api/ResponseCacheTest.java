@@ -0,0 +1,65 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import com.example.spring_api_client_examples.dto.Post;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+	private static final String URL = "http://cache.test/posts";
+
+	@BeforeEach
+	void setUp() {
+		ResponseCache.configure(new ApiClientProperties.ResponseCache());
+	}
+
+	@AfterEach
+	void tearDown() {
+		ResponseCache.configure(new ApiClientProperties.ResponseCache());
+	}
+
+	@Test
+	void hitDoesNotAliasCachedData() {
+		AtomicInteger fetches = new AtomicInteger();
+		ResponseCache.Fetcher<Post[]> fetcher = (etag, lastModified) -> {
+			fetches.incrementAndGet();
+			return ConditionalResponse.of(ApiResponse.success(200, posts()), "\"v1\"", null);
+		};
+
+		// miss로 받은 data와 적중으로 받은 data를 고쳐도 캐시 값은 그대로
+		ApiResponse<Post[]> first = ResponseCache.get(URL, Post[].class, fetcher);
+		first.getData()[0].setTitle("changed by first caller");
+		ApiResponse<Post[]> second = ResponseCache.get(URL, Post[].class, fetcher);
+		second.getData()[0].setTitle("changed by second caller");
+		ApiResponse<Post[]> third = ResponseCache.get(URL, Post[].class, fetcher);
+
+		assertThat(fetches).hasValue(1);
+		assertThat(third.getData()).isNotSameAs(second.getData());
+		assertThat(third.getData()[0].getTitle()).isEqualTo("title");
+	}
+
+	@Test
+	void reactiveHitDoesNotAliasCachedData() {
+		ResponseCache.ReactiveFetcher<Post[]> fetcher = (etag, lastModified) ->
+				Mono.just(ConditionalResponse.of(ApiResponse.success(200, posts()), "\"v1\"", null));
+
+		ApiResponse<Post[]> first = ResponseCache.getMono(URL, Post[].class, fetcher).block(Duration.ofSeconds(5));
+		first.getData()[0].setTitle("changed by first caller");
+		ApiResponse<Post[]> second = ResponseCache.getMono(URL, Post[].class, fetcher).block(Duration.ofSeconds(5));
+
+		assertThat(second.getData()).isNotSameAs(first.getData());
+		assertThat(second.getData()[0].getTitle()).isEqualTo("title");
+	}
+
+	private static Post[] posts() {
+		return new Post[]{new Post(1, 1, "title", "body")};
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.spring_api_client_examples.utils.api;
+
+import com.example.spring_api_client_examples.config.ApiClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryEngineTest {
+
+	private static final String URL = "http://retry.test/posts";
+
+	@BeforeEach
+	void setUp() {
+		// 테스트가 백오프를 기다리지 않도록 대기 시간 0
+		ApiClientProperties.Retry settings = new ApiClientProperties.Retry();
+		settings.setBaseBackoff(Duration.ZERO);
+		settings.setMinRetriesPerSecond(10);
+		RetryEngine.configure(settings);
+	}
+
+	@AfterEach
+	void tearDown() {
+		RetryEngine.configure(new ApiClientProperties.Retry());
+	}
+
+	@Test
+	void retriesTransientStatusUntilSuccess() {
+		AtomicInteger calls = new AtomicInteger();
+
+		ApiResponse<String> response = RetryEngine.execute("test", "GET", URL, () ->
+				calls.incrementAndGet() < 3 ? ApiResponse.fail(503, "unavailable") : ApiResponse.success(200, "ok"));
+
+		assertThat(response.getData()).isEqualTo("ok");
+		assertThat(calls).hasValue(3);
+	}
+
+	@Test
+	void retriesConnectionFailureButNotClientError() {
+		AtomicInteger ioCalls = new AtomicInteger();
+		RetryEngine.execute("test", "GET", URL, () -> {
+			ioCalls.incrementAndGet();
+			return ApiResponse.failWithCause(500, "refused", new ConnectException("refused"));
+		});
+		// maxAttempts(3)까지만 시도
+		assertThat(ioCalls).hasValue(3);
+
+		AtomicInteger notFoundCalls = new AtomicInteger();
+		RetryEngine.execute("test", "GET", URL, () -> {
+			notFoundCalls.incrementAndGet();
+			return ApiResponse.fail(404, "not found");
+		});
+		assertThat(notFoundCalls).hasValue(1);
+	}
+
+	@Test
+	void doesNotRetryNonIdempotentMethodOrOpenCircuit() {
+		AtomicInteger postCalls = new AtomicInteger();
+		RetryEngine.execute("test", "POST", URL, () -> {
+			postCalls.incrementAndGet();
+			return ApiResponse.fail(503, "unavailable");
+		});
+		assertThat(postCalls).hasValue(1);
+
+		AtomicInteger rejectedCalls = new AtomicInteger();
+		RetryEngine.execute("test", "GET", URL, () -> {
+			rejectedCalls.incrementAndGet();
+			return ApiResponse.fail(503, CircuitBreaker.CIRCUIT_OPEN, "open");
+		});
+		assertThat(rejectedCalls).hasValue(1);
+	}
+
+	@Test
+	void parsesRetryAfterSecondsAndHttpDate() {
+		assertThat(RetryEngine.parseRetryAfter("120")).isEqualTo(Duration.ofSeconds(120));
+		assertThat(RetryEngine.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT")).isEqualTo(Duration.ZERO);
+		assertThat(RetryEngine.parseRetryAfter("soon")).isNull();
+		assertThat(RetryEngine.parseRetryAfter(null)).isNull();
+	}
+}